@@ -1,10 +1,17 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "org.example"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
 repositories {
     mavenCentral()
 }
@@ -13,9 +20,14 @@ dependencies {
     implementation("com.mysql:mysql-connector-j:8.3.0")
     implementation("com.zaxxer:HikariCP:5.1.0")
     implementation("org.slf4j:slf4j-nop:2.0.16")
+    // Anotaciones de mapeo (retención SOURCE) y el procesador que genera los *Mapper de model
+    compileOnly(project(":processor"))
+    annotationProcessor(project(":processor"))
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testRuntimeOnly("com.h2database:h2:2.2.224")
+    jmh("com.h2database:h2:2.2.224")
 }
 
 tasks.withType<JavaExec> {
@@ -32,4 +44,27 @@ tasks.withType<JavaCompile> {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    // Los tests de acceso a datos usan una base H2 en memoria (src/test/resources)
+    systemProperty("db.config", "db-test.properties")
+}
+
+// Los benchmarks y los tests crean el esquema en memoria a partir del mismo script de /sql
+sourceSets.named("jmh") {
+    resources.srcDir("sql")
+}
+sourceSets.named("test") {
+    resources.srcDir("sql")
+}
+
+// Benchmarks JMH (src/jmh). Ejecutar con: ./gradlew jmh
+// Ej.: ./gradlew jmh -Pjmh.includes=PacienteDao -Pjmh.filas=100000
+jmh {
+    includes.set(listOf((findProperty("jmh.includes") as String?) ?: ".*"))
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    profilers.set(listOf("gc"))
+    (findProperty("jmh.filas") as String?)?.let {
+        benchmarkParameters.put("filas", objects.listProperty<String>().value(listOf(it)))
+    }
+}
@@ -0,0 +1,39 @@
+package mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un campo persistente de una {@link Entidad}.
+ * <p>
+ * Tipos admitidos: {@code long}/{@code Long}, {@code int}/{@code Integer}, {@code boolean}/{@code Boolean},
+ * {@code String}, {@code LocalDate} y enumeraciones. Las enumeraciones que declaran {@code db()} y
+ * {@code static fromDb(String)} se convierten con esos métodos; el resto, con {@code name()}/{@code valueOf}.
+ * El campo debe tener su getter ({@code getX}/{@code isX}) y su setter públicos.
+ * </p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Columna {
+
+    /**
+     * Nombre de la columna. Por defecto, el nombre del campo en snake_case
+     * (ej: {@code fechaNacimiento} → {@code fecha_nacimiento}).
+     */
+    String nombre() default "";
+
+    /**
+     * Indica si la columna forma parte del {@code UPDATE} generado (ej: {@code false} para
+     * una clave foránea que no debe cambiar una vez creada la fila).
+     */
+    boolean actualizable() default true;
+
+    /**
+     * Indica si la columna es pesada (ej: {@code TEXT}) y se excluye de la proyección resumida.
+     * Si la entidad tiene columnas perezosas, el mapper generado incluye además {@code COLUMNAS_RESUMEN},
+     * {@code mapResumen}, {@code COLUMNAS_DETALLE} y {@code mapDetalle}.
+     */
+    boolean perezosa() default false;
+}
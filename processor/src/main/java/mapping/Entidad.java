@@ -0,0 +1,29 @@
+package mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca una subclase de {@code EntidadBase} para la que se genera, en tiempo de compilación,
+ * la clase {@code <Entidad>Mapper} con su lista de columnas, sentencias y métodos de mapeo.
+ * <p>
+ * Se mapean los campos anotados con {@link Columna}, {@link Id} o {@link Version} de la clase y de sus superclases,
+ * en orden de declaración (primero los de la superclase).
+ * </p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Entidad {
+
+    /**
+     * Nombre de la tabla.
+     */
+    String tabla();
+
+    /**
+     * Alias de la tabla utilizado en la lista de columnas (ej: {@code "p"} para {@code p.dni}).
+     */
+    String alias();
+}
@@ -0,0 +1,20 @@
+package mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca la clave primaria autogenerada de una {@link Entidad}.
+ * Se lee en el mapeo, pero no forma parte del {@code INSERT} y se usa como condición del {@code UPDATE}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Id {
+
+    /**
+     * Nombre de la columna.
+     */
+    String nombre() default "id";
+}
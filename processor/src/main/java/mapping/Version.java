@@ -0,0 +1,25 @@
+package mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca el contador de versión de una {@link Entidad} (bloqueo optimista).
+ * <p>
+ * Se lee en el mapeo y se inserta con su valor inicial. No se asigna en el {@code SET} del {@code UPDATE}:
+ * la sentencia lo incrementa ({@code version = version + 1}) y lo usa como condición junto con la clave,
+ * de modo que una actualización basada en una versión ya superada no modifica ninguna fila.
+ * Tipos admitidos: {@code long}/{@code int}.
+ * </p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Version {
+
+    /**
+     * Nombre de la columna.
+     */
+    String nombre() default "version";
+}
@@ -0,0 +1,662 @@
+package mapping.processor;
+
+import mapping.Columna;
+import mapping.Entidad;
+import mapping.Id;
+import mapping.Version;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+
+/**
+ * Procesador de anotaciones que genera, para cada clase anotada con {@link Entidad}, una clase
+ * {@code <Entidad>Mapper} en el mismo paquete con:
+ * <ul>
+ * <li>{@code TABLA}, {@code COLUMNAS} (con el alias de la tabla) y {@code CANTIDAD_COLUMNAS};</li>
+ * <li>las sentencias {@code INSERT} (sin la clave {@link Id}) y {@code UPDATE} (solo columnas
+ * {@link Columna#actualizable()}, con la clave como condición y, si hay un campo {@link Version},
+ * también la versión, que se incrementa);</li>
+ * <li>{@code map(ResultSet, int base)}, que lee la fila por posición;</li>
+ * <li>{@code bindInsert} y {@code bindUpdate}, que asignan los parámetros de esas sentencias;</li>
+ * <li>el seguimiento de cambios: {@code marcarSinCambios} guarda en la entidad los valores de las columnas
+ * actualizables tal como se leyeron (los métodos de mapeo lo invocan), {@code cambios} compara los valores
+ * actuales con esos y devuelve una máscara de columnas modificadas, y {@code update(long)}/{@code bindUpdate(.., long)}
+ * arman y completan un {@code UPDATE} solo con esas columnas;</li>
+ * <li>si hay columnas {@link Columna#perezosa()}: {@code COLUMNAS_RESUMEN}/{@code mapResumen} (sin esas columnas)
+ * y {@code COLUMNAS_DETALLE}/{@code mapDetalle} (solo esas columnas, sobre una entidad ya leída).</li>
+ * </ul>
+ * El código generado accede a los datos mediante los getters y setters de la entidad: no usa reflexión
+ * ni requiere escanear clases al iniciar la aplicación.
+ */
+@SupportedAnnotationTypes("mapping.Entidad")
+public class MapeoProcessor extends AbstractProcessor {
+
+    /**
+     * Tipos de columna admitidos, con los métodos JDBC utilizados para leerlos y escribirlos.
+     */
+    private enum Tipo {
+        LONG("getLong", "setLong", "BIGINT", true),
+        LONG_OBJ("getLong", "setLong", "BIGINT", false),
+        INT("getInt", "setInt", "INTEGER", true),
+        INT_OBJ("getInt", "setInt", "INTEGER", false),
+        BOOLEAN("getBoolean", "setBoolean", "BOOLEAN", true),
+        BOOLEAN_OBJ("getBoolean", "setBoolean", "BOOLEAN", false),
+        STRING("getString", "setString", "VARCHAR", false),
+        FECHA(null, null, "DATE", false),
+        ENUM_DB("getString", "setString", "VARCHAR", false),
+        ENUM_NOMBRE("getString", "setString", "VARCHAR", false);
+
+        final String lectura;
+        final String escritura;
+        final String tipoSql;
+        final boolean primitivo;
+
+        Tipo(String lectura, String escritura, String tipoSql, boolean primitivo) {
+            this.lectura = lectura;
+            this.escritura = escritura;
+            this.tipoSql = tipoSql;
+            this.primitivo = primitivo;
+        }
+    }
+
+    /**
+     * Campo mapeado de la entidad.
+     */
+    private record Campo(String columna, Tipo tipo, String tipoJava, String getter, String setter, boolean id,
+                         boolean version, boolean actualizable, boolean perezosa) {
+    }
+
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment env) {
+        super.init(env);
+        this.filer = env.getFiler();
+        this.messager = env.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> anotaciones, RoundEnvironment ronda) {
+        for (Element elemento : ronda.getElementsAnnotatedWith(Entidad.class)) {
+            if (elemento.getKind() != ElementKind.CLASS) {
+                error(elemento, "@Entidad solo puede aplicarse a clases.");
+                continue;
+            }
+            TypeElement clase = (TypeElement) elemento;
+            List<Campo> campos = campos(clase);
+            if (campos == null) {
+                continue;
+            }
+            try {
+                generar(clase, campos);
+            } catch (IOException e) {
+                error(clase, "No se pudo generar el mapper: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recorre la clase y sus superclases (de la más general a la más específica) y construye
+     * la lista de campos mapeados.
+     *
+     * @return Los campos, o null si se informó algún error.
+     */
+    private List<Campo> campos(TypeElement clase) {
+        Deque<TypeElement> jerarquia = new ArrayDeque<>();
+        for (TypeElement t = clase; t != null; t = superclase(t)) {
+            jerarquia.push(t);
+        }
+
+        List<ExecutableElement> metodos = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(clase));
+        List<Campo> campos = new ArrayList<>();
+        boolean valido = true;
+        int ids = 0;
+        int versiones = 0;
+
+        for (TypeElement t : jerarquia) {
+            for (VariableElement f : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                Columna columna = f.getAnnotation(Columna.class);
+                Id id = f.getAnnotation(Id.class);
+                Version version = f.getAnnotation(Version.class);
+                if (columna == null && id == null && version == null) {
+                    continue;
+                }
+                String nombre = id != null ? id.nombre() : version != null ? version.nombre()
+                        : columna.nombre().isEmpty() ? snakeCase(f.getSimpleName().toString()) : columna.nombre();
+                Tipo tipo = tipo(f.asType());
+                if (tipo == null) {
+                    error(f, "Tipo de columna no admitido: " + f.asType());
+                    valido = false;
+                    continue;
+                }
+                String sufijo = capitalizar(f.getSimpleName().toString());
+                String getter = buscar(metodos, tipo == Tipo.BOOLEAN ? "is" + sufijo : "get" + sufijo, 0);
+                String setter = buscar(metodos, "set" + sufijo, 1);
+                if (getter == null || setter == null) {
+                    error(f, "El campo requiere getter y setter públicos.");
+                    valido = false;
+                    continue;
+                }
+                if (id != null) {
+                    ids++;
+                }
+                if (version != null) {
+                    if (tipo != Tipo.LONG && tipo != Tipo.INT) {
+                        error(f, "El campo @Version debe ser long o int.");
+                        valido = false;
+                        continue;
+                    }
+                    versiones++;
+                }
+                String tipoJava = f.asType().getKind().isPrimitive() ? f.asType().toString()
+                        : processingEnv.getTypeUtils().erasure(f.asType()).toString();
+                boolean dato = id == null && version == null;
+                boolean actualizable = dato && columna.actualizable();
+                boolean perezosa = dato && columna.perezosa();
+                campos.add(new Campo(nombre, tipo, tipoJava, getter, setter, id != null, version != null, actualizable, perezosa));
+            }
+        }
+
+        if (campos.stream().filter(Campo::actualizable).count() > Long.SIZE - 1) {
+            error(clase, "La entidad no puede tener más de " + (Long.SIZE - 1) + " columnas actualizables.");
+            valido = false;
+        }
+        if (ids != 1) {
+            error(clase, "La entidad debe tener exactamente un campo @Id (se encontraron " + ids + ").");
+            valido = false;
+        }
+        if (versiones > 1) {
+            error(clase, "La entidad puede tener a lo sumo un campo @Version (se encontraron " + versiones + ").");
+            valido = false;
+        }
+        if (!hayConstructorVacio(clase)) {
+            error(clase, "La entidad debe tener un constructor público sin parámetros.");
+            valido = false;
+        }
+        return valido ? campos : null;
+    }
+
+    private void generar(TypeElement clase, List<Campo> campos) throws IOException {
+        Entidad entidad = clase.getAnnotation(Entidad.class);
+        PackageElement paquete = processingEnv.getElementUtils().getPackageOf(clase);
+        String nombreEntidad = clase.getSimpleName().toString();
+        String nombreMapper = nombreEntidad + "Mapper";
+        String alias = entidad.alias();
+
+        Campo id = campos.stream().filter(Campo::id).findFirst().orElseThrow();
+        Campo version = campos.stream().filter(Campo::version).findFirst().orElse(null);
+        Condicion condicion = new Condicion(id, version);
+        List<Campo> datos = campos.stream().filter(c -> !c.id()).toList();
+        List<Campo> actualizables = campos.stream().filter(Campo::actualizable).toList();
+
+        StringJoiner columnas = new StringJoiner(", ");
+        campos.forEach(c -> columnas.add(alias + "." + c.columna()));
+        StringJoiner insertCols = new StringJoiner(", ");
+        StringJoiner insertVals = new StringJoiner(", ");
+        StringJoiner updateSet = new StringJoiner(", ");
+        for (Campo c : datos) {
+            insertCols.add(c.columna());
+            insertVals.add("?");
+        }
+        for (Campo c : actualizables) {
+            updateSet.add(c.columna() + " = ?");
+        }
+
+        StringBuilder sb = new StringBuilder();
+        if (!paquete.isUnnamed()) {
+            sb.append("package ").append(paquete.getQualifiedName()).append(";\n\n");
+        }
+        sb.append("import java.sql.PreparedStatement;\n")
+          .append("import java.sql.ResultSet;\n")
+          .append("import java.sql.SQLException;\n")
+          .append("import java.sql.Types;\n")
+          .append("import java.time.LocalDate;\n")
+          .append("import java.util.Arrays;\n")
+          .append("import java.util.Objects;\n")
+          .append("import java.util.StringJoiner;\n")
+          .append("import java.util.concurrent.ConcurrentHashMap;\n")
+          .append("import javax.annotation.processing.Generated;\n\n")
+          .append("/**\n")
+          .append(" * Mapeo JDBC de {@link ").append(nombreEntidad).append("} (tabla {@code ").append(entidad.tabla()).append("}).\n")
+          .append(" * Generado por {@code MapeoProcessor} a partir de las anotaciones de la entidad: no modificar.\n")
+          .append(" */\n")
+          .append("@Generated(\"").append(MapeoProcessor.class.getName()).append("\")\n")
+          .append("public final class ").append(nombreMapper).append(" {\n\n")
+          .append("    public static final String TABLA = \"").append(entidad.tabla()).append("\";\n\n")
+          .append("    /** Columnas en el orden que espera {@link #map(ResultSet, int)}. */\n")
+          .append("    public static final String COLUMNAS = \"").append(columnas).append("\";\n\n")
+          .append("    public static final int CANTIDAD_COLUMNAS = ").append(campos.size()).append(";\n\n")
+          .append("    public static final String INSERT = \"INSERT INTO ").append(entidad.tabla())
+          .append(" (").append(insertCols).append(") VALUES (").append(insertVals).append(")\";\n\n")
+          .append("    public static final String UPDATE = \"UPDATE ").append(entidad.tabla())
+          .append(" SET ").append(updateSet).append(condicion.sufijo()).append("\";\n\n")
+          .append("    /** Cantidad de columnas de {@link #UPDATE}; el bit {@code i} de una máscara de cambios es la columna {@code i}. */\n")
+          .append("    public static final int CANTIDAD_ACTUALIZABLES = ").append(actualizables.size()).append(";\n\n")
+          .append("    /** Máscara con todas las columnas actualizables. */\n")
+          .append("    public static final long ACTUALIZABLES = ").append(mascara(actualizables, c -> true)).append(";\n\n")
+          .append("    /** Valor guardado para una columna que no se leyó (perezosa en una proyección resumida). */\n")
+          .append("    private static final Object NO_LEIDO = new Object();\n\n")
+          .append("    private static final String[] ASIGNACIONES = {");
+        for (int i = 0; i < actualizables.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append("\"").append(actualizables.get(i).columna()).append(" = ?\"");
+        }
+        sb.append("};\n\n")
+          .append("    private static final ConcurrentHashMap<Long, String> UPDATES_PARCIALES = new ConcurrentHashMap<>();\n\n");
+        if (campos.stream().anyMatch(Campo::perezosa)) {
+            sb.append("    private static final long ACTUALIZABLES_RESUMEN = ").append(mascara(actualizables, c -> !c.perezosa())).append(";\n\n")
+              .append("    private static final long ACTUALIZABLES_DETALLE = ").append(mascara(actualizables, Campo::perezosa)).append(";\n\n");
+        }
+        sb
+          .append("    private ").append(nombreMapper).append("() {\n    }\n\n");
+
+        // map
+        sb.append("    /**\n")
+          .append("     * Lee la fila actual por posición.\n")
+          .append("     *\n")
+          .append("     * @param rs   ResultSet posicionado en la fila.\n")
+          .append("     * @param base Posición de la primera columna de {@link #COLUMNAS}.\n")
+          .append("     * @return La entidad leída.\n")
+          .append("     * @throws SQLException Si ocurre un error de lectura.\n")
+          .append("     */\n")
+          .append("    public static ").append(nombreEntidad).append(" map(ResultSet rs, int base) throws SQLException {\n")
+          .append("        ").append(nombreEntidad).append(" e = new ").append(nombreEntidad).append("();\n");
+        for (int i = 0; i < campos.size(); i++) {
+            lectura(sb, campos.get(i), i == 0 ? "base" : "base + " + i, i);
+        }
+        sb.append("        marcarSinCambios(e, ACTUALIZABLES);\n")
+          .append("        return e;\n    }\n\n");
+
+        if (campos.stream().anyMatch(Campo::perezosa)) {
+            generarProyecciones(sb, nombreEntidad, alias, campos);
+        }
+
+        // bindInsert
+        sb.append("    /**\n")
+          .append("     * Asigna los parámetros de {@link #INSERT}.\n")
+          .append("     *\n")
+          .append("     * @param ps La sentencia preparada.\n")
+          .append("     * @param e  La entidad a insertar.\n")
+          .append("     * @throws SQLException Si ocurre un error al asignar los parámetros.\n")
+          .append("     */\n")
+          .append("    public static void bindInsert(PreparedStatement ps, ").append(nombreEntidad).append(" e) throws SQLException {\n");
+        for (int i = 0; i < datos.size(); i++) {
+            escritura(sb, datos.get(i), String.valueOf(i + 1), "        ");
+        }
+        sb.append("    }\n\n");
+
+        // bindUpdate
+        sb.append("    /**\n")
+          .append("     * Asigna los parámetros de {@link #UPDATE} (la clave y, si hay, la versión son los últimos parámetros).\n")
+          .append("     *\n")
+          .append("     * @param ps La sentencia preparada.\n")
+          .append("     * @param e  La entidad a actualizar.\n")
+          .append("     * @throws SQLException Si ocurre un error al asignar los parámetros.\n")
+          .append("     */\n")
+          .append("    public static void bindUpdate(PreparedStatement ps, ").append(nombreEntidad).append(" e) throws SQLException {\n");
+        for (int i = 0; i < actualizables.size(); i++) {
+            escritura(sb, actualizables.get(i), String.valueOf(i + 1), "        ");
+        }
+        escritura(sb, id, String.valueOf(actualizables.size() + 1), "        ");
+        if (version != null) {
+            escritura(sb, version, String.valueOf(actualizables.size() + 2), "        ");
+        }
+        sb.append("    }\n\n");
+
+        generarSeguimiento(sb, nombreEntidad, entidad.tabla(), condicion, actualizables);
+        sb.append("}\n");
+
+        String nombreCompleto = paquete.isUnnamed() ? nombreMapper : paquete.getQualifiedName() + "." + nombreMapper;
+        try (Writer w = filer.createSourceFile(nombreCompleto, clase).openWriter()) {
+            w.write(sb.toString());
+        }
+    }
+
+    /**
+     * Genera la proyección resumida (sin columnas perezosas) y la carga del detalle (solo columnas perezosas).
+     */
+    private static void generarProyecciones(StringBuilder sb, String nombreEntidad, String alias, List<Campo> campos) {
+        List<Campo> resumen = campos.stream().filter(c -> !c.perezosa()).toList();
+        List<Campo> detalle = campos.stream().filter(Campo::perezosa).toList();
+        StringJoiner columnasResumen = new StringJoiner(", ");
+        resumen.forEach(c -> columnasResumen.add(alias + "." + c.columna()));
+        StringJoiner columnasDetalle = new StringJoiner(", ");
+        detalle.forEach(c -> columnasDetalle.add(alias + "." + c.columna()));
+
+        sb.append("    /** Columnas sin las perezosas, en el orden que espera {@link #mapResumen(ResultSet, int)}. */\n")
+          .append("    public static final String COLUMNAS_RESUMEN = \"").append(columnasResumen).append("\";\n\n")
+          .append("    public static final int CANTIDAD_COLUMNAS_RESUMEN = ").append(resumen.size()).append(";\n\n")
+          .append("    /** Columnas perezosas, en el orden que espera {@link #mapDetalle(ResultSet, int, ").append(nombreEntidad).append(")}. */\n")
+          .append("    public static final String COLUMNAS_DETALLE = \"").append(columnasDetalle).append("\";\n\n");
+
+        sb.append("    /**\n")
+          .append("     * Lee la fila actual de una consulta sobre {@link #COLUMNAS_RESUMEN}.\n")
+          .append("     * Las columnas perezosas quedan sin asignar y sin seguimiento de cambios hasta que se lea el detalle.\n")
+          .append("     *\n")
+          .append("     * @param rs   ResultSet posicionado en la fila.\n")
+          .append("     * @param base Posición de la primera columna de {@link #COLUMNAS_RESUMEN}.\n")
+          .append("     * @return La entidad leída.\n")
+          .append("     * @throws SQLException Si ocurre un error de lectura.\n")
+          .append("     */\n")
+          .append("    public static ").append(nombreEntidad).append(" mapResumen(ResultSet rs, int base) throws SQLException {\n")
+          .append("        ").append(nombreEntidad).append(" e = new ").append(nombreEntidad).append("();\n");
+        for (int i = 0; i < resumen.size(); i++) {
+            lectura(sb, resumen.get(i), i == 0 ? "base" : "base + " + i, i);
+        }
+        sb.append("        marcarSinCambios(e, ACTUALIZABLES_RESUMEN);\n")
+          .append("        return e;\n    }\n\n");
+
+        sb.append("    /**\n")
+          .append("     * Asigna a la entidad las columnas perezosas leídas de una consulta sobre {@link #COLUMNAS_DETALLE}\n")
+          .append("     * y las registra como leídas para el seguimiento de cambios.\n")
+          .append("     *\n")
+          .append("     * @param rs   ResultSet posicionado en la fila.\n")
+          .append("     * @param base Posición de la primera columna de {@link #COLUMNAS_DETALLE}.\n")
+          .append("     * @param e    La entidad a completar.\n")
+          .append("     * @throws SQLException Si ocurre un error de lectura.\n")
+          .append("     */\n")
+          .append("    public static void mapDetalle(ResultSet rs, int base, ").append(nombreEntidad).append(" e) throws SQLException {\n");
+        for (int i = 0; i < detalle.size(); i++) {
+            lectura(sb, detalle.get(i), i == 0 ? "base" : "base + " + i, i);
+        }
+        sb.append("        if (e.getValoresPersistidos() != null) {\n")
+          .append("            marcarSinCambios(e, ACTUALIZABLES_DETALLE);\n")
+          .append("        }\n")
+          .append("    }\n\n");
+    }
+
+    private static void lectura(StringBuilder sb, Campo c, String pos, int i) {
+        String v = "v" + i;
+        switch (c.tipo()) {
+            case LONG, INT, BOOLEAN, STRING -> sb.append("        e.").append(c.setter()).append("(rs.")
+                    .append(c.tipo().lectura).append("(").append(pos).append("));\n");
+            case LONG_OBJ, INT_OBJ, BOOLEAN_OBJ -> sb.append("        ").append(primitivoDe(c.tipo())).append(" ").append(v)
+                    .append(" = rs.").append(c.tipo().lectura).append("(").append(pos).append(");\n")
+                    .append("        e.").append(c.setter()).append("(rs.wasNull() ? null : ").append(v).append(");\n");
+            case FECHA -> sb.append("        e.").append(c.setter()).append("(rs.getObject(").append(pos).append(", LocalDate.class));\n");
+            case ENUM_DB, ENUM_NOMBRE -> sb.append("        String ").append(v).append(" = rs.getString(").append(pos).append(");\n")
+                    .append("        e.").append(c.setter()).append("(").append(v).append(" != null ? ").append(c.tipoJava())
+                    .append(c.tipo() == Tipo.ENUM_DB ? ".fromDb(" : ".valueOf(").append(v).append(") : null);\n");
+        }
+    }
+
+    /**
+     * Genera el seguimiento de cambios: {@code marcarSinCambios}, {@code cambios}, {@code update(long)}
+     * y {@code bindUpdate(PreparedStatement, E, long)}.
+     */
+    private static void generarSeguimiento(StringBuilder sb, String nombreEntidad, String tabla, Condicion condicion, List<Campo> actualizables) {
+        sb.append("    /**\n")
+          .append("     * Registra en la entidad los valores actuales de las columnas indicadas como los persistidos.\n")
+          .append("     * Las columnas que nunca se registraron cuentan como no leídas y {@link #cambios} no las informa.\n")
+          .append("     *\n")
+          .append("     * @param e        La entidad.\n")
+          .append("     * @param columnas Máscara de columnas a registrar.\n")
+          .append("     */\n")
+          .append("    public static void marcarSinCambios(").append(nombreEntidad).append(" e, long columnas) {\n")
+          .append("        Object[] leidos = e.getValoresPersistidos();\n")
+          .append("        if (leidos == null) {\n")
+          .append("            leidos = new Object[CANTIDAD_ACTUALIZABLES];\n")
+          .append("            Arrays.fill(leidos, NO_LEIDO);\n")
+          .append("            e.setValoresPersistidos(leidos);\n")
+          .append("        }\n");
+        for (int i = 0; i < actualizables.size(); i++) {
+            sb.append("        if ((columnas & ").append(bit(i)).append(") != 0) {\n")
+              .append("            leidos[").append(i).append("] = e.").append(actualizables.get(i).getter()).append("();\n")
+              .append("        }\n");
+        }
+        sb.append("    }\n\n");
+
+        sb.append("    /**\n")
+          .append("     * Compara los valores actuales con los registrados por {@link #marcarSinCambios}.\n")
+          .append("     * Las columnas no leídas no se consultan (no dispara la carga de columnas perezosas).\n")
+          .append("     *\n")
+          .append("     * @param e La entidad.\n")
+          .append("     * @return Máscara de columnas modificadas; {@link #ACTUALIZABLES} si la entidad no tiene valores registrados.\n")
+          .append("     */\n")
+          .append("    public static long cambios(").append(nombreEntidad).append(" e) {\n")
+          .append("        Object[] leidos = e.getValoresPersistidos();\n")
+          .append("        if (leidos == null) {\n")
+          .append("            return ACTUALIZABLES;\n")
+          .append("        }\n")
+          .append("        long cambios = 0;\n");
+        for (int i = 0; i < actualizables.size(); i++) {
+            sb.append("        if (leidos[").append(i).append("] != NO_LEIDO && !Objects.equals(leidos[").append(i)
+              .append("], e.").append(actualizables.get(i).getter()).append("())) {\n")
+              .append("            cambios |= ").append(bit(i)).append(";\n")
+              .append("        }\n");
+        }
+        sb.append("        return cambios;\n    }\n\n");
+
+        sb.append("    /**\n")
+          .append("     * Sentencia {@code UPDATE} limitada a las columnas de la máscara, con la clave (y la versión, si hay) como últimos parámetros.\n")
+          .append("     * Las sentencias se arman una vez por máscara y se reutilizan.\n")
+          .append("     *\n")
+          .append("     * @param cambios Máscara de columnas a actualizar (no vacía).\n")
+          .append("     * @return La sentencia SQL.\n")
+          .append("     */\n")
+          .append("    public static String update(long cambios) {\n")
+          .append("        if (cambios == 0 || (cambios & ~ACTUALIZABLES) != 0) {\n")
+          .append("            throw new IllegalArgumentException(\"Máscara de columnas inválida: \" + Long.toBinaryString(cambios));\n")
+          .append("        }\n")
+          .append("        return UPDATES_PARCIALES.computeIfAbsent(cambios, c -> {\n")
+          .append("            StringJoiner set = new StringJoiner(\", \");\n")
+          .append("            for (int i = 0; i < CANTIDAD_ACTUALIZABLES; i++) {\n")
+          .append("                if ((c & 1L << i) != 0) {\n")
+          .append("                    set.add(ASIGNACIONES[i]);\n")
+          .append("                }\n")
+          .append("            }\n")
+          .append("            return \"UPDATE ").append(tabla).append(" SET \" + set + \"").append(condicion.sufijo()).append("\";\n")
+          .append("        });\n")
+          .append("    }\n\n");
+
+        sb.append("    /**\n")
+          .append("     * Asigna los parámetros de {@link #update(long)} para la misma máscara.\n")
+          .append("     *\n")
+          .append("     * @param ps      La sentencia preparada.\n")
+          .append("     * @param e       La entidad a actualizar.\n")
+          .append("     * @param cambios Máscara de columnas a actualizar.\n")
+          .append("     * @throws SQLException Si ocurre un error al asignar los parámetros.\n")
+          .append("     */\n")
+          .append("    public static void bindUpdate(PreparedStatement ps, ").append(nombreEntidad).append(" e, long cambios) throws SQLException {\n")
+          .append("        int i = 1;\n");
+        for (int i = 0; i < actualizables.size(); i++) {
+            sb.append("        if ((cambios & ").append(bit(i)).append(") != 0) {\n");
+            escritura(sb, actualizables.get(i), "i++", "            ");
+            sb.append("        }\n");
+        }
+        if (condicion.version() != null) {
+            escritura(sb, condicion.id(), "i++", "        ");
+            escritura(sb, condicion.version(), "i", "        ");
+        } else {
+            escritura(sb, condicion.id(), "i", "        ");
+        }
+        sb.append("    }\n");
+    }
+
+    /**
+     * Condición de las sentencias {@code UPDATE}: la clave y, si la entidad tiene {@link Version}, la versión leída.
+     * La versión se incrementa en el mismo {@code SET}.
+     */
+    private record Condicion(Campo id, Campo version) {
+
+        String sufijo() {
+            if (version == null) {
+                return " WHERE " + id.columna() + " = ?";
+            }
+            return ", " + version.columna() + " = " + version.columna() + " + 1 WHERE " + id.columna() + " = ? AND "
+                    + version.columna() + " = ?";
+        }
+    }
+
+    private static String bit(int i) {
+        return "1L << " + i;
+    }
+
+    private static String mascara(List<Campo> actualizables, Predicate<Campo> incluir) {
+        long m = 0;
+        for (int i = 0; i < actualizables.size(); i++) {
+            if (incluir.test(actualizables.get(i))) {
+                m |= 1L << i;
+            }
+        }
+        return "0x" + Long.toHexString(m) + "L";
+    }
+
+    private static void escritura(StringBuilder sb, Campo c, String indice, String sangria) {
+        String valor = "e." + c.getter() + "()";
+        if (c.tipo().primitivo) {
+            sb.append(sangria).append("ps.").append(c.tipo().escritura).append("(").append(indice).append(", ").append(valor).append(");\n");
+            return;
+        }
+        String asignacion = switch (c.tipo()) {
+            case FECHA -> "ps.setObject(" + indice + ", " + valor + ");";
+            case ENUM_DB -> "ps.setString(" + indice + ", " + valor + ".db());";
+            case ENUM_NOMBRE -> "ps.setString(" + indice + ", " + valor + ".name());";
+            default -> "ps." + c.tipo().escritura + "(" + indice + ", " + valor + ");";
+        };
+        sb.append(sangria).append("if (").append(valor).append(" != null) {\n")
+          .append(sangria).append("    ").append(asignacion).append("\n")
+          .append(sangria).append("} else {\n")
+          .append(sangria).append("    ps.setNull(").append(indice).append(", Types.").append(c.tipo().tipoSql).append(");\n")
+          .append(sangria).append("}\n");
+    }
+
+    private Tipo tipo(TypeMirror t) {
+        switch (t.getKind()) {
+            case LONG:
+                return Tipo.LONG;
+            case INT:
+                return Tipo.INT;
+            case BOOLEAN:
+                return Tipo.BOOLEAN;
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+        TypeElement e = (TypeElement) ((DeclaredType) t).asElement();
+        if (e.getKind() == ElementKind.ENUM) {
+            return tieneConversionDb(e) ? Tipo.ENUM_DB : Tipo.ENUM_NOMBRE;
+        }
+        return switch (e.getQualifiedName().toString()) {
+            case "java.lang.Long" -> Tipo.LONG_OBJ;
+            case "java.lang.Integer" -> Tipo.INT_OBJ;
+            case "java.lang.Boolean" -> Tipo.BOOLEAN_OBJ;
+            case "java.lang.String" -> Tipo.STRING;
+            case "java.time.LocalDate" -> Tipo.FECHA;
+            default -> null;
+        };
+    }
+
+    /**
+     * Indica si la enumeración sigue la convención {@code db()} / {@code static fromDb(String)}.
+     */
+    private static boolean tieneConversionDb(TypeElement enumeracion) {
+        boolean db = false;
+        boolean fromDb = false;
+        for (ExecutableElement m : ElementFilter.methodsIn(enumeracion.getEnclosedElements())) {
+            if (!m.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            String nombre = m.getSimpleName().toString();
+            if (nombre.equals("db") && m.getParameters().isEmpty() && !m.getModifiers().contains(Modifier.STATIC)) {
+                db = true;
+            } else if (nombre.equals("fromDb") && m.getParameters().size() == 1 && m.getModifiers().contains(Modifier.STATIC)) {
+                fromDb = true;
+            }
+        }
+        return db && fromDb;
+    }
+
+    private static String buscar(List<ExecutableElement> metodos, String nombre, int parametros) {
+        for (ExecutableElement m : metodos) {
+            if (m.getSimpleName().contentEquals(nombre) && m.getParameters().size() == parametros
+                    && m.getModifiers().contains(Modifier.PUBLIC) && !m.getModifiers().contains(Modifier.STATIC)) {
+                return nombre;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hayConstructorVacio(TypeElement clase) {
+        for (ExecutableElement c : ElementFilter.constructorsIn(clase.getEnclosedElements())) {
+            if (c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TypeElement superclase(TypeElement t) {
+        TypeMirror s = t.getSuperclass();
+        if (s.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement e = (TypeElement) ((DeclaredType) s).asElement();
+        return e.getQualifiedName().contentEquals("java.lang.Object") ? null : e;
+    }
+
+    private static String primitivoDe(Tipo tipo) {
+        return switch (tipo) {
+            case LONG_OBJ -> "long";
+            case INT_OBJ -> "int";
+            default -> "boolean";
+        };
+    }
+
+    private static String snakeCase(String campo) {
+        StringBuilder sb = new StringBuilder(campo.length() + 4);
+        for (int i = 0; i < campo.length(); i++) {
+            char ch = campo.charAt(i);
+            if (Character.isUpperCase(ch)) {
+                if (i > 0) {
+                    sb.append('_');
+                }
+                sb.append(Character.toLowerCase(ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String capitalizar(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private void error(Element elemento, String mensaje) {
+        messager.printMessage(Diagnostic.Kind.ERROR, mensaje, elemento);
+    }
+}
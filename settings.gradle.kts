@@ -1 +1,4 @@
-rootProject.name = "Vitalis"
\ No newline at end of file
+rootProject.name = "Vitalis"
+
+// Procesador de anotaciones que genera los mappers JDBC de las entidades (ver mapping.Entidad)
+include("processor")
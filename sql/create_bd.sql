@@ -9,10 +9,20 @@ CREATE TABLE paciente (
     eliminado BOOLEAN DEFAULT FALSE,
     nombre VARCHAR(80) NOT NULL,
     apellido VARCHAR(80) NOT NULL,
-    dni VARCHAR(15) NOT NULL UNIQUE,
-    fecha_nacimiento DATE NULL
+    dni VARCHAR(15) NOT NULL,
+    fecha_nacimiento DATE NULL,
+    -- Bloqueo optimista: cada UPDATE la incrementa y exige la versión leída (WHERE id = ? AND version = ?)
+    version BIGINT NOT NULL DEFAULT 0,
+    -- Momento de la baja lógica: el archivador mueve a paciente_archivo las bajas anteriores al período de retención
+    eliminado_en DATETIME NULL,
+    -- Nombre explícito: el servicio lo usa para reconocer un DNI duplicado entre las violaciones de integridad
+    CONSTRAINT uk_paciente_dni UNIQUE (dni)
 );
 
+-- Búsqueda por prefijo de apellido/nombre (PacienteDao.searchByName): el LIKE 'prefijo%' y el
+-- ORDER BY apellido, nombre, id se resuelven recorriendo este índice, sin ordenar en memoria.
+CREATE INDEX idx_paciente_apellido_nombre ON paciente (apellido, nombre, id);
+
 CREATE TABLE historia_clinica (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     eliminado BOOLEAN DEFAULT FALSE,
@@ -23,8 +33,47 @@ CREATE TABLE historia_clinica (
     observaciones TEXT NULL,
     paciente_id BIGINT NOT NULL UNIQUE,
     fecha_apertura DATE NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    eliminado_en DATETIME NULL,
     CONSTRAINT fk_historia_paciente FOREIGN KEY (paciente_id) REFERENCES paciente(id),
     CONSTRAINT chk_grupo_sanguineo CHECK (grupo_sanguineo IS NULL OR grupo_sanguineo
     IN ('A+', 'A-', 'B+', 'B-', 'AB+', 'AB-', 'O+', 'O-'))
 );
 
+-- Recorrido por lotes de las bajas lógicas (ArchivadorEliminados): WHERE eliminado = 1 AND id > ? ORDER BY id
+-- avanza sobre este índice y filtra eliminado_en sin leer la fila.
+CREATE INDEX idx_paciente_eliminado ON paciente (eliminado, id, eliminado_en);
+CREATE INDEX idx_historia_eliminado ON historia_clinica (eliminado, id, eliminado_en);
+
+-- Filas dadas de baja hace más que el período de retención. Mismas columnas que las tablas de origen,
+-- sin restricciones de unicidad ni claves foráneas, más el momento del archivado.
+CREATE TABLE paciente_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN,
+    nombre VARCHAR(80) NOT NULL,
+    apellido VARCHAR(80) NOT NULL,
+    dni VARCHAR(15) NOT NULL,
+    fecha_nacimiento DATE NULL,
+    version BIGINT NOT NULL,
+    eliminado_en DATETIME NULL,
+    archivado_en DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_paciente_archivo_dni ON paciente_archivo (dni);
+
+CREATE TABLE historia_clinica_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN,
+    nro_historia VARCHAR(20),
+    grupo_sanguineo VARCHAR(3) NULL,
+    antecedentes TEXT NULL,
+    medicacion_actual TEXT NULL,
+    observaciones TEXT NULL,
+    paciente_id BIGINT NOT NULL,
+    fecha_apertura DATE NULL,
+    version BIGINT NOT NULL,
+    eliminado_en DATETIME NULL,
+    archivado_en DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_historia_archivo_paciente ON historia_clinica_archivo (paciente_id);
@@ -0,0 +1,115 @@
+package benchmark;
+
+import config.DatabaseConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Prepara la base de datos en memoria (H2 en modo MySQL) utilizada por los benchmarks.
+ * <p>
+ * El esquema se crea con el mismo script {@code sql/create_bd.sql} de la aplicación
+ * (omitiendo {@code CREATE DATABASE} y {@code USE}) y luego se cargan pacientes de prueba,
+ * cada uno con su historia clínica.
+ * </p>
+ */
+public final class BaseDatosBenchmark {
+
+    /** Primer DNI utilizado en la carga; el paciente i tiene DNI {@code DNI_BASE + i}. */
+    public static final long DNI_BASE = 10_000_000L;
+
+    private static final String[] APELLIDOS = {"García", "Fernández", "González", "Rodríguez", "López", "Martínez", "Pérez", "Gómez"};
+    private static final String[] GRUPOS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+    private static final String TEXTO = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(4);
+
+    static {
+        if (System.getProperty("db.config") == null) {
+            System.setProperty("db.config", "db-benchmark.properties");
+        }
+    }
+
+    private BaseDatosBenchmark() {
+    }
+
+    /**
+     * Crea el esquema y carga la cantidad de pacientes indicada.
+     * Los IDs generados van de 1 a {@code filas}.
+     *
+     * @param filas Cantidad de pacientes a cargar.
+     * @throws SQLException Si falla la creación o la carga.
+     * @throws IOException  Si no se encuentra el script del esquema.
+     */
+    public static void preparar(int filas) throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            crearEsquema(conn);
+            cargar(conn, filas);
+        }
+    }
+
+    private static void crearEsquema(Connection conn) throws SQLException, IOException {
+        String script;
+        try (InputStream in = BaseDatosBenchmark.class.getClassLoader().getResourceAsStream("create_bd.sql")) {
+            if (in == null) {
+                throw new IOException("No se encontró create_bd.sql en el Classpath.");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            for (String sentencia : script.split(";")) {
+                String sql = sentencia.strip();
+                String mayus = sql.toUpperCase();
+                if (sql.isEmpty() || mayus.startsWith("CREATE DATABASE") || mayus.startsWith("USE ")) {
+                    continue;
+                }
+                st.execute(sql);
+            }
+        }
+    }
+
+    private static void cargar(Connection conn, int filas) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement pp = conn.prepareStatement(
+                "INSERT INTO paciente (eliminado, dni, nombre, apellido, fecha_nacimiento) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement ph = conn.prepareStatement(
+                "INSERT INTO historia_clinica (eliminado, nro_historia, grupo_sanguineo, antecedentes, medicacion_actual, observaciones, fecha_apertura, paciente_id) VALUES (?,?,?,?,?,?,?,?)")) {
+
+            LocalDate nacimiento = LocalDate.of(1950, 1, 1);
+            for (int i = 1; i <= filas; i++) {
+                pp.setBoolean(1, false);
+                pp.setString(2, String.valueOf(DNI_BASE + i));
+                pp.setString(3, "Nombre" + i);
+                pp.setString(4, APELLIDOS[i % APELLIDOS.length]);
+                pp.setObject(5, nacimiento.plusDays(i % 20_000));
+                pp.addBatch();
+
+                ph.setBoolean(1, false);
+                ph.setString(2, "HC-" + i);
+                ph.setString(3, GRUPOS[i % GRUPOS.length]);
+                ph.setString(4, TEXTO);
+                ph.setString(5, TEXTO);
+                ph.setString(6, TEXTO);
+                ph.setObject(7, LocalDate.of(2020, 1, 1));
+                ph.setLong(8, i);
+                ph.addBatch();
+
+                if (i % 1000 == 0) {
+                    pp.executeBatch();
+                    ph.executeBatch();
+                }
+            }
+            pp.executeBatch();
+            ph.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import config.DatabaseConnection;
+import dao.Page;
+import dao.impl.PacienteDaoImpl;
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@code PacienteDaoImpl.searchByName}: primera página y página siguiente (continuación por
+ * apellido, nombre e ID) de una búsqueda por prefijo de apellido, resuelta con el índice
+ * {@code idx_paciente_apellido_nombre}.
+ * <p>
+ * {@code ./gradlew jmh -Pjmh.includes=BusquedaNombreBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BusquedaNombreBenchmark {
+
+    private static final int TAMANIO_PAGINA = 20;
+
+    @Param({"100000"})
+    public int filas;
+
+    private Connection conn;
+    private PacienteDaoImpl dao;
+    private String tokenSegunda;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        BaseDatosBenchmark.preparar(filas);
+        conn = DatabaseConnection.getConnection();
+        dao = new PacienteDaoImpl(conn);
+        tokenSegunda = dao.searchByName("Góm", null, null, TAMANIO_PAGINA).getNextToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws Exception {
+        conn.close();
+        DatabaseConnection.closePool();
+    }
+
+    @Benchmark
+    public Page<Paciente> primeraPagina() throws Exception {
+        return dao.searchByName("Góm", null, null, TAMANIO_PAGINA);
+    }
+
+    @Benchmark
+    public Page<Paciente> paginaSiguiente() throws Exception {
+        return dao.searchByName("Góm", null, tokenSegunda, TAMANIO_PAGINA);
+    }
+}
@@ -0,0 +1,106 @@
+package benchmark;
+
+import config.DatabaseConnection;
+import dao.impl.PacienteDaoImpl;
+import model.HistoriaClinica;
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el mapeo de {@code getAll} por nombre de columna ({@code SELECT p.*}, {@code rs.getLong("hc_id")}
+ * y fechas vía {@link java.sql.Date}) con el mapeo actual de {@link PacienteDaoImpl}: lista explícita de columnas,
+ * lectura por posición y {@code getObject(i, LocalDate.class)}.
+ * <p>
+ * La diferencia de asignación por operación se observa con el profiler de GC
+ * ({@code gc.alloc.rate.norm}), que el build activa por defecto:
+ * {@code ./gradlew jmh -Pjmh.includes=MapeoResultSetBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapeoResultSetBenchmark {
+
+    private static final String SQL_POR_ETIQUETA = "SELECT p.*, " +
+            "hc.id AS hc_id, hc.eliminado AS hc_eliminado, hc.nro_historia, " +
+            "hc.grupo_sanguineo, hc.antecedentes, hc.medicacion_actual, " +
+            "hc.observaciones, " +
+            "hc.fecha_apertura AS hc_fecha_apertura " +
+            "FROM paciente p " +
+            "LEFT JOIN historia_clinica hc ON p.id = hc.paciente_id AND hc.eliminado = 0 " +
+            "WHERE p.eliminado = 0";
+
+    @Param({"10000"})
+    public int filas;
+
+    private Connection conn;
+    private PacienteDaoImpl dao;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        BaseDatosBenchmark.preparar(filas);
+        conn = DatabaseConnection.getConnection();
+        dao = new PacienteDaoImpl(conn);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws Exception {
+        conn.close();
+        DatabaseConnection.closePool();
+    }
+
+    @Benchmark
+    public List<Paciente> porIndice() throws Exception {
+        return dao.getAll();
+    }
+
+    @Benchmark
+    public List<Paciente> porEtiqueta() throws Exception {
+        List<Paciente> pacientes = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SQL_POR_ETIQUETA);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                pacientes.add(mapPorEtiqueta(rs));
+            }
+        }
+        return pacientes;
+    }
+
+    /**
+     * Mapeo por nombre de columna, tal como lo hacía {@link PacienteDaoImpl} antes del cambio.
+     */
+    private static Paciente mapPorEtiqueta(ResultSet rs) throws SQLException {
+        Paciente p = new Paciente();
+        p.setId(rs.getLong("id"));
+        p.setEliminado(rs.getBoolean("eliminado"));
+        p.setDni(rs.getString("dni"));
+        p.setNombre(rs.getString("nombre"));
+        p.setApellido(rs.getString("apellido"));
+        java.sql.Date f = rs.getDate("fecha_nacimiento");
+        p.setFechaNacimiento(f != null ? f.toLocalDate() : null);
+
+        long hcId = rs.getLong("hc_id");
+        if (hcId > 0) {
+            HistoriaClinica h = new HistoriaClinica();
+            h.setId(hcId);
+            h.setEliminado(rs.getBoolean("hc_eliminado"));
+            h.setNroHistoria(rs.getString("nro_historia"));
+            h.setGrupoSanguineo(HistoriaClinica.GrupoSanguineo.fromDb(rs.getString("grupo_sanguineo")));
+            h.setAntecedentes(rs.getString("antecedentes"));
+            h.setMedicacionActual(rs.getString("medicacion_actual"));
+            h.setObservaciones(rs.getString("observaciones"));
+            java.sql.Date fa = rs.getDate("hc_fecha_apertura");
+            h.setFechaApertura(fa != null ? fa.toLocalDate() : null);
+            p.setHistoriaClinica(h);
+        }
+        return p;
+    }
+}
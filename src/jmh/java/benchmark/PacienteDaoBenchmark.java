@@ -0,0 +1,61 @@
+package benchmark;
+
+import config.DatabaseConnection;
+import dao.impl.PacienteDaoImpl;
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el costo de las consultas de {@link PacienteDaoImpl} (LEFT JOIN + mapeo del ResultSet)
+ * sobre una única conexión abierta, aislando el costo del pool y de las transacciones.
+ * <p>
+ * Ejecutar con el profiler de GC para obtener la tasa de asignación por operación:
+ * {@code ./gradlew jmh -Pjmh.includes=PacienteDaoBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PacienteDaoBenchmark {
+
+    @Param({"10000"})
+    public int filas;
+
+    private Connection conn;
+    private PacienteDaoImpl dao;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        BaseDatosBenchmark.preparar(filas);
+        conn = DatabaseConnection.getConnection();
+        dao = new PacienteDaoImpl(conn);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws Exception {
+        conn.close();
+        DatabaseConnection.closePool();
+    }
+
+    @Benchmark
+    public Optional<Paciente> findById() throws Exception {
+        return dao.findById(ThreadLocalRandom.current().nextLong(1, filas + 1));
+    }
+
+    @Benchmark
+    public Optional<Paciente> findByDni() throws Exception {
+        return dao.findByDni(String.valueOf(BaseDatosBenchmark.DNI_BASE + ThreadLocalRandom.current().nextInt(1, filas + 1)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Paciente> getAll() throws Exception {
+        return dao.getAll();
+    }
+}
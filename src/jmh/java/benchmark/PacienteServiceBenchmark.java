@@ -0,0 +1,102 @@
+package benchmark;
+
+import config.DatabaseConnection;
+import model.HistoriaClinica;
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+import service.PacienteService;
+import service.cache.PacienteCache;
+import service.impl.PacienteServiceImpl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide las operaciones de {@link PacienteServiceImpl} de punta a punta: obtención de la conexión
+ * del pool, manejo de la transacción, consulta y mapeo.
+ * <p>
+ * Las lecturas se miden con una caché prácticamente deshabilitada (TTL de 1 ns) para que cada
+ * llamada llegue a la base de datos; {@code findByIdConCache} mide el camino con la caché compartida.
+ * Cada método corre en su propio fork, por lo que las escrituras no afectan a los demás benchmarks.
+ * Dentro de un fork, la base se vuelve a crear y cargar antes de cada iteración (fuera de la medición),
+ * de modo que una iteración no ve las filas que agregaron, modificaron o eliminaron las anteriores; los
+ * efectos de las llamadas de una misma iteración sí se acumulan.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PacienteServiceBenchmark {
+
+    @Param({"10000"})
+    public int filas;
+
+    private PacienteService service;
+    private PacienteService serviceConCache;
+    private final AtomicLong proximoDni = new AtomicLong(90_000_000L);
+
+    @Setup(Level.Iteration)
+    public void preparar() throws Exception {
+        BaseDatosBenchmark.preparar(filas);
+        PacienteCache.compartida().invalidarTodo();
+        service = new PacienteServiceImpl(new PacienteCache(1, Duration.ofNanos(1)));
+        serviceConCache = new PacienteServiceImpl(PacienteCache.compartida());
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        DatabaseConnection.closePool();
+    }
+
+    private long idAleatorio() {
+        return ThreadLocalRandom.current().nextLong(1, filas + 1);
+    }
+
+    @Benchmark
+    public Paciente create() throws Exception {
+        long n = proximoDni.incrementAndGet();
+        HistoriaClinica hc = new HistoriaClinica();
+        hc.setNroHistoria("B-" + n);
+        hc.setFechaApertura(LocalDate.now());
+        Paciente p = new Paciente("Bench", "Mark", String.valueOf(n), LocalDate.of(1990, 1, 1), hc);
+        return service.create(p);
+    }
+
+    @Benchmark
+    public Optional<Paciente> findById() throws Exception {
+        return service.findById(idAleatorio());
+    }
+
+    @Benchmark
+    public Optional<Paciente> findByIdConCache() throws Exception {
+        return serviceConCache.findById(idAleatorio());
+    }
+
+    @Benchmark
+    public Optional<Paciente> findByDni() throws Exception {
+        return service.findByDni(String.valueOf(BaseDatosBenchmark.DNI_BASE + idAleatorio()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Paciente> getAll() throws Exception {
+        return service.getAll();
+    }
+
+    @Benchmark
+    public Optional<Paciente> update() throws Exception {
+        // Lee la versión vigente y escribe un nombre distinto en cada llamada, para que siempre haya UPDATE
+        String nombre = "Actualizado" + proximoDni.incrementAndGet();
+        return service.modify(idAleatorio(), p -> p.setNombre(nombre));
+    }
+
+    @Benchmark
+    public void delete() throws Exception {
+        service.delete(idAleatorio());
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import config.DatabaseConnection;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el costo de preparar la sentencia en cada llamada contra reutilizar una sentencia ya preparada,
+ * usando la consulta de {@code PacienteDaoImpl.findById} sobre una única conexión.
+ * <p>
+ * {@code prepararPorLlamada} corresponde a un DAO sin caché de sentencias (análisis y preparación en cada
+ * llamada); {@code sentenciaReutilizada} reutiliza explícitamente la misma sentencia, que es el efecto que
+ * se busca con {@code db.cache_prep_stmts} y {@code db.use_server_prep_stmts}.
+ * </p>
+ * <p>
+ * No mide la caché del driver: el benchmark corre sobre H2, que ignora las propiedades de Connector/J
+ * ({@code cachePrepStmts}, {@code prepStmtCacheSqlLimit}, etc.). La diferencia entre ambos métodos es una
+ * cota del ahorro posible; el costo real con MySQL debe medirse contra un servidor MySQL.
+ * </p>
+ * <p>
+ * {@code ./gradlew jmh -Pjmh.includes=SentenciaPreparadaBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SentenciaPreparadaBenchmark {
+
+    private static final String SQL = "SELECT p.*, " +
+            "hc.id AS hc_id, hc.eliminado AS hc_eliminado, hc.nro_historia, " +
+            "hc.grupo_sanguineo, hc.antecedentes, hc.medicacion_actual, " +
+            "hc.observaciones, " +
+            "hc.fecha_apertura AS hc_fecha_apertura " +
+            "FROM paciente p " +
+            "LEFT JOIN historia_clinica hc ON p.id = hc.paciente_id AND hc.eliminado = 0 " +
+            "WHERE p.id = ? AND p.eliminado = 0";
+
+    @Param({"10000"})
+    public int filas;
+
+    private Connection conn;
+    private PreparedStatement reutilizada;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        BaseDatosBenchmark.preparar(filas);
+        conn = DatabaseConnection.getConnection();
+        reutilizada = conn.prepareStatement(SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws Exception {
+        reutilizada.close();
+        conn.close();
+        DatabaseConnection.closePool();
+    }
+
+    @Benchmark
+    public String prepararPorLlamada() throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(SQL)) {
+            return consultar(ps);
+        }
+    }
+
+    @Benchmark
+    public String sentenciaReutilizada() throws Exception {
+        return consultar(reutilizada);
+    }
+
+    private String consultar(PreparedStatement ps) throws Exception {
+        ps.setLong(1, ThreadLocalRandom.current().nextLong(1, filas + 1));
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getString("dni") : null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package config;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Ejecutor de las operaciones asíncronas de la capa de Servicio.
+ * <p>
+ * Cada tarea corre en su propio hilo virtual, por lo que miles de solicitudes concurrentes
+ * pueden esperar sin ocupar hilos de plataforma. Para no saturar el pool de conexiones,
+ * la cantidad de tareas que acceden a la base de datos en simultáneo está limitada por un
+ * semáforo del mismo tamaño que el pool ({@code db.cant_max_con}); el resto espera en el
+ * semáforo, de forma barata, en lugar de hacerlo dentro de HikariCP.
+ * </p>
+ */
+public final class AsyncExecutor {
+
+    private static final ExecutorService EJECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Semaphore PERMISOS = new Semaphore(DatabaseConnection.getMaxPoolSize(), true);
+
+    /**
+     * Operación de base de datos a ejecutar de forma asíncrona.
+     *
+     * @param <T> El tipo del resultado.
+     */
+    @FunctionalInterface
+    public interface TareaSql<T> {
+        T ejecutar() throws SQLException;
+    }
+
+    private AsyncExecutor() {
+    }
+
+    /**
+     * Ejecuta la tarea en un hilo virtual, respetando el límite de concurrencia del pool.
+     * <p>
+     * Si la tarea lanza una {@link SQLException} (u otra excepción), el futuro se completa
+     * excepcionalmente con ella como causa.
+     * </p>
+     * <p>
+     * La tarea hereda la fijación a la base primaria del hilo que la envía
+     * (ver {@link DatabaseConnection#getReadConnection()}), para que una lectura asíncrona
+     * posterior a una escritura vea sus cambios.
+     * </p>
+     *
+     * @param tarea La operación a ejecutar.
+     * @param <T>   El tipo del resultado.
+     * @return Un futuro con el resultado de la operación.
+     */
+    public static <T> CompletableFuture<T> submit(TareaSql<T> tarea) {
+        Long fijacion = DatabaseConnection.getFijacion();
+        return CompletableFuture.supplyAsync(() -> {
+            DatabaseConnection.setFijacion(fijacion);
+            try {
+                PERMISOS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return tarea.ejecutar();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                PERMISOS.release();
+            }
+        }, EJECUTOR);
+    }
+
+    /**
+     * Obtiene la cantidad de tareas esperando un permiso para acceder a la base de datos.
+     *
+     * @return Estimación de la cantidad de tareas encoladas.
+     */
+    public static int getTareasEnEspera() {
+        return PERMISOS.getQueueLength();
+    }
+}
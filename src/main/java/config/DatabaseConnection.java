@@ -2,11 +2,15 @@ package config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import metrics.Metricas;
+import metrics.Operacion;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase responsable de gestionar la conexión a la base de datos utilizando un Pool de Conexiones (HikariCP).
@@ -14,34 +18,93 @@ import java.util.Properties;
  * Implementa un patrón Singleton estático para garantizar que exista una única instancia del
  * DataSource (origen de datos) en toda la aplicación, optimizando el rendimiento y los recursos.
  * </p>
+ * <p>
+ * Opcionalmente mantiene un segundo pool, de solo lectura, contra una réplica ({@code db.replica.url}).
+ * Las operaciones de lectura obtienen su conexión con {@link #getReadConnection()} y las de escritura
+ * con {@link #getConnection()}. Para que un usuario vea sus propios cambios pese al retraso de la
+ * réplica, cada {@link #getConnection()} fija al hilo a la base primaria, y la fijación se renueva
+ * por {@code db.replica.pin_ms} milisegundos cuando la escritura termina (ver {@link #registrarEscritura()}):
+ * en ese lapso sus lecturas también van a la primaria, por larga que haya sido la transacción.
+ * </p>
  */
 public class DatabaseConnection {
 
     /**
      * Carga las propiedades de configuración desde el archivo 'db.properties'.
+     * <p>
+     * Puede indicarse otro recurso del Classpath con la propiedad de sistema {@code db.config}
+     * (por ejemplo, {@code -Ddb.config=db-benchmark.properties}).
+     * </p>
      *
      * @return Objeto {@link Properties} con las credenciales y configuraciones cargadas.
      * @throws RuntimeException Si ocurre un error de E/S o no se encuentra el archivo.
      */
     private static Properties loadProps(){
         Properties p = new Properties();
+        String recurso = System.getProperty("db.config", "db.properties");
 
-        try (InputStream fis = DatabaseConnection.class.getClassLoader().getResourceAsStream("db.properties")){
+        try (InputStream fis = DatabaseConnection.class.getClassLoader().getResourceAsStream(recurso)){
             if (fis == null){
-                throw new IOException("No se encontró el archivo db.properties en el Classpath. Verifique la carpeta src/main/resources");
+                throw new IOException("No se encontró el archivo " + recurso + " en el Classpath. Verifique la carpeta src/main/resources");
             }
 
             p.load(fis);
 
         } catch (IOException e){
-            throw new RuntimeException("Error al cargar el db.properties: " + e.getMessage(), e);
+            throw new RuntimeException("Error al cargar el " + recurso + ": " + e.getMessage(), e);
         }
 
         return p;
     }
 
+    /**
+     * Propiedades opcionales de {@code db.properties} que se traducen a propiedades del driver JDBC.
+     * <ul>
+     * <li>{@code db.rewrite_batched_statements}: reescribe los lotes de INSERT como una sentencia multi-fila.</li>
+     * <li>{@code db.cache_prep_stmts}, {@code db.prep_stmt_cache_size}, {@code db.prep_stmt_cache_sql_limit}:
+     * caché de sentencias preparadas por conexión. Como las conexiones del pool se reutilizan, cada
+     * sentencia de los DAOs se analiza y prepara una vez por conexión y no una vez por llamada. El límite
+     * de longitud debe superar a la sentencia más larga (las listas {@code IN} de 1000 claves rondan los
+     * 3400 caracteres); las más largas no se guardan en la caché.</li>
+     * <li>{@code db.use_server_prep_stmts}: prepara las sentencias en el servidor (junto con la caché
+     * anterior, el servidor conserva el plan y solo se envían los parámetros).</li>
+     * <li>{@code db.cache_result_set_metadata}, {@code db.cache_server_configuration},
+     * {@code db.use_local_session_state}, {@code db.elide_set_auto_commits}: evitan consultas
+     * y viajes al servidor repetidos en cada préstamo de conexión.</li>
+     * </ul>
+     */
+    private static final String[][] PROPIEDADES_DRIVER = {
+            {"db.rewrite_batched_statements", "rewriteBatchedStatements"},
+            {"db.cache_prep_stmts", "cachePrepStmts"},
+            {"db.prep_stmt_cache_size", "prepStmtCacheSize"},
+            {"db.prep_stmt_cache_sql_limit", "prepStmtCacheSqlLimit"},
+            {"db.use_server_prep_stmts", "useServerPrepStmts"},
+            {"db.cache_result_set_metadata", "cacheResultSetMetadata"},
+            {"db.cache_server_configuration", "cacheServerConfiguration"},
+            {"db.use_local_session_state", "useLocalSessionState"},
+            {"db.elide_set_auto_commits", "elideSetAutoCommits"},
+    };
+
+    /** Propiedades cargadas de {@code db.properties}, también usadas por otros componentes. */
+    private static final Properties PROPIEDADES;
+
     private static final HikariDataSource dataSource;
 
+    /** Pool de la réplica, o null si no se configuró {@code db.replica.url}. */
+    private static final HikariDataSource replicaDataSource;
+
+    /** Duración de la fijación a la primaria luego de una escritura, en nanosegundos (0 = desactivada). */
+    private static final long FIJACION_NANOS;
+
+    /** Instante ({@link System#nanoTime()}) hasta el cual el hilo actual lee de la primaria. */
+    private static final ThreadLocal<Long> FIJADO_HASTA = new ThreadLocal<>();
+
+    /** Instante de la última escritura (obtenida o terminada) de cualquier hilo. */
+    private static volatile long ultimaEscritura = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    private static final Operacion ADQUISICION = Metricas.operacion("pool.getConnection");
+    private static final Operacion ADQUISICION_LECTURA = Metricas.operacion("pool.getReadConnection");
+
     /**
      * Bloque estático de inicialización.
      * Se ejecuta una sola vez cuando la clase es cargada en memoria por la JVM.
@@ -50,35 +113,236 @@ public class DatabaseConnection {
     static {
         try {
             Properties p = loadProps();
+            PROPIEDADES = p;
 
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(p.getProperty("db.url"));
-            config.setUsername(p.getProperty("db.user"));
-            config.setPassword(p.getProperty("db.password"));
-
-            // Convertimos los Strings del properties a Enteros
-            config.setMaximumPoolSize(Integer.parseInt(p.getProperty("db.cant_max_con")));
-            config.setMinimumIdle(Integer.parseInt(p.getProperty("db.cant_min_con")));
+            dataSource = new HikariDataSource(crearConfig(p, "db.", "vitalis"));
 
-            dataSource = new HikariDataSource(config);
+            // Réplica opcional: usuario, contraseña y tamaños por defecto iguales a los de la primaria
+            String urlReplica = p.getProperty("db.replica.url");
+            if (urlReplica != null && !urlReplica.isBlank()) {
+                HikariConfig config = crearConfig(p, "db.replica.", "vitalis-replica");
+                config.setReadOnly(true);
+                replicaDataSource = new HikariDataSource(config);
+                FIJACION_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(p.getProperty("db.replica.pin_ms", "1000").trim()));
+            } else {
+                replicaDataSource = null;
+                FIJACION_NANOS = 0;
+            }
 
         } catch (RuntimeException e) {
             throw new RuntimeException("Error fatal al inicializar la conexión: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Construye la configuración de un pool a partir de las propiedades con el prefijo indicado.
+     * Las propiedades ausentes se toman de las de la base primaria ({@code db.*}).
+     *
+     * @param p        Propiedades cargadas de {@code db.properties}.
+     * @param prefijo  Prefijo de las propiedades del pool ({@code "db."} o {@code "db.replica."}).
+     * @param nombre   Nombre del pool (identifica sus estadísticas en JMX).
+     * @return La configuración de HikariCP.
+     */
+    private static HikariConfig crearConfig(Properties p, String prefijo, String nombre) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(p.getProperty(prefijo + "url"));
+        config.setUsername(propiedad(p, prefijo, "user"));
+        config.setPassword(propiedad(p, prefijo, "password"));
+
+        // Convertimos los Strings del properties a Enteros
+        config.setMaximumPoolSize(Integer.parseInt(propiedad(p, prefijo, "cant_max_con")));
+        config.setMinimumIdle(Integer.parseInt(propiedad(p, prefijo, "cant_min_con")));
+
+        // Publica las estadísticas del pool (activas, inactivas, en espera) en JMX
+        config.setPoolName(nombre);
+        config.setRegisterMbeans(true);
+
+        // Propiedades opcionales del driver: solo se aplican las presentes en el archivo
+        for (String[] propiedad : PROPIEDADES_DRIVER) {
+            String valor = p.getProperty(propiedad[0]);
+            if (valor != null && !valor.isBlank()) {
+                config.addDataSourceProperty(propiedad[1], valor.trim());
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Obtiene {@code prefijo + clave}, o {@code db. + clave} si no está definida.
+     */
+    private static String propiedad(Properties p, String prefijo, String clave) {
+        String valor = p.getProperty(prefijo + clave);
+        return valor != null ? valor : p.getProperty("db." + clave);
+    }
+
     /**
      * Obtiene una conexión activa del pool de conexiones.
      * <p>
      * Si no hay conexiones disponibles en el pool, este método esperará hasta que una se libere
-     * o se alcance el tiempo de espera (timeout).
+     * o se alcance el tiempo de espera (timeout). El tiempo de obtención se registra en la
+     * métrica {@code pool.getConnection}.
      * </p>
      *
      * @return Un objeto {@link Connection} listo para ejecutar sentencias SQL.
      * @throws SQLException Si ocurre un error al intentar obtener la conexión del pool.
      */
     public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        long inicio = System.nanoTime();
+        boolean exitosa = false;
+        try {
+            Connection conn = dataSource.getConnection();
+            registrarEscritura();
+            exitosa = true;
+            return conn;
+        } finally {
+            ADQUISICION.registrar(inicio, exitosa);
+        }
+    }
+
+    /**
+     * Fija el hilo actual a la primaria durante {@code db.replica.pin_ms} a partir de ahora y registra
+     * la escritura para {@link #isReplicaPosiblementeAtrasada()}. Se invoca al obtener la conexión de
+     * escritura y otra vez al terminar la transacción ({@link TransactionManager}), ya que lo que la
+     * réplica tarda en reflejar se cuenta desde el commit y no desde el inicio de la escritura.
+     */
+    static void registrarEscritura() {
+        if (FIJACION_NANOS > 0) {
+            long ahora = System.nanoTime();
+            FIJADO_HASTA.set(ahora + FIJACION_NANOS);
+            ultimaEscritura = ahora;
+        }
+    }
+
+    /**
+     * Obtiene una conexión de solo lectura ({@link Connection#setReadOnly(boolean) readOnly = true}).
+     * <p>
+     * Proviene del pool de la réplica, salvo que no haya réplica configurada o que el hilo actual esté
+     * fijado a la primaria por una escritura reciente (ver {@code db.replica.pin_ms}); en esos casos
+     * se obtiene del pool principal. El tiempo de obtención se registra en la métrica
+     * {@code pool.getReadConnection}.
+     * </p>
+     *
+     * @return Una conexión en modo solo lectura.
+     * @throws SQLException Si ocurre un error al intentar obtener la conexión.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        long inicio = System.nanoTime();
+        boolean exitosa = false;
+        try {
+            Connection conn = replicaDataSource != null && !isFijadoAPrimaria()
+                    ? replicaDataSource.getConnection()
+                    : dataSource.getConnection();
+            try {
+                conn.setReadOnly(true);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+            exitosa = true;
+            return conn;
+        } finally {
+            ADQUISICION_LECTURA.registrar(inicio, exitosa);
+        }
+    }
+
+    /**
+     * Indica si el hilo actual está fijado a la base primaria por una escritura reciente.
+     *
+     * @return true si sus lecturas deben ir a la primaria.
+     */
+    public static boolean isFijadoAPrimaria() {
+        Long hasta = FIJADO_HASTA.get();
+        if (hasta == null) {
+            return false;
+        }
+        if (hasta - System.nanoTime() > 0) {
+            return true;
+        }
+        FIJADO_HASTA.remove();
+        return false;
+    }
+
+    /**
+     * Indica si una lectura del hilo actual iría a la réplica habiendo una escritura reciente de otro
+     * hilo (dentro de {@code db.replica.pin_ms}), es decir, si podría devolver datos desactualizados.
+     * Las cachés lo consultan para no almacenar un dato que otro hilo acaba de modificar.
+     *
+     * @return true si la réplica podría no reflejar una escritura reciente.
+     */
+    public static boolean isReplicaPosiblementeAtrasada() {
+        return replicaDataSource != null && !isFijadoAPrimaria()
+                && System.nanoTime() - ultimaEscritura < FIJACION_NANOS;
+    }
+
+    /**
+     * Obtiene la fijación a la primaria del hilo actual, para trasladarla a otro hilo
+     * (ver {@link AsyncExecutor}).
+     *
+     * @return El instante de fin de la fijación, o null si el hilo no está fijado.
+     */
+    static Long getFijacion() {
+        return FIJADO_HASTA.get();
+    }
+
+    /**
+     * Establece (o quita, con null) la fijación a la primaria del hilo actual.
+     *
+     * @param hasta Instante de fin de la fijación obtenido con {@link #getFijacion()}.
+     */
+    static void setFijacion(Long hasta) {
+        if (hasta == null) {
+            FIJADO_HASTA.remove();
+        } else {
+            FIJADO_HASTA.set(hasta);
+        }
+    }
+
+    /**
+     * Indica si hay una réplica de lectura configurada.
+     *
+     * @return true si existe el pool de la réplica.
+     */
+    public static boolean hasReplica() {
+        return replicaDataSource != null;
+    }
+
+    /**
+     * Obtiene una propiedad de {@code db.properties}.
+     *
+     * @param clave      Nombre de la propiedad.
+     * @param porDefecto Valor a devolver si no está definida o está vacía.
+     * @return El valor sin espacios al inicio ni al final, o {@code porDefecto}.
+     */
+    public static String getPropiedad(String clave, String porDefecto) {
+        String valor = PROPIEDADES.getProperty(clave);
+        return valor != null && !valor.isBlank() ? valor.trim() : porDefecto;
+    }
+
+    /**
+     * Obtiene la cantidad máxima de conexiones del pool ({@code db.cant_max_con}).
+     *
+     * @return El tamaño máximo del pool.
+     */
+    public static int getMaxPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    /**
+     * Obtiene el MXBean del pool con sus estadísticas en tiempo real.
+     *
+     * @return El MXBean de HikariCP (conexiones activas, inactivas, totales y en espera).
+     */
+    public static HikariPoolMXBean getPoolMXBean() {
+        return dataSource.getHikariPoolMXBean();
+    }
+
+    /**
+     * Obtiene el MXBean del pool de la réplica.
+     *
+     * @return El MXBean de HikariCP de la réplica, o null si no hay réplica configurada.
+     */
+    public static HikariPoolMXBean getReplicaPoolMXBean() {
+        return replicaDataSource != null ? replicaDataSource.getHikariPoolMXBean() : null;
     }
 
     /**
@@ -88,6 +352,9 @@ public class DatabaseConnection {
      * </p>
      */
     public static void closePool() {
+        if (replicaDataSource != null) {
+            replicaDataSource.close();
+        }
         if (dataSource != null) {
             dataSource.close();
         }
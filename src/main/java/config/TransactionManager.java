@@ -2,14 +2,70 @@ package config;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Gestor de transacciones que envuelve una conexión JDBC para manejar operaciones atómicas.
  * Implementa la interfaz AutoCloseable para asegurar que los recursos se liberen
  * correctamente, realizando un rollback automático si la transacción no se completó.
+ * <p>
+ * Además ofrece la plantilla {@link #inTransaction(OperacionSql)} utilizada por la capa de Servicio:
+ * obtiene la conexión, abre la transacción, confirma o revierte y libera la conexión. Si el hilo ya
+ * está dentro de una operación, la llamada anidada se une a ella y usa la misma conexión, en lugar de
+ * tomar una segunda conexión del pool.
+ * </p>
  */
 public class TransactionManager implements AutoCloseable {
 
+    /**
+     * Operación que se ejecuta con la conexión de la transacción.
+     *
+     * @param <T> El tipo del resultado.
+     */
+    @FunctionalInterface
+    public interface OperacionSql<T> {
+        T ejecutar(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Opciones de una operación.
+     *
+     * @param soloLectura true para usar una conexión de solo lectura (réplica si está configurada).
+     * @param aislamiento Nivel de aislamiento ({@code Connection.TRANSACTION_*}), o
+     *                    {@link #AISLAMIENTO_POR_DEFECTO} para el del pool.
+     */
+    public record Opciones(boolean soloLectura, int aislamiento) {
+
+        /** Mantiene el nivel de aislamiento configurado en la conexión. */
+        public static final int AISLAMIENTO_POR_DEFECTO = -1;
+
+        /** Transacción de escritura con el aislamiento por defecto. */
+        public static final Opciones ESCRITURA = new Opciones(false, AISLAMIENTO_POR_DEFECTO);
+
+        /** Lectura con el aislamiento por defecto. */
+        public static final Opciones SOLO_LECTURA = new Opciones(true, AISLAMIENTO_POR_DEFECTO);
+
+        /**
+         * Copia las opciones con otro nivel de aislamiento.
+         *
+         * @param nivel Nivel de aislamiento ({@code Connection.TRANSACTION_*}).
+         * @return Las nuevas opciones.
+         */
+        public Opciones conAislamiento(int nivel) {
+            return new Opciones(soloLectura, nivel);
+        }
+    }
+
+    /**
+     * Operación en curso en un hilo: su conexión, las acciones a ejecutar si se confirma y las
+     * acciones a ejecutar al finalizarla.
+     */
+    private record Contexto(Connection conn, boolean soloLectura, List<Runnable> alConfirmar, List<Runnable> alFinalizar) {
+    }
+
+    private static final ThreadLocal<Contexto> ACTUAL = new ThreadLocal<>();
+
     private Connection conn;
     private boolean transactionActive;
 
@@ -112,4 +168,177 @@ public class TransactionManager implements AutoCloseable {
     public boolean isTransactionActive() {
         return transactionActive;
     }
-}
\ No newline at end of file
+
+    /**
+     * Ejecuta una operación de escritura en una transacción.
+     *
+     * @param operacion La operación a ejecutar.
+     * @param <T>       El tipo del resultado.
+     * @return El resultado de la operación.
+     * @throws SQLException Si no se pudo obtener la conexión.
+     * @throws RuntimeException Si la operación falla (tras el rollback); ver {@link #inTransaction(Opciones, OperacionSql)}.
+     */
+    public static <T> T inTransaction(OperacionSql<T> operacion) throws SQLException {
+        return inTransaction(Opciones.ESCRITURA, operacion);
+    }
+
+    /**
+     * Ejecuta una operación de solo lectura. A diferencia de las escrituras, una {@link SQLException}
+     * de la operación se propaga sin envolver.
+     *
+     * @param operacion La operación a ejecutar.
+     * @param <T>       El tipo del resultado.
+     * @return El resultado de la operación.
+     * @throws SQLException Si falla la conexión o la consulta.
+     */
+    public static <T> T inReadOnly(OperacionSql<T> operacion) throws SQLException {
+        return inTransaction(Opciones.SOLO_LECTURA, operacion);
+    }
+
+    /**
+     * Ejecuta una operación con las opciones indicadas.
+     * <p>
+     * <b>Unión a la operación en curso:</b> si el hilo ya está dentro de una operación, se reutiliza su
+     * conexión y su transacción; el commit o rollback queda a cargo de la operación externa, y las
+     * opciones de la interna se ignoran. Una escritura no puede unirse a una operación de solo lectura.
+     * </p>
+     * <p>
+     * <b>Escritura:</b> se toma una conexión de {@link DatabaseConnection#getConnection()}, se abre la
+     * transacción y se confirma al terminar. Al cerrarla se renueva la fijación del hilo a la primaria
+     * ({@link DatabaseConnection#registrarEscritura()}), antes de las acciones de {@link #alFinalizar}.
+     * Si la operación falla se revierte: las
+     * {@link RuntimeException} (por ejemplo, validaciones) se propagan tal cual y las
+     * {@link SQLException} se envuelven en una {@code RuntimeException("Error en la transacción: ...")}.
+     * </p>
+     * <p>
+     * <b>Solo lectura:</b> se toma una conexión de {@link DatabaseConnection#getReadConnection()}. Con el
+     * aislamiento por defecto no se abre una transacción explícita (cada consulta es atómica y se ahorra
+     * el commit); si se indica un aislamiento, las consultas se hacen dentro de una transacción con ese
+     * nivel, por ejemplo para obtener una vista consistente con {@code TRANSACTION_REPEATABLE_READ}.
+     * </p>
+     *
+     * @param opciones  Solo lectura y nivel de aislamiento.
+     * @param operacion La operación a ejecutar.
+     * @param <T>       El tipo del resultado.
+     * @return El resultado de la operación.
+     * @throws SQLException Si no se pudo obtener la conexión, o si falla una operación de solo lectura.
+     * @throws IllegalStateException Si se intenta escribir dentro de una operación de solo lectura.
+     */
+    public static <T> T inTransaction(Opciones opciones, OperacionSql<T> operacion) throws SQLException {
+        Contexto actual = ACTUAL.get();
+        if (actual != null) {
+            if (actual.soloLectura() && !opciones.soloLectura()) {
+                throw new IllegalStateException("No se puede escribir dentro de una operación de solo lectura.");
+            }
+            return operacion.ejecutar(actual.conn());
+        }
+
+        Connection conn = opciones.soloLectura() ? DatabaseConnection.getReadConnection() : DatabaseConnection.getConnection();
+        Contexto contexto = new Contexto(conn, opciones.soloLectura(), new ArrayList<>(), new ArrayList<>());
+        ACTUAL.set(contexto);
+        Throwable error = null;
+        try (TransactionManager tx = new TransactionManager(conn)) {
+            boolean transaccion = !opciones.soloLectura() || opciones.aislamiento() != Opciones.AISLAMIENTO_POR_DEFECTO;
+            if (opciones.aislamiento() != Opciones.AISLAMIENTO_POR_DEFECTO) {
+                conn.setTransactionIsolation(opciones.aislamiento());
+            }
+            if (!transaccion) {
+                return operacion.ejecutar(conn);
+            }
+
+            tx.startTransaction();
+            try {
+                T resultado = operacion.ejecutar(conn);
+                tx.commit();
+                return resultado;
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            } catch (SQLException e) {
+                tx.rollback();
+                if (opciones.soloLectura()) {
+                    throw e;
+                }
+                throw new RuntimeException("Error en la transacción: " + e.getMessage(), e);
+            }
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            ACTUAL.remove();
+            if (!opciones.soloLectura()) {
+                DatabaseConnection.registrarEscritura();
+            }
+            if (error == null) {
+                finalizar(contexto.alConfirmar(), null);
+            }
+            finalizar(contexto.alFinalizar(), error);
+        }
+    }
+
+    /**
+     * Ejecuta las acciones registradas con {@link #alConfirmar} o {@link #alFinalizar}, todas aunque alguna falle.
+     * La falla de una acción no reemplaza el resultado de la operación: se agrega como suprimida a la
+     * excepción de la operación, si la hubo, o se informa por la salida de error.
+     *
+     * @param acciones Acciones en orden de registro.
+     * @param error    Excepción con la que terminó la operación, o null si terminó bien.
+     */
+    private static void finalizar(List<Runnable> acciones, Throwable error) {
+        for (Runnable accion : acciones) {
+            try {
+                accion.run();
+            } catch (RuntimeException e) {
+                if (error != null) {
+                    error.addSuppressed(e);
+                } else {
+                    System.err.println("Error en una acción al finalizar la transacción: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una acción cuando termina la operación en curso del hilo (tras el commit o el rollback),
+     * o de inmediato si no hay ninguna. Si la acción falla al terminar la operación, no afecta a su
+     * resultado ni impide las demás acciones (ver {@link #finalizar}). Se usa para invalidar cachés: si se invalidara antes del commit
+     * de una operación externa, otro hilo podría volver a cachear el dato anterior.
+     *
+     * @param accion La acción a ejecutar.
+     */
+    public static void alFinalizar(Runnable accion) {
+        Contexto actual = ACTUAL.get();
+        if (actual != null) {
+            actual.alFinalizar().add(accion);
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Ejecuta una acción solo si la operación en curso del hilo se confirma (tras el commit), antes de
+     * las de {@link #alFinalizar}; si se revierte, la acción se descarta. Sin operación en curso se
+     * ejecuta de inmediato, ya que la sentencia se confirmó con el auto-commit. Se usa para actualizar
+     * el estado que las entidades guardan de la fila (valores leídos y versión), que no debe
+     * reflejar una escritura revertida.
+     *
+     * @param accion La acción a ejecutar.
+     */
+    public static void alConfirmar(Runnable accion) {
+        Contexto actual = ACTUAL.get();
+        if (actual != null) {
+            actual.alConfirmar().add(accion);
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Indica si el hilo actual está dentro de una operación iniciada con {@link #inTransaction}.
+     *
+     * @return true si hay una operación en curso.
+     */
+    public static boolean isEnCurso() {
+        return ACTUAL.get() != null;
+    }
+}
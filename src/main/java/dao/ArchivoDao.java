@@ -0,0 +1,84 @@
+package dao;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interfaz de acceso a datos para el archivado de las bajas lógicas.
+ * <p>
+ * Mueve los pacientes e historias clínicas eliminados a las tablas {@code paciente_archivo} e
+ * {@code historia_clinica_archivo} y los borra físicamente de las tablas de trabajo. Las bajas sin
+ * {@code eliminado_en} (anteriores a la columna) nunca se consideran vencidas.
+ * La transacción la controla el llamador: la búsqueda de cada lote bloquea sus filas hasta el commit.
+ * </p>
+ */
+public interface ArchivoDao {
+
+    /**
+     * Obtiene el instante actual según el servidor de base de datos, que es el reloj con el que
+     * se registran las bajas ({@code eliminado_en}).
+     *
+     * @return La fecha y hora actual de la base de datos.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    LocalDateTime currentTimestamp() throws SQLException;
+
+    /**
+     * Busca y bloquea ({@code FOR UPDATE}) el siguiente lote de pacientes dados de baja antes del límite,
+     * en orden de ID (paginación por clave). Se omiten los pacientes que conservan una historia clínica
+     * activa: archivarlos perdería una historia vigente, y la clave foránea impide borrarlos sin ella.
+     *
+     * @param antesDe     Límite de la fecha de baja (exclusivo).
+     * @param despuesDeId Último ID del lote anterior (0 para comenzar).
+     * @param limite      Tamaño máximo del lote.
+     * @return Los IDs encontrados, en orden ascendente.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    List<Long> lockDeletedPatients(LocalDateTime antesDe, long despuesDeId, int limite) throws SQLException;
+
+    /**
+     * Busca y bloquea ({@code FOR UPDATE}) el siguiente lote de historias clínicas dadas de baja antes
+     * del límite, en orden de ID (paginación por clave).
+     *
+     * @param antesDe     Límite de la fecha de baja (exclusivo).
+     * @param despuesDeId Último ID del lote anterior (0 para comenzar).
+     * @param limite      Tamaño máximo del lote.
+     * @return Los IDs encontrados, en orden ascendente.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    List<Long> lockDeletedHistories(LocalDateTime antesDe, long despuesDeId, int limite) throws SQLException;
+
+    /**
+     * Copia a las tablas de archivo los pacientes indicados que sigan eliminados y sin historia activa,
+     * junto con sus historias clínicas eliminadas, y luego los borra físicamente (primero las historias,
+     * por la clave foránea). Una historia activa nunca se archiva ni se borra: si alguna se reactivó
+     * después de {@link #lockDeletedPatients}, su paciente tampoco se archiva. Las historias de un
+     * paciente que no se archiva (activo, o con una historia activa) no se tocan, aunque estén eliminadas:
+     * quedan sujetas a su propio período de retención ({@link #lockDeletedHistories}).
+     *
+     * @param ids IDs obtenidos con {@link #lockDeletedPatients}.
+     * @return Cantidad de pacientes y de historias archivados.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    Archivados archivePatients(List<Long> ids) throws SQLException;
+
+    /**
+     * Copia a la tabla de archivo las historias clínicas indicadas que sigan eliminadas y luego las
+     * borra físicamente. El paciente, si sigue activo, puede volver a tener una historia.
+     *
+     * @param ids IDs obtenidos con {@link #lockDeletedHistories}.
+     * @return Cantidad de historias archivadas.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    int archiveHistories(List<Long> ids) throws SQLException;
+
+    /**
+     * Filas movidas al archivo.
+     *
+     * @param pacientes Cantidad de pacientes.
+     * @param historias Cantidad de historias clínicas.
+     */
+    record Archivados(int pacientes, int historias) {
+    }
+}
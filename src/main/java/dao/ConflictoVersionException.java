@@ -0,0 +1,40 @@
+package dao;
+
+/**
+ * Indica que una actualización no modificó ninguna fila porque la versión leída ya no es la actual:
+ * otra operación modificó (o eliminó) el registro desde que se leyó.
+ * <p>
+ * Es una excepción no chequeada para que atraviese {@link config.TransactionManager} sin
+ * envolverse y el servicio pueda capturarla, volver a leer el registro y reintentar.
+ * </p>
+ */
+public class ConflictoVersionException extends RuntimeException {
+
+    private final String tabla;
+    private final Long id;
+    private final long version;
+
+    /**
+     * @param tabla   Tabla del registro.
+     * @param id      ID del registro.
+     * @param version Versión con la que se intentó actualizar.
+     */
+    public ConflictoVersionException(String tabla, Long id, long version) {
+        super("El registro " + id + " de " + tabla + " fue modificado o eliminado por otra operación (versión leída: " + version + ").");
+        this.tabla = tabla;
+        this.id = id;
+        this.version = version;
+    }
+
+    public String getTabla() {
+        return tabla;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -3,6 +3,7 @@ package dao;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz genérica que define las operaciones CRUD estándar (Create, Read, Update, Delete).
@@ -24,6 +25,19 @@ public interface GenericDao<T> {
      */
     T create(T t) throws SQLException;
 
+    /**
+     * Persiste un conjunto de entidades nuevas utilizando una única sentencia en modo batch.
+     * <p>
+     * Los IDs generados se asignan a cada entidad en el mismo orden de la lista.
+     * No gestiona la transacción: el commit/rollback queda a cargo del llamador.
+     * </p>
+     *
+     * @param lista Las entidades a guardar.
+     * @return La misma lista, con los IDs asignados.
+     * @throws SQLException Si ocurre un error en la inserción.
+     */
+    List<T> createAll(List<T> lista) throws SQLException;
+
     /**
      * Busca una entidad por su identificador único.
      *
@@ -41,6 +55,35 @@ public interface GenericDao<T> {
      */
     List<T> getAll() throws SQLException;
 
+    /**
+     * Recorre todos los registros activos fila por fila, sin acumularlos en memoria.
+     * <p>
+     * Utiliza el modo de lectura en streaming del driver: cada fila se mapea y se entrega
+     * al consumidor a medida que llega desde el servidor, por lo que el consumo de memoria
+     * es constante sin importar el tamaño de la tabla. La conexión queda ocupada hasta que
+     * termina el recorrido, por lo que el consumidor no debe ejecutar otras consultas sobre ella.
+     * </p>
+     *
+     * @param consumidor Acción a ejecutar por cada entidad leída.
+     * @throws SQLException Si ocurre un error de consulta.
+     */
+    void streamAll(Consumer<? super T> consumidor) throws SQLException;
+
+    /**
+     * Recupera una página de registros activos ordenados por ID, usando paginación por clave.
+     * <p>
+     * En lugar de {@code OFFSET}, filtra por {@code id > ?}, por lo que el costo de cada página
+     * es el de una búsqueda en el índice primario, sin importar qué tan avanzada esté la paginación.
+     * </p>
+     *
+     * @param token  Token de continuación devuelto por la página anterior, o null para la primera página.
+     * @param tamanio Cantidad máxima de elementos por página (mayor a cero).
+     * @return La página solicitada con su token de continuación.
+     * @throws SQLException Si ocurre un error de consulta.
+     * @throws IllegalArgumentException Si el token o el tamaño son inválidos.
+     */
+    Page<T> getPage(String token, int tamanio) throws SQLException;
+
     /**
      * Actualiza los datos de una entidad existente.
      *
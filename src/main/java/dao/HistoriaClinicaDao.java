@@ -2,6 +2,8 @@ package dao;
 
 import model.HistoriaClinica;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -20,6 +22,15 @@ public interface HistoriaClinicaDao extends GenericDao<HistoriaClinica> {
      */
     Optional<HistoriaClinica> findByPacienteId(Long pacienteId) throws SQLException;
 
+    /**
+     * Busca las historias clínicas activas de varios pacientes en pocas consultas.
+     *
+     * @param pacienteIds Los IDs de los pacientes (se ignoran los nulos y repetidos).
+     * @return Mapa ID de paciente → historia; los pacientes sin historia activa no figuran.
+     * @throws SQLException Si falla la consulta.
+     */
+    Map<Long, HistoriaClinica> findByPacienteIds(Collection<Long> pacienteIds) throws SQLException;
+
     /**
      * Elimina la historia clínica asociada a un paciente.
      * Útil para implementar borrado en cascada.
@@ -28,4 +39,15 @@ public interface HistoriaClinicaDao extends GenericDao<HistoriaClinica> {
      * @throws SQLException Si falla el borrado.
      */
     void deleteByPacienteId(Long pacienteId) throws SQLException;
+
+    /**
+     * Lee las columnas de texto extenso (antecedentes, medicación y observaciones) de una historia
+     * obtenida con una proyección resumida y las asigna al objeto recibido.
+     *
+     * Si falla, la historia queda como estaba (sin el detalle cargado).
+     *
+     * @param hc La historia a completar (debe tener ID).
+     * @throws SQLException Si falla la consulta o la historia ya no existe.
+     */
+    void loadDetails(HistoriaClinica hc) throws SQLException;
 }
@@ -1,8 +1,12 @@
 package dao;
 
+import model.HistoriaClinica;
 import model.Paciente;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz de acceso a datos específica para la entidad Paciente.
@@ -22,4 +26,68 @@ public interface PacienteDao extends GenericDao<Paciente> {
      */
     Optional<Paciente> findByDni(String dni) throws SQLException;
 
+    /**
+     * Busca varios pacientes activos por ID en pocas consultas (listas {@code IN} por bloques).
+     *
+     * @param ids Los IDs a buscar (se ignoran los nulos y repetidos).
+     * @return Mapa ID → paciente; los IDs inexistentes o eliminados no figuran.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    Map<Long, Paciente> findByIds(Collection<Long> ids) throws SQLException;
+
+    /**
+     * Busca varios pacientes activos por DNI en pocas consultas (listas {@code IN} por bloques).
+     *
+     * @param dnis Los DNIs a buscar (se ignoran los nulos y repetidos).
+     * @return Mapa DNI → paciente; los DNIs inexistentes o eliminados no figuran.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    Map<String, Paciente> findByDnis(Collection<String> dnis) throws SQLException;
+
+    /**
+     * Recorre todos los pacientes activos en modo streaming (como {@link #streamAll}), sin cargar
+     * su historia clínica. Útil para procesos masivos que solo necesitan los datos personales.
+     *
+     * @param consumidor Acción a ejecutar por cada paciente leído.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    void streamWithoutHistory(Consumer<? super Paciente> consumidor) throws SQLException;
+
+    /**
+     * Recupera una página de pacientes activos (paginación por clave, igual que {@link #getPage}),
+     * sin leer las columnas de texto extenso de la historia clínica. Las historias quedan marcadas
+     * como resumen ({@link HistoriaClinica#isDetalleCargado()} es false) y sin cargador: el llamador
+     * debe asignarlo ({@link HistoriaClinica#setCargadorDetalle}) o completarlas con
+     * {@link HistoriaClinicaDao#loadDetails} antes de acceder a esas columnas.
+     *
+     * @param token   Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio Cantidad máxima de pacientes por página (mayor a cero).
+     * @return La página solicitada con su token de continuación.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    Page<Paciente> getSummaryPage(String token, int tamanio) throws SQLException;
+
+    /**
+     * Busca pacientes activos cuyo apellido (y opcionalmente nombre) comienza con el texto indicado,
+     * sin distinguir mayúsculas ni acentos. Los resultados se ordenan por apellido, nombre e ID,
+     * se paginan por clave y traen la historia clínica resumida (como {@link #getSummaryPage}).
+     *
+     * @param apellido Prefijo del apellido (obligatorio).
+     * @param nombre   Prefijo del nombre, o null para no filtrar por nombre.
+     * @param token    Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio  Cantidad máxima de pacientes por página (mayor a cero).
+     * @return La página solicitada con su token de continuación.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    Page<Paciente> searchByName(String apellido, String nombre, String token, int tamanio) throws SQLException;
+
+    /**
+     * Realiza la baja lógica de varios pacientes y de sus historias clínicas, con una sentencia
+     * por bloque de IDs en lugar de dos por paciente.
+     *
+     * @param ids Los IDs de los pacientes (se ignoran los nulos y repetidos).
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    void deleteAll(Collection<Long> ids) throws SQLException;
+
 }
\ No newline at end of file
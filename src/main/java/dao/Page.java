@@ -0,0 +1,57 @@
+package dao;
+
+import java.util.List;
+
+/**
+ * Representa una página de resultados obtenida mediante paginación por clave (keyset).
+ * <p>
+ * Además de los elementos, contiene un token de continuación opaco que debe enviarse
+ * en la siguiente solicitud para obtener la página siguiente. Si el token es {@code null},
+ * no hay más resultados.
+ * </p>
+ *
+ * @param <T> El tipo de los elementos de la página.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextToken;
+
+    /**
+     * Construye una página de resultados.
+     *
+     * @param items     Los elementos de la página (nunca null).
+     * @param nextToken Token para solicitar la página siguiente, o null si es la última.
+     */
+    public Page(List<T> items, String nextToken) {
+        this.items = List.copyOf(items);
+        this.nextToken = nextToken;
+    }
+
+    /**
+     * Obtiene los elementos de la página.
+     *
+     * @return Lista inmutable con los elementos (vacía si no hay resultados).
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Obtiene el token de continuación para la página siguiente.
+     *
+     * @return El token, o null si esta es la última página.
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * Indica si existen más resultados después de esta página.
+     *
+     * @return true si hay una página siguiente.
+     */
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,144 @@
+package dao.impl;
+
+import dao.ArchivoDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación JDBC de {@link ArchivoDao}.
+ * <p>
+ * Cada lote se selecciona recorriendo los índices {@code idx_paciente_eliminado} e
+ * {@code idx_historia_eliminado} a partir del último ID procesado, y se mueve con
+ * {@code INSERT ... SELECT} y {@code DELETE} por lista de IDs ({@link SqlInList}), de modo que
+ * cada sentencia toca solo las filas del lote.
+ * </p>
+ */
+public class ArchivoDaoImpl implements ArchivoDao {
+
+    private static final String COLUMNAS_PACIENTE =
+            "id, eliminado, nombre, apellido, dni, fecha_nacimiento, version, eliminado_en";
+
+    private static final String COLUMNAS_HISTORIA =
+            "id, eliminado, nro_historia, grupo_sanguineo, antecedentes, medicacion_actual, " +
+            "observaciones, paciente_id, fecha_apertura, version, eliminado_en";
+
+    private static final String AHORA = "SELECT LOCALTIMESTAMP";
+
+    /** Un paciente eliminado con una historia activa no se archiva: se omite hasta que ambos estén de baja. */
+    private static final String SIN_HISTORIA_ACTIVA =
+            " AND NOT EXISTS (SELECT 1 FROM historia_clinica h WHERE h.paciente_id = paciente.id AND h.eliminado = 0)";
+
+    private static final String SELECT_PACIENTES_VENCIDOS =
+            "SELECT id FROM paciente WHERE eliminado = 1 AND id > ? AND eliminado_en < ?" + SIN_HISTORIA_ACTIVA +
+            " ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String SELECT_HISTORIAS_VENCIDAS =
+            "SELECT id FROM historia_clinica WHERE eliminado = 1 AND id > ? AND eliminado_en < ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE";
+
+    /** Pacientes del lote que siguen eliminados y sin historia activa: los únicos que se archivan. */
+    private static final String[] SELECT_PACIENTES_ARCHIVABLES = SqlInList.sentencias(
+            "SELECT id FROM paciente WHERE eliminado = 1" + SIN_HISTORIA_ACTIVA + " AND id IN (", ") ORDER BY id");
+
+    private static final String[] COPIAR_HISTORIAS_POR_PACIENTE = SqlInList.sentencias(
+            "INSERT INTO historia_clinica_archivo (" + COLUMNAS_HISTORIA + ") " +
+            "SELECT " + COLUMNAS_HISTORIA + " FROM historia_clinica WHERE eliminado = 1 AND paciente_id IN (", ")");
+
+    private static final String[] BORRAR_HISTORIAS_POR_PACIENTE =
+            SqlInList.sentencias("DELETE FROM historia_clinica WHERE eliminado = 1 AND paciente_id IN (", ")");
+
+    private static final String[] COPIAR_PACIENTES = SqlInList.sentencias(
+            "INSERT INTO paciente_archivo (" + COLUMNAS_PACIENTE + ") " +
+            "SELECT " + COLUMNAS_PACIENTE + " FROM paciente WHERE eliminado = 1" + SIN_HISTORIA_ACTIVA + " AND id IN (", ")");
+
+    private static final String[] BORRAR_PACIENTES =
+            SqlInList.sentencias("DELETE FROM paciente WHERE eliminado = 1" + SIN_HISTORIA_ACTIVA + " AND id IN (", ")");
+
+    private static final String[] COPIAR_HISTORIAS = SqlInList.sentencias(
+            "INSERT INTO historia_clinica_archivo (" + COLUMNAS_HISTORIA + ") " +
+            "SELECT " + COLUMNAS_HISTORIA + " FROM historia_clinica WHERE eliminado = 1 AND id IN (", ")");
+
+    private static final String[] BORRAR_HISTORIAS =
+            SqlInList.sentencias("DELETE FROM historia_clinica WHERE eliminado = 1 AND id IN (", ")");
+
+    private final Connection conn;
+
+    /**
+     * Constructor que inyecta la conexión.
+     *
+     * @param conn Conexión JDBC gestionada por el llamador.
+     */
+    public ArchivoDaoImpl(Connection conn) {
+        this.conn = conn;
+    }
+
+    @Override
+    public LocalDateTime currentTimestamp() throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(AHORA);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getObject(1, LocalDateTime.class);
+        }
+    }
+
+    @Override
+    public List<Long> lockDeletedPatients(LocalDateTime antesDe, long despuesDeId, int limite) throws SQLException {
+        return buscarIds(SELECT_PACIENTES_VENCIDOS, antesDe, despuesDeId, limite);
+    }
+
+    @Override
+    public List<Long> lockDeletedHistories(LocalDateTime antesDe, long despuesDeId, int limite) throws SQLException {
+        return buscarIds(SELECT_HISTORIAS_VENCIDAS, antesDe, despuesDeId, limite);
+    }
+
+    @Override
+    public Archivados archivePatients(List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new Archivados(0, 0);
+        }
+        // Las historias se mueven solo para los pacientes que se archivan en este lote; las de un paciente
+        // que se omite quedan en la tabla de trabajo y siguen su propio período de retención
+        List<Long> archivables = new ArrayList<>(ids.size());
+        SqlInList.consultar(conn, SELECT_PACIENTES_ARCHIVABLES, ids, PreparedStatement::setLong,
+                rs -> archivables.add(rs.getLong(1)));
+        if (archivables.isEmpty()) {
+            return new Archivados(0, 0);
+        }
+        int historias = SqlInList.actualizar(conn, COPIAR_HISTORIAS_POR_PACIENTE, archivables, PreparedStatement::setLong);
+        SqlInList.actualizar(conn, BORRAR_HISTORIAS_POR_PACIENTE, archivables, PreparedStatement::setLong);
+        int pacientes = SqlInList.actualizar(conn, COPIAR_PACIENTES, archivables, PreparedStatement::setLong);
+        SqlInList.actualizar(conn, BORRAR_PACIENTES, archivables, PreparedStatement::setLong);
+        return new Archivados(pacientes, historias);
+    }
+
+    @Override
+    public int archiveHistories(List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int historias = SqlInList.actualizar(conn, COPIAR_HISTORIAS, ids, PreparedStatement::setLong);
+        SqlInList.actualizar(conn, BORRAR_HISTORIAS, ids, PreparedStatement::setLong);
+        return historias;
+    }
+
+    private List<Long> buscarIds(String sql, LocalDateTime antesDe, long despuesDeId, int limite) throws SQLException {
+        List<Long> ids = new ArrayList<>(limite);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, despuesDeId);
+            ps.setObject(2, antesDe);
+            ps.setInt(3, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,52 @@
+package dao.impl;
+
+import dao.ArchivoDao;
+import dao.HistoriaClinicaDao;
+import dao.PacienteDao;
+import metrics.Metricas;
+
+import java.sql.Connection;
+
+/**
+ * Fábrica de DAOs utilizada por la capa de Servicio.
+ * <p>
+ * Crea las implementaciones JDBC sobre la conexión recibida y las envuelve con
+ * {@link Metricas#instrumentar}, de modo que cada método de DAO quede medido
+ * (llamadas, errores y latencia).
+ * </p>
+ */
+public final class DaoFactory {
+
+    private DaoFactory() {
+    }
+
+    /**
+     * Crea un DAO de pacientes sobre la conexión indicada.
+     *
+     * @param conn Conexión JDBC gestionada por el llamador.
+     * @return El DAO instrumentado.
+     */
+    public static PacienteDao paciente(Connection conn) {
+        return Metricas.instrumentar(PacienteDao.class, new PacienteDaoImpl(conn));
+    }
+
+    /**
+     * Crea un DAO de historias clínicas sobre la conexión indicada.
+     *
+     * @param conn Conexión JDBC gestionada por el llamador.
+     * @return El DAO instrumentado.
+     */
+    public static HistoriaClinicaDao historiaClinica(Connection conn) {
+        return Metricas.instrumentar(HistoriaClinicaDao.class, new HistoriaClinicaDaoImpl(conn));
+    }
+
+    /**
+     * Crea un DAO de archivado de bajas lógicas sobre la conexión indicada.
+     *
+     * @param conn Conexión JDBC gestionada por el llamador.
+     * @return El DAO instrumentado.
+     */
+    public static ArchivoDao archivo(Connection conn) {
+        return Metricas.instrumentar(ArchivoDao.class, new ArchivoDaoImpl(conn));
+    }
+}
@@ -1,11 +1,19 @@
 package dao.impl;
 
+import config.TransactionManager;
+import dao.ConflictoVersionException;
 import dao.HistoriaClinicaDao;
+import dao.Page;
 import model.HistoriaClinica;
+import model.HistoriaClinicaMapper;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementación concreta del DAO para la entidad {@link HistoriaClinica} utilizando JDBC.
@@ -16,6 +24,35 @@ import java.util.Optional;
  */
 public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
 
+    // Sentencias constantes: el texto SQL no se reconstruye en cada llamada y el driver puede
+    // reutilizar la sentencia preparada en su caché por conexión (ver db.cache_prep_stmts).
+    // La lista de columnas, el INSERT y el UPDATE provienen del mapper generado en compilación.
+    private static final String SELECT = "SELECT " + HistoriaClinicaMapper.COLUMNAS + " FROM historia_clinica hc ";
+
+    private static final String SELECT_DETALLE =
+            "SELECT " + HistoriaClinicaMapper.COLUMNAS_DETALLE + " FROM historia_clinica hc WHERE hc.id = ?";
+
+    private static final String SELECT_POR_ID =
+            SELECT + "WHERE hc.id = ? AND hc.eliminado = 0";
+
+    private static final String SELECT_POR_PACIENTE =
+            SELECT + "WHERE hc.paciente_id = ? AND hc.eliminado = 0";
+
+    private static final String SELECT_ACTIVAS =
+            SELECT + "WHERE hc.eliminado = 0";
+
+    private static final String SELECT_PAGINA =
+            SELECT + "WHERE hc.eliminado = 0 AND hc.id > ? ORDER BY hc.id LIMIT ?";
+
+    private static final String DELETE =
+            "UPDATE historia_clinica SET eliminado = ?, version = version + 1, eliminado_en = COALESCE(eliminado_en, CURRENT_TIMESTAMP) WHERE id = ?";
+
+    private static final String DELETE_POR_PACIENTE =
+            "UPDATE historia_clinica SET eliminado = ?, version = version + 1, eliminado_en = COALESCE(eliminado_en, CURRENT_TIMESTAMP) WHERE paciente_id = ?";
+
+    private static final String[] SQL_POR_PACIENTE_IDS = SqlInList.sentencias(
+            SELECT + "WHERE hc.eliminado = 0 AND hc.paciente_id IN (", ")");
+
     private final Connection conn;
 
     /**
@@ -26,30 +63,6 @@ public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
         this.conn = conn;
     }
 
-    /**
-     * Mapea el ResultSet a un objeto HistoriaClinica.
-     * Incluye el mapeo de la FK {@code paciente_id} para mantener la coherencia en el modelo de dominio.
-     *
-     * @param rs ResultSet posicionado en la fila actual.
-     * @return Objeto HistoriaClinica.
-     * @throws SQLException Si ocurre error de lectura.
-     */
-    private HistoriaClinica map(ResultSet rs) throws SQLException{
-        HistoriaClinica hc = new HistoriaClinica();
-        hc.setId(rs.getLong("id"));
-        hc.setEliminado(rs.getBoolean("eliminado"));
-        hc.setNroHistoria(rs.getString("nro_historia"));
-        String gs = rs.getString("grupo_sanguineo");
-        hc.setGrupoSanguineo(HistoriaClinica.GrupoSanguineo.fromDb(gs));
-        hc.setAntecedentes(rs.getString("antecedentes"));
-        hc.setMedicacionActual(rs.getString("medicacion_actual"));
-        hc.setObservaciones(rs.getString("observaciones"));
-        java.sql.Date f = rs.getDate("fecha_apertura");
-        hc.setFechaApertura(f != null ? f.toLocalDate() : null);
-        hc.setPacienteId(rs.getLong("paciente_id"));
-        return hc;
-    }
-
     /**
      * Busca la historia clínica específica asociada a un paciente.
      *
@@ -59,18 +72,36 @@ public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
      */
     @Override
     public Optional<HistoriaClinica> findByPacienteId(Long pacienteId) throws SQLException {
-        String sql = "SELECT * FROM historia_clinica WHERE paciente_id = ? AND eliminado = 0";
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_POR_PACIENTE)){
             ps.setLong(1, pacienteId);
             try (ResultSet rs = ps.executeQuery()){
                 if (rs.next()){
-                    return Optional.of(map(rs));
+                    return Optional.of(HistoriaClinicaMapper.map(rs, 1));
                 }
             }
         }
         return Optional.empty();
     }
 
+    /**
+     * Busca las historias clínicas de varios pacientes con listas {@code IN}
+     * de hasta {@value SqlInList#MAXIMO} elementos.
+     *
+     * @param pacienteIds IDs de los pacientes.
+     * @return Mapa ID de paciente → historia clínica activa.
+     * @throws SQLException Error de base de datos.
+     */
+    @Override
+    public Map<Long, HistoriaClinica> findByPacienteIds(Collection<Long> pacienteIds) throws SQLException {
+        List<Long> claves = SqlInList.distintas(pacienteIds);
+        Map<Long, HistoriaClinica> encontradas = new HashMap<>(claves.size() * 2);
+        SqlInList.consultar(conn, SQL_POR_PACIENTE_IDS, claves, PreparedStatement::setLong, rs -> {
+            HistoriaClinica hc = HistoriaClinicaMapper.map(rs, 1);
+            encontradas.put(hc.getPacienteId(), hc);
+        });
+        return encontradas;
+    }
+
     /**
      * Realiza la baja lógica de la historia clínica buscando por el ID del paciente.
      * Útil para operaciones de borrado en cascada manual.
@@ -80,8 +111,7 @@ public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
      */
     @Override
     public void deleteByPacienteId(Long pacienteId) throws SQLException {
-        String sql = "UPDATE historia_clinica SET eliminado = ? WHERE paciente_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_POR_PACIENTE)){
             ps.setBoolean(1, true);
             ps.setLong(2, pacienteId);
             ps.executeUpdate();
@@ -98,34 +128,51 @@ public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
      */
     @Override
     public HistoriaClinica create(HistoriaClinica hc) throws SQLException {
-        String sql = "INSERT INTO historia_clinica (eliminado, nro_historia, grupo_sanguineo, antecedentes, medicacion_actual, observaciones, fecha_apertura, paciente_id) VALUES (?,?,?,?,?,?,?,?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)){
-            ps.setBoolean(1, hc.isEliminado());
-            ps.setString(2, hc.getNroHistoria());
-            if (hc.getGrupoSanguineo() != null){
-                ps.setString(3, hc.getGrupoSanguineo().db());
-            } else {
-                ps.setNull(3, Types.VARCHAR);
-            }
-            ps.setString(4, hc.getAntecedentes());
-            ps.setString(5, hc.getMedicacionActual());
-            ps.setString(6, hc.getObservaciones());
-            if (hc.getFechaApertura() != null){
-                ps.setDate(7, java.sql.Date.valueOf(hc.getFechaApertura()));
-            } else {
-                ps.setNull(7, Types.DATE);
-            }
-            ps.setLong(8, hc.getPacienteId());
+        try (PreparedStatement ps = conn.prepareStatement(HistoriaClinicaMapper.INSERT, Statement.RETURN_GENERATED_KEYS)){
+            HistoriaClinicaMapper.bindInsert(ps, hc);
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if (rs.next()) {
                     hc.setId(rs.getLong(1));
                 }
             }
+            HistoriaClinicaMapper.marcarSinCambios(hc, HistoriaClinicaMapper.ACTUALIZABLES);
             return hc;
         }
     }
 
+    /**
+     * Crea un conjunto de historias clínicas en modo batch.
+     * Requiere que cada historia tenga seteado el {@code pacienteId}.
+     *
+     * @param historias Historias a persistir.
+     * @return La misma lista, con los IDs generados asignados en orden.
+     * @throws SQLException Error de inserción.
+     */
+    @Override
+    public List<HistoriaClinica> createAll(List<HistoriaClinica> historias) throws SQLException {
+        if (historias.isEmpty()) {
+            return historias;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(HistoriaClinicaMapper.INSERT, Statement.RETURN_GENERATED_KEYS)){
+            for (HistoriaClinica hc : historias) {
+                HistoriaClinicaMapper.bindInsert(ps, hc);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                for (HistoriaClinica hc : historias) {
+                    if (!rs.next()) {
+                        throw new SQLException("El driver no devolvió todos los IDs generados del lote.");
+                    }
+                    hc.setId(rs.getLong(1));
+                    HistoriaClinicaMapper.marcarSinCambios(hc, HistoriaClinicaMapper.ACTUALIZABLES);
+                }
+            }
+        }
+        return historias;
+    }
+
     /**
      * Busca una historia clínica por su propio ID (PK).
      *
@@ -135,12 +182,11 @@ public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
      */
     @Override
     public Optional<HistoriaClinica> findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM historia_clinica WHERE id = ? AND eliminado = 0";
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_POR_ID)){
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()){
                 if (rs.next()){
-                    return Optional.of(map(rs));
+                    return Optional.of(HistoriaClinicaMapper.map(rs, 1));
                 }
             }
         }
@@ -155,49 +201,109 @@ public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
      */
     @Override
     public List<HistoriaClinica> getAll() throws SQLException {
-        String sql = "SELECT * FROM historia_clinica WHERE eliminado = 0";
-
         List<HistoriaClinica> HcEncontradas = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ACTIVAS)) {
             ResultSet rs = ps.executeQuery();
             while (rs.next()){
-                HistoriaClinica hc = map(rs);
+                HistoriaClinica hc = HistoriaClinicaMapper.map(rs, 1);
                 HcEncontradas.add(hc);
             }
         }
         return HcEncontradas;
     }
 
+    /**
+     * Recorre todas las historias clínicas activas en modo streaming.
+     * El driver entrega las filas de a una ({@code fetchSize = Integer.MIN_VALUE}),
+     * sin materializar el resultado completo en memoria.
+     *
+     * @param consumidor Acción a ejecutar por cada historia leída.
+     * @throws SQLException Error de lectura.
+     */
+    @Override
+    public void streamAll(Consumer<? super HistoriaClinica> consumidor) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ACTIVAS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(HistoriaClinicaMapper.map(rs, 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recupera una página de historias clínicas activas ordenadas por ID (paginación por clave).
+     *
+     * @param token   Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio Cantidad máxima de historias por página.
+     * @return La página de historias clínicas.
+     * @throws SQLException Error de lectura.
+     */
+    @Override
+    public Page<HistoriaClinica> getPage(String token, int tamanio) throws SQLException {
+        if (tamanio <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a cero.");
+        }
+
+        List<HistoriaClinica> historias = new ArrayList<>(tamanio + 1);
+
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_PAGINA)) {
+            ps.setLong(1, TokenContinuacion.leerId(token));
+            ps.setInt(2, tamanio + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    historias.add(HistoriaClinicaMapper.map(rs, 1));
+                }
+            }
+        }
+
+        if (historias.size() > tamanio) {
+            historias.remove(tamanio);
+            return new Page<>(historias, TokenContinuacion.porId(historias.get(tamanio - 1).getId()));
+        }
+        return new Page<>(historias, null);
+    }
+
     /**
      * Actualiza los datos médicos de una historia existente.
      * No modifica la asociación con el paciente (paciente_id).
+     * <p>
+     * Solo se escriben las columnas cuyo valor difiere del leído de la base (ver {@code cambios} del
+     * mapper); si no cambió ninguna, no se ejecuta la sentencia. Cuando la transacción se confirma
+     * ({@link TransactionManager#alConfirmar}), las columnas escritas se registran como los nuevos
+     * valores leídos, de modo que una modificación posterior, incluso volver al valor anterior, se
+     * compara contra lo que quedó en la base. Si se revierte, los valores leídos no cambian.
+     * </p>
+     * <p>
+     * La sentencia exige la versión leída e incrementa la de la fila; la versión de la entidad se
+     * incrementa recién con el commit, junto con los valores leídos, para que tras un rollback siga
+     * coincidiendo con la de la fila. Por lo mismo, una segunda actualización de la misma instancia
+     * dentro de la misma transacción lanza {@link ConflictoVersionException}.
+     * </p>
      *
      * @param hc Objeto con los datos nuevos.
      * @throws SQLException Error de actualización.
+     * @throws ConflictoVersionException Si la fila fue modificada o eliminada desde que se leyó.
      */
     @Override
     public void update(HistoriaClinica hc) throws SQLException {
-        String sql = "UPDATE historia_clinica SET eliminado=?, nro_historia=?, grupo_sanguineo=?, antecedentes=?, medicacion_actual=?, observaciones=?, fecha_apertura=? WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
-            ps.setBoolean(1, hc.isEliminado());
-            ps.setString(2, hc.getNroHistoria());
-            if (hc.getGrupoSanguineo() != null){
-                ps.setString(3, hc.getGrupoSanguineo().db());
-            } else {
-                ps.setNull(3, Types.VARCHAR);
-            }
-            ps.setString(4, hc.getAntecedentes());
-            ps.setString(5, hc.getMedicacionActual());
-            ps.setString(6, hc.getObservaciones());
-            if (hc.getFechaApertura() != null){
-                ps.setDate(7, java.sql.Date.valueOf(hc.getFechaApertura()));
-            } else {
-                ps.setNull(7, Types.DATE);
+        long cambios = HistoriaClinicaMapper.cambios(hc);
+        if (cambios == 0) {
+            return;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(HistoriaClinicaMapper.update(cambios))){
+            HistoriaClinicaMapper.bindUpdate(ps, hc, cambios);
+            if (ps.executeUpdate() == 0) {
+                throw new ConflictoVersionException(HistoriaClinicaMapper.TABLA, hc.getId(), hc.getVersion());
             }
-            ps.setLong(8, hc.getId());
-            ps.executeUpdate();
         }
+        long version = hc.getVersion();
+        TransactionManager.alConfirmar(() -> {
+            HistoriaClinicaMapper.marcarSinCambios(hc, cambios);
+            hc.setVersion(version + 1);
+        });
     }
 
     /**
@@ -208,11 +314,36 @@ public class HistoriaClinicaDaoImpl implements HistoriaClinicaDao {
      */
     @Override
     public void delete(Long id) throws SQLException {
-        String sql = "UPDATE historia_clinica SET eliminado = ? WHERE id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
+        try (PreparedStatement ps = conn.prepareStatement(DELETE)){
             ps.setBoolean(1, true);
             ps.setLong(2, id);
             ps.executeUpdate();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Completa las columnas de texto extenso de una historia leída con la proyección resumida.
+     * Se toma el monitor de la historia durante la carga y se la marca como cargada recién al asignar
+     * los campos leídos (ver {@link HistoriaClinica#marcarDetalleCargado()}): si la consulta falla o la
+     * fila ya no existe, la historia sigue siendo un resumen, en lugar de quedar cargada con campos
+     * en null que además no registrarían sus cambios.
+     *
+     * @param hc Historia a completar.
+     * @throws SQLException Error de base de datos, o si la historia ya no existe.
+     */
+    @Override
+    public void loadDetails(HistoriaClinica hc) throws SQLException {
+        synchronized (hc) {
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_DETALLE)){
+                ps.setLong(1, hc.getId());
+                try (ResultSet rs = ps.executeQuery()){
+                    if (!rs.next()){
+                        throw new SQLException("La historia clínica " + hc.getId() + " ya no existe.");
+                    }
+                    hc.marcarDetalleCargado();
+                    HistoriaClinicaMapper.mapDetalle(rs, 1, hc);
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package dao.impl;
 
+import config.TransactionManager;
+import dao.ConflictoVersionException;
+import dao.Page;
 import dao.PacienteDao;
 import model.HistoriaClinica;
+import model.HistoriaClinicaMapper;
 import model.Paciente;
+import model.PacienteMapper;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Implementación concreta del DAO para la entidad {@link Paciente} utilizando JDBC.
@@ -21,6 +31,80 @@ import java.util.Optional;
  */
 public class PacienteDaoImpl implements PacienteDao {
 
+    // Sentencias constantes: el texto SQL no se reconstruye en cada llamada y el driver puede
+    // reutilizar la sentencia preparada en su caché por conexión (ver db.cache_prep_stmts).
+    // Las listas de columnas, el INSERT y el UPDATE provienen de los mappers generados en compilación.
+
+    /**
+     * Columnas del paciente seguidas por las de su historia clínica, en el orden que espera {@link #map}.
+     */
+    private static final String COLUMNAS = PacienteMapper.COLUMNAS + ", " + HistoriaClinicaMapper.COLUMNAS;
+
+    /** Posición de la primera columna de la historia clínica en {@link #COLUMNAS}. */
+    private static final int BASE_HC = PacienteMapper.CANTIDAD_COLUMNAS + 1;
+
+    private static final String SELECT_CON_HC = "SELECT " + COLUMNAS + " " +
+            "FROM paciente p " +
+            "LEFT JOIN historia_clinica hc ON p.id = hc.paciente_id AND hc.eliminado = 0 ";
+
+    private static final String SELECT_RESUMEN =
+            "SELECT " + PacienteMapper.COLUMNAS + ", " + HistoriaClinicaMapper.COLUMNAS_RESUMEN + " " +
+            "FROM paciente p " +
+            "LEFT JOIN historia_clinica hc ON p.id = hc.paciente_id AND hc.eliminado = 0 ";
+
+    private static final String SELECT_PAGINA_RESUMEN =
+            SELECT_RESUMEN + "WHERE p.eliminado = 0 AND p.id > ? ORDER BY p.id LIMIT ?";
+
+    // Búsqueda por prefijo: el LIKE 'prefijo%' y el ORDER BY recorren el índice idx_paciente_apellido_nombre.
+    // La continuación compara (apellido, nombre, id) con la última fila entregada; se escribe expandida
+    // en lugar de con un constructor de fila para que el optimizador la resuelva como rango del índice.
+    private static final String SELECT_BUSQUEDA =
+            SELECT_RESUMEN + "WHERE p.eliminado = 0 AND p.apellido LIKE ? ESCAPE '!' " +
+            "AND (? IS NULL OR p.nombre LIKE ? ESCAPE '!') ";
+
+    private static final String ORDEN_BUSQUEDA = "ORDER BY p.apellido, p.nombre, p.id LIMIT ?";
+
+    private static final String SELECT_BUSQUEDA_PRIMERA = SELECT_BUSQUEDA + ORDEN_BUSQUEDA;
+
+    private static final String SELECT_BUSQUEDA_SIGUIENTE = SELECT_BUSQUEDA +
+            "AND (p.apellido > ? OR (p.apellido = ? AND (p.nombre > ? OR (p.nombre = ? AND p.id > ?)))) " +
+            ORDEN_BUSQUEDA;
+
+    private static final String SELECT_POR_ID =
+            SELECT_CON_HC + "WHERE p.id = ? AND p.eliminado = 0";
+
+    private static final String SELECT_POR_DNI =
+            SELECT_CON_HC + "WHERE p.dni = ? AND p.eliminado = 0";
+
+    private static final String SELECT_ACTIVOS =
+            SELECT_CON_HC + "WHERE p.eliminado = 0";
+
+    private static final String SELECT_ACTIVOS_SIN_HC =
+            "SELECT " + PacienteMapper.COLUMNAS + " FROM paciente p WHERE p.eliminado = 0";
+
+    private static final String SELECT_PAGINA =
+            SELECT_CON_HC + "WHERE p.eliminado = 0 AND p.id > ? ORDER BY p.id LIMIT ?";
+
+    private static final String DELETE =
+            "UPDATE paciente SET eliminado=?, version=version+1, eliminado_en=COALESCE(eliminado_en, CURRENT_TIMESTAMP) WHERE id=?";
+
+    /**
+     * Baja lógica en cascada de un bloque de pacientes y sus historias con un único {@code UPDATE}
+     * multi-tabla (sintaxis de MySQL). El {@code LEFT JOIN} incluye a los pacientes sin historia activa.
+     */
+    private static final String[] DELETE_POR_IDS = SqlInList.sentencias(
+            "UPDATE paciente p " +
+            "LEFT JOIN historia_clinica hc ON hc.paciente_id = p.id AND hc.eliminado = 0 " +
+            "SET p.eliminado = 1, p.version = p.version + 1, p.eliminado_en = CURRENT_TIMESTAMP, " +
+            "hc.eliminado = 1, hc.version = hc.version + 1, hc.eliminado_en = CURRENT_TIMESTAMP " +
+            "WHERE p.eliminado = 0 AND p.id IN (", ")");
+
+    private static final String[] SQL_POR_IDS =
+            SqlInList.sentencias(SELECT_CON_HC + "WHERE p.eliminado = 0 AND p.id IN (", ")");
+
+    private static final String[] SQL_POR_DNIS =
+            SqlInList.sentencias(SELECT_CON_HC + "WHERE p.eliminado = 0 AND p.dni IN (", ")");
+
     private final Connection conn;
 
     /**
@@ -32,11 +116,32 @@ public class PacienteDaoImpl implements PacienteDao {
         this.conn = conn;
     }
 
+    /**
+     * Escapa los comodines de {@code LIKE} ({@code %} y {@code _}) y el carácter de escape {@code !},
+     * y agrega el comodín final para buscar por prefijo.
+     *
+     * @param prefijo Texto ingresado por el usuario.
+     * @return El patrón para {@code LIKE ? ESCAPE '!'}.
+     */
+    private static String patronPrefijo(String prefijo) {
+        StringBuilder sb = new StringBuilder(prefijo.length() + 2);
+        for (int i = 0; i < prefijo.length(); i++) {
+            char c = prefijo.charAt(i);
+            if (c == '!' || c == '%' || c == '_') {
+                sb.append('!');
+            }
+            sb.append(c);
+        }
+        return sb.append('%').toString();
+    }
+
     /**
      * Mapea una fila del {@link ResultSet} a un objeto {@link Paciente}.
      * <p>
-     * Este método es capaz de detectar si el ResultSet incluye columnas de {@link HistoriaClinica}
-     * (gracias al JOIN) y poblar el objeto anidado si existe.
+     * Las columnas se leen por posición, según el orden fijo de {@link #COLUMNAS}: primero las del paciente
+     * ({@link PacienteMapper}) y a continuación las de la historia clínica del {@code LEFT JOIN}
+     * ({@link HistoriaClinicaMapper}). Si el paciente no tiene historia activa, esas columnas llegan
+     * en NULL y no se crea el objeto anidado.
      * </p>
      *
      * @param rs El conjunto de resultados posicionado en la fila actual.
@@ -44,30 +149,29 @@ public class PacienteDaoImpl implements PacienteDao {
      * @throws SQLException Si ocurre un error al leer las columnas.
      */
     private Paciente map(ResultSet rs) throws SQLException {
-        Paciente p = new Paciente();
-        p.setId(rs.getLong("id"));
-        p.setEliminado(rs.getBoolean("eliminado"));
-        p.setDni(rs.getString("dni"));
-        p.setNombre(rs.getString("nombre"));
-        p.setApellido(rs.getString("apellido"));
-        java.sql.Date f = rs.getDate("fecha_nacimiento");
-        p.setFechaNacimiento(f != null ? f.toLocalDate() : null);
-
-        long hcId = rs.getLong("hc_id");
-
-        if (hcId > 0){
-            HistoriaClinica h = new HistoriaClinica();
-            h.setId(hcId);
-            h.setEliminado(rs.getBoolean("hc_eliminado"));
-            h.setNroHistoria(rs.getString("nro_historia"));
-            String gs = rs.getString("grupo_sanguineo");
-            h.setGrupoSanguineo(HistoriaClinica.GrupoSanguineo.fromDb(gs));
-            h.setAntecedentes(rs.getString("antecedentes"));
-            h.setMedicacionActual(rs.getString("medicacion_actual"));
-            h.setObservaciones(rs.getString("observaciones"));
-            java.sql.Date fa = rs.getDate("hc_fecha_apertura");
-            h.setFechaApertura(fa != null ? fa.toLocalDate() : null);
+        Paciente p = PacienteMapper.map(rs, 1);
+
+        if (rs.getLong(BASE_HC) > 0){
+            p.setHistoriaClinica(HistoriaClinicaMapper.map(rs, BASE_HC));
+        }
+
+        return p;
+    }
+
+    /**
+     * Mapea una fila de la proyección resumida ({@link PacienteMapper#COLUMNAS} seguidas de
+     * {@link HistoriaClinicaMapper#COLUMNAS_RESUMEN}). La historia clínica queda marcada como resumen.
+     *
+     * @param rs El conjunto de resultados posicionado en la fila actual.
+     * @return El paciente con su historia clínica resumida.
+     * @throws SQLException Si ocurre un error al leer las columnas.
+     */
+    private Paciente mapResumen(ResultSet rs) throws SQLException {
+        Paciente p = PacienteMapper.map(rs, 1);
 
+        if (rs.getLong(BASE_HC) > 0){
+            HistoriaClinica h = HistoriaClinicaMapper.mapResumen(rs, BASE_HC);
+            h.marcarResumen(null);
             p.setHistoriaClinica(h);
         }
 
@@ -84,17 +188,8 @@ public class PacienteDaoImpl implements PacienteDao {
      */
     @Override
     public Paciente create(Paciente p) throws SQLException {
-        String sql = "INSERT INTO paciente (eliminado, dni, nombre, apellido, fecha_nacimiento) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)){
-            ps.setBoolean(1, p.isEliminado());
-            ps.setString(2, p.getDni());
-            ps.setString(3, p.getNombre());
-            ps.setString(4, p.getApellido());
-            if (p.getFechaNacimiento() != null){
-                ps.setDate(5, java.sql.Date.valueOf(p.getFechaNacimiento()));
-            } else {
-                ps.setNull(5, Types.DATE);
-            }
+        try (PreparedStatement ps = conn.prepareStatement(PacienteMapper.INSERT, Statement.RETURN_GENERATED_KEYS)){
+            PacienteMapper.bindInsert(ps, p);
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()){
                 if (rs.next()){
@@ -102,9 +197,45 @@ public class PacienteDaoImpl implements PacienteDao {
                 }
             }
         }
+        PacienteMapper.marcarSinCambios(p, PacienteMapper.ACTUALIZABLES);
         return p;
     }
 
+    /**
+     * Inserta un conjunto de pacientes con {@code addBatch}/{@code executeBatch}.
+     * <p>
+     * Con la propiedad {@code rewriteBatchedStatements} activada, el driver reescribe el lote
+     * como un único {@code INSERT} multi-fila. Los IDs generados se devuelven en el orden de inserción.
+     * </p>
+     *
+     * @param pacientes Los pacientes a persistir.
+     * @return La misma lista, con los IDs asignados.
+     * @throws SQLException Si ocurre un error durante la inserción.
+     */
+    @Override
+    public List<Paciente> createAll(List<Paciente> pacientes) throws SQLException {
+        if (pacientes.isEmpty()) {
+            return pacientes;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(PacienteMapper.INSERT, Statement.RETURN_GENERATED_KEYS)){
+            for (Paciente p : pacientes) {
+                PacienteMapper.bindInsert(ps, p);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet rs = ps.getGeneratedKeys()){
+                for (Paciente p : pacientes) {
+                    if (!rs.next()) {
+                        throw new SQLException("El driver no devolvió todos los IDs generados del lote.");
+                    }
+                    p.setId(rs.getLong(1));
+                    PacienteMapper.marcarSinCambios(p, PacienteMapper.ACTUALIZABLES);
+                }
+            }
+        }
+        return pacientes;
+    }
+
     /**
      * Busca un paciente por su ID primario.
      * Realiza un {@code LEFT JOIN} para traer también su historia clínica si existe y está activa.
@@ -115,16 +246,7 @@ public class PacienteDaoImpl implements PacienteDao {
      */
     @Override
     public Optional<Paciente> findById(Long id) throws SQLException {
-        String sql = "SELECT p.*, " +
-                "hc.id AS hc_id, hc.eliminado AS hc_eliminado, hc.nro_historia, " +
-                "hc.grupo_sanguineo, hc.antecedentes, hc.medicacion_actual, " +
-                "hc.observaciones, " +
-                "hc.fecha_apertura AS hc_fecha_apertura " +
-                "FROM paciente p " +
-                "LEFT JOIN historia_clinica hc ON p.id = hc.paciente_id AND hc.eliminado = 0 " +
-                "WHERE p.id = ? AND p.eliminado = 0";
-
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_POR_ID)){
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()){
                 if (rs.next()){
@@ -144,18 +266,9 @@ public class PacienteDaoImpl implements PacienteDao {
      */
     @Override
     public List<Paciente> getAll() throws SQLException {
-        String sql = "SELECT p.*, " +
-                "hc.id AS hc_id, hc.eliminado AS hc_eliminado, hc.nro_historia, " +
-                "hc.grupo_sanguineo, hc.antecedentes, hc.medicacion_actual, " +
-                "hc.observaciones, " +
-                "hc.fecha_apertura AS hc_fecha_apertura " +
-                "FROM paciente p " +
-                "LEFT JOIN historia_clinica hc ON p.id = hc.paciente_id AND hc.eliminado = 0 " +
-                "WHERE p.eliminado = 0";
-
         List<Paciente> pacientesEncontrados = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(sql);
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ACTIVOS);
              ResultSet rs = ps.executeQuery()){
             while (rs.next()){
                 Paciente p = map(rs);
@@ -165,29 +278,202 @@ public class PacienteDaoImpl implements PacienteDao {
         return pacientesEncontrados;
     }
 
+    /**
+     * Recorre todos los pacientes activos (con su historia clínica) en modo streaming.
+     * <p>
+     * El {@code fetchSize} de {@link Integer#MIN_VALUE} sobre un ResultSet
+     * {@code TYPE_FORWARD_ONLY}/{@code CONCUR_READ_ONLY} le indica al driver de MySQL que
+     * entregue las filas de a una, en lugar de materializar el resultado completo en memoria.
+     * </p>
+     *
+     * @param consumidor Acción a ejecutar por cada paciente leído.
+     * @throws SQLException Si ocurre un error en la consulta.
+     */
+    @Override
+    public void streamAll(Consumer<? super Paciente> consumidor) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ACTIVOS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(map(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recorre todos los pacientes activos en modo streaming, sin su historia clínica
+     * (no se hace el {@code LEFT JOIN} ni se leen las columnas {@code TEXT}).
+     *
+     * @param consumidor Acción a ejecutar por cada paciente leído.
+     * @throws SQLException Si ocurre un error en la consulta.
+     */
+    @Override
+    public void streamWithoutHistory(Consumer<? super Paciente> consumidor) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ACTIVOS_SIN_HC, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(PacienteMapper.map(rs, 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recupera una página de pacientes activos ordenados por ID (paginación por clave).
+     * Se solicita una fila extra para saber si existe una página siguiente sin contar el total.
+     *
+     * @param token   Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio Cantidad máxima de pacientes por página.
+     * @return La página de pacientes, con sus historias clínicas.
+     * @throws SQLException Si ocurre un error en la consulta.
+     */
+    @Override
+    public Page<Paciente> getPage(String token, int tamanio) throws SQLException {
+        long desde = TokenContinuacion.leerId(token);
+        return leerPagina(SELECT_PAGINA, tamanio, false, ps -> {
+            ps.setLong(1, desde);
+            return 2;
+        }, p -> TokenContinuacion.porId(p.getId()));
+    }
+
+    /**
+     * Recupera una página de pacientes activos con la proyección resumida de su historia clínica:
+     * se omiten las columnas {@code TEXT} (antecedentes, medicación y observaciones), que quedan
+     * marcadas para carga perezosa (ver {@link HistoriaClinica#marcarResumen}).
+     *
+     * @param token   Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio Cantidad máxima de pacientes por página.
+     * @return La página de pacientes, con sus historias clínicas resumidas.
+     * @throws SQLException Si ocurre un error en la consulta.
+     */
+    @Override
+    public Page<Paciente> getSummaryPage(String token, int tamanio) throws SQLException {
+        long desde = TokenContinuacion.leerId(token);
+        return leerPagina(SELECT_PAGINA_RESUMEN, tamanio, true, ps -> {
+            ps.setLong(1, desde);
+            return 2;
+        }, p -> TokenContinuacion.porId(p.getId()));
+    }
+
+    /**
+     * Busca pacientes activos cuyo apellido (y opcionalmente nombre) comienza con el texto indicado.
+     * <p>
+     * La comparación la resuelve la base con la intercalación de las columnas ({@code utf8mb4_unicode_ci}),
+     * por lo que no distingue mayúsculas ni acentos. Los comodines de {@code LIKE} del texto se escapan.
+     * El resultado se ordena por apellido, nombre e ID y se pagina por clave sobre esas tres columnas.
+     * </p>
+     *
+     * @param apellido Prefijo del apellido (obligatorio).
+     * @param nombre   Prefijo del nombre, o null/vacío para no filtrar por nombre.
+     * @param token    Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio  Cantidad máxima de pacientes por página.
+     * @return La página de pacientes, con sus historias clínicas resumidas.
+     * @throws SQLException Si ocurre un error en la consulta.
+     */
+    @Override
+    public Page<Paciente> searchByName(String apellido, String nombre, String token, int tamanio) throws SQLException {
+        if (apellido == null || apellido.isBlank()) {
+            throw new IllegalArgumentException("Debe indicar el comienzo del apellido a buscar.");
+        }
+        String patronApellido = patronPrefijo(apellido.trim());
+        String patronNombre = nombre == null || nombre.isBlank() ? null : patronPrefijo(nombre.trim());
+        String[] ultimo = token == null || token.isBlank() ? null : TokenContinuacion.leerNombre(token);
+
+        return leerPagina(ultimo == null ? SELECT_BUSQUEDA_PRIMERA : SELECT_BUSQUEDA_SIGUIENTE, tamanio, true, ps -> {
+            ps.setString(1, patronApellido);
+            ps.setString(2, patronNombre);
+            ps.setString(3, patronNombre);
+            if (ultimo == null) {
+                return 4;
+            }
+            ps.setString(4, ultimo[0]);
+            ps.setString(5, ultimo[0]);
+            ps.setString(6, ultimo[1]);
+            ps.setString(7, ultimo[1]);
+            ps.setLong(8, Long.parseLong(ultimo[2]));
+            return 9;
+        }, p -> TokenContinuacion.porNombre(p.getApellido(), p.getNombre(), p.getId()));
+    }
+
+    /**
+     * Asigna los parámetros de una consulta paginada previos al {@code LIMIT}.
+     */
+    @FunctionalInterface
+    private interface ParametrosPagina {
+        /**
+         * @return La posición del parámetro del {@code LIMIT}.
+         */
+        int asignar(PreparedStatement ps) throws SQLException;
+    }
+
+    /**
+     * Ejecuta una consulta paginada por clave terminada en {@code LIMIT ?}.
+     * Se solicita una fila extra para saber si existe una página siguiente sin contar el total.
+     */
+    private Page<Paciente> leerPagina(String sql, int tamanio, boolean resumen, ParametrosPagina parametros,
+                                      Function<Paciente, String> tokenDe) throws SQLException {
+        if (tamanio <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a cero.");
+        }
+
+        List<Paciente> pacientes = new ArrayList<>(tamanio + 1);
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(parametros.asignar(ps), tamanio + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    pacientes.add(resumen ? mapResumen(rs) : map(rs));
+                }
+            }
+        }
+
+        if (pacientes.size() > tamanio) {
+            pacientes.remove(tamanio);
+            return new Page<>(pacientes, tokenDe.apply(pacientes.get(tamanio - 1)));
+        }
+        return new Page<>(pacientes, null);
+    }
+
     /**
      * Actualiza los datos modificables de un paciente existente.
      * No afecta a la Historia Clínica asociada.
+     * <p>
+     * Solo se escriben las columnas cuyo valor difiere del leído de la base (ver {@code cambios} del
+     * mapper); si no cambió ninguna, no se ejecuta la sentencia. Cuando la transacción se confirma
+     * ({@link TransactionManager#alConfirmar}), las columnas escritas se registran como los nuevos
+     * valores leídos, de modo que una modificación posterior, incluso volver al valor anterior, se
+     * compara contra lo que quedó en la base. Si se revierte, los valores leídos no cambian.
+     * </p>
+     * <p>
+     * La sentencia exige la versión leída e incrementa la de la fila; la versión de la entidad se
+     * incrementa recién con el commit, junto con los valores leídos, para que tras un rollback siga
+     * coincidiendo con la de la fila. Por lo mismo, una segunda actualización de la misma instancia
+     * dentro de la misma transacción lanza {@link ConflictoVersionException}.
+     * </p>
      *
      * @param p El paciente con los datos actualizados.
      * @throws SQLException Si ocurre un error durante la actualización.
+     * @throws ConflictoVersionException Si la fila fue modificada o eliminada desde que se leyó.
      */
     @Override
     public void update(Paciente p) throws SQLException {
-        String sql = "UPDATE paciente SET eliminado=?, dni=?, nombre=?, apellido=?, fecha_nacimiento=? WHERE id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
-            ps.setBoolean(1, p.isEliminado());
-            ps.setString(2, p.getDni());
-            ps.setString(3, p.getNombre());
-            ps.setString(4, p.getApellido());
-            if (p.getFechaNacimiento() != null){
-                ps.setDate(5, java.sql.Date.valueOf(p.getFechaNacimiento()));
-            } else {
-                ps.setNull(5, Types.DATE);
+        long cambios = PacienteMapper.cambios(p);
+        if (cambios == 0) {
+            return;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(PacienteMapper.update(cambios))){
+            PacienteMapper.bindUpdate(ps, p, cambios);
+            if (ps.executeUpdate() == 0) {
+                throw new ConflictoVersionException(PacienteMapper.TABLA, p.getId(), p.getVersion());
             }
-            ps.setLong(6, p.getId());
-            ps.executeUpdate();
         }
+        long version = p.getVersion();
+        TransactionManager.alConfirmar(() -> {
+            PacienteMapper.marcarSinCambios(p, cambios);
+            p.setVersion(version + 1);
+        });
     }
 
     /**
@@ -199,14 +485,33 @@ public class PacienteDaoImpl implements PacienteDao {
      */
     @Override
     public void delete(Long id) throws SQLException {
-        String sql = "UPDATE paciente SET eliminado=? WHERE id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
+        try (PreparedStatement ps = conn.prepareStatement(DELETE)){
             ps.setBoolean(1, true);
             ps.setLong(2, id);
             ps.executeUpdate();
         }
     }
 
+    /**
+     * Realiza la baja lógica de varios pacientes y de sus historias clínicas.
+     * <p>
+     * Cada bloque de hasta {@value SqlInList#MAXIMO} IDs se procesa con una sola sentencia
+     * {@code UPDATE ... LEFT JOIN}, en lugar de una baja de historias y otra de pacientes por ID.
+     * Los pacientes ya eliminados o inexistentes se ignoran. La transacción la controla el llamador.
+     * </p>
+     *
+     * @param ids Los IDs de los pacientes (se ignoran nulos y repetidos).
+     * @throws SQLException Si ocurre un error durante la actualización.
+     */
+    @Override
+    public void deleteAll(Collection<Long> ids) throws SQLException {
+        List<Long> claves = SqlInList.distintas(ids);
+        if (claves.isEmpty()) {
+            return;
+        }
+        SqlInList.actualizar(conn, DELETE_POR_IDS, claves, PreparedStatement::setLong);
+    }
+
     /**
      * Busca un paciente por su número de documento (DNI).
      * Incluye carga ansiosa de la Historia Clínica.
@@ -217,16 +522,7 @@ public class PacienteDaoImpl implements PacienteDao {
      */
     @Override
     public Optional<Paciente> findByDni(String dni) throws SQLException {
-        String sql = "SELECT p.*, " +
-                "hc.id AS hc_id, hc.eliminado AS hc_eliminado, hc.nro_historia, " +
-                "hc.grupo_sanguineo, hc.antecedentes, hc.medicacion_actual, " +
-                "hc.observaciones, " +
-                "hc.fecha_apertura AS hc_fecha_apertura " +
-                "FROM paciente p " +
-                "LEFT JOIN historia_clinica hc ON p.id = hc.paciente_id AND hc.eliminado = 0 " +
-                "WHERE p.dni = ? AND p.eliminado = 0";
-
-        try (PreparedStatement ps = conn.prepareStatement(sql)){
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_POR_DNI)){
             ps.setString(1, dni);
             try (ResultSet rs = ps.executeQuery()){
                 if (rs.next()){
@@ -236,4 +532,42 @@ public class PacienteDaoImpl implements PacienteDao {
         }
         return Optional.empty();
     }
+
+    /**
+     * Busca varios pacientes por ID con listas {@code IN} de hasta {@value SqlInList#MAXIMO} elementos.
+     * Incluye carga ansiosa de la Historia Clínica.
+     *
+     * @param ids Los IDs a buscar.
+     * @return Mapa ID → paciente con los pacientes activos encontrados.
+     * @throws SQLException Si ocurre un error en la consulta.
+     */
+    @Override
+    public Map<Long, Paciente> findByIds(Collection<Long> ids) throws SQLException {
+        List<Long> claves = SqlInList.distintas(ids);
+        Map<Long, Paciente> encontrados = new HashMap<>(claves.size() * 2);
+        SqlInList.consultar(conn, SQL_POR_IDS, claves, PreparedStatement::setLong, rs -> {
+            Paciente p = map(rs);
+            encontrados.put(p.getId(), p);
+        });
+        return encontrados;
+    }
+
+    /**
+     * Busca varios pacientes por DNI con listas {@code IN} de hasta {@value SqlInList#MAXIMO} elementos.
+     * Incluye carga ansiosa de la Historia Clínica.
+     *
+     * @param dnis Los DNIs a buscar.
+     * @return Mapa DNI → paciente con los pacientes activos encontrados.
+     * @throws SQLException Si ocurre un error en la consulta.
+     */
+    @Override
+    public Map<String, Paciente> findByDnis(Collection<String> dnis) throws SQLException {
+        List<String> claves = SqlInList.distintas(dnis);
+        Map<String, Paciente> encontrados = new HashMap<>(claves.size() * 2);
+        SqlInList.consultar(conn, SQL_POR_DNIS, claves, PreparedStatement::setString, rs -> {
+            Paciente p = map(rs);
+            encontrados.put(p.getDni(), p);
+        });
+        return encontrados;
+    }
 }
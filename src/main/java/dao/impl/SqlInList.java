@@ -0,0 +1,187 @@
+package dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utilidad para consultas y modificaciones por lista de claves ({@code WHERE col IN (?, ?, ...)}).
+ * <p>
+ * Las claves se dividen en bloques de a lo sumo {@value #MAXIMO} elementos. Para no generar una
+ * sentencia distinta por cada cantidad de claves, cada bloque se rellena hasta el siguiente tamaño
+ * fijo ({@link #TAMANIOS}) repitiendo su última clave, que no altera el resultado de un {@code IN}.
+ * Así existen solo cuatro textos SQL por consulta, que se calculan una única vez, y dentro de una
+ * llamada se reutiliza la misma sentencia preparada para todos los bloques del mismo tamaño.
+ * </p>
+ */
+final class SqlInList {
+
+    /** Tamaños de bloque admitidos, de menor a mayor. */
+    static final int[] TAMANIOS = {1, 10, 100, 1000};
+
+    /** Cantidad máxima de claves por consulta. */
+    static final int MAXIMO = 1000;
+
+    /**
+     * Asigna una clave a un parámetro de la sentencia.
+     *
+     * @param <K> El tipo de la clave.
+     */
+    @FunctionalInterface
+    interface Asignador<K> {
+        void asignar(PreparedStatement ps, int indice, K clave) throws SQLException;
+    }
+
+    /**
+     * Procesa una fila del resultado.
+     */
+    @FunctionalInterface
+    interface LectorFila {
+        void leer(ResultSet rs) throws SQLException;
+    }
+
+    private SqlInList() {
+    }
+
+    /**
+     * Genera el texto SQL para cada tamaño de {@link #TAMANIOS}.
+     *
+     * @param antes   SQL previo a la lista (debe terminar en {@code "IN ("}).
+     * @param despues SQL posterior a la lista (debe comenzar con {@code ")"}).
+     * @return Un arreglo con una sentencia por tamaño, en el mismo orden que {@link #TAMANIOS}.
+     */
+    static String[] sentencias(String antes, String despues) {
+        String[] sql = new String[TAMANIOS.length];
+        for (int i = 0; i < TAMANIOS.length; i++) {
+            StringBuilder sb = new StringBuilder(antes.length() + despues.length() + TAMANIOS[i] * 3);
+            sb.append(antes);
+            for (int j = 0; j < TAMANIOS[i]; j++) {
+                sb.append(j == 0 ? "?" : ", ?");
+            }
+            sql[i] = sb.append(despues).toString();
+        }
+        return sql;
+    }
+
+    /**
+     * Descarta las claves nulas y repetidas, conservando el orden.
+     *
+     * @param claves Las claves recibidas.
+     * @param <K>    El tipo de la clave.
+     * @return Lista de claves distintas.
+     */
+    static <K> List<K> distintas(Collection<K> claves) {
+        LinkedHashSet<K> unicas = new LinkedHashSet<>(claves);
+        unicas.remove(null);
+        return List.copyOf(unicas);
+    }
+
+    /**
+     * Ejecuta la consulta por bloques y entrega cada fila leída al lector.
+     *
+     * @param conn       La conexión a utilizar.
+     * @param sentencias Textos SQL generados por {@link #sentencias}.
+     * @param claves     Claves a consultar (sin nulos ni repetidas).
+     * @param asignador  Asigna cada clave a su parámetro.
+     * @param lector     Procesa cada fila del resultado.
+     * @param <K>        El tipo de la clave.
+     * @throws SQLException Si ocurre un error en alguna de las consultas.
+     */
+    static <K> void consultar(Connection conn, String[] sentencias, List<K> claves,
+                              Asignador<? super K> asignador, LectorFila lector) throws SQLException {
+        Objects.requireNonNull(conn);
+        PreparedStatement[] preparadas = new PreparedStatement[TAMANIOS.length];
+        try {
+            for (int desde = 0; desde < claves.size(); desde += MAXIMO) {
+                int cantidad = Math.min(MAXIMO, claves.size() - desde);
+                int t = indiceTamanio(cantidad);
+                if (preparadas[t] == null) {
+                    preparadas[t] = conn.prepareStatement(sentencias[t]);
+                }
+                PreparedStatement ps = preparadas[t];
+                for (int i = 0; i < TAMANIOS[t]; i++) {
+                    K clave = claves.get(desde + Math.min(i, cantidad - 1));
+                    asignador.asignar(ps, i + 1, clave);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        lector.leer(rs);
+                    }
+                }
+            }
+        } finally {
+            cerrar(preparadas);
+        }
+    }
+
+    /**
+     * Ejecuta una sentencia de modificación por bloques, reutilizando la sentencia preparada
+     * de cada tamaño. Las claves de relleno repetidas no modifican filas adicionales.
+     *
+     * @param conn       La conexión a utilizar.
+     * @param sentencias Textos SQL generados por {@link #sentencias}.
+     * @param claves     Claves a modificar (sin nulos ni repetidas).
+     * @param asignador  Asigna cada clave a su parámetro.
+     * @param <K>        El tipo de la clave.
+     * @return La cantidad total de filas afectadas.
+     * @throws SQLException Si ocurre un error en alguna de las sentencias.
+     */
+    static <K> int actualizar(Connection conn, String[] sentencias, List<K> claves,
+                              Asignador<? super K> asignador) throws SQLException {
+        Objects.requireNonNull(conn);
+        PreparedStatement[] preparadas = new PreparedStatement[TAMANIOS.length];
+        int filas = 0;
+        try {
+            for (int desde = 0; desde < claves.size(); desde += MAXIMO) {
+                int cantidad = Math.min(MAXIMO, claves.size() - desde);
+                int t = indiceTamanio(cantidad);
+                if (preparadas[t] == null) {
+                    preparadas[t] = conn.prepareStatement(sentencias[t]);
+                }
+                PreparedStatement ps = preparadas[t];
+                for (int i = 0; i < TAMANIOS[t]; i++) {
+                    asignador.asignar(ps, i + 1, claves.get(desde + Math.min(i, cantidad - 1)));
+                }
+                filas += ps.executeUpdate();
+            }
+        } finally {
+            cerrar(preparadas);
+        }
+        return filas;
+    }
+
+    private static int indiceTamanio(int cantidad) {
+        for (int i = 0; i < TAMANIOS.length; i++) {
+            if (cantidad <= TAMANIOS[i]) {
+                return i;
+            }
+        }
+        return TAMANIOS.length - 1;
+    }
+
+    private static void cerrar(PreparedStatement[] preparadas) throws SQLException {
+        SQLException error = null;
+        for (PreparedStatement ps : preparadas) {
+            if (ps == null) {
+                continue;
+            }
+            try {
+                ps.close();
+            } catch (SQLException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
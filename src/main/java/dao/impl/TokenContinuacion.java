@@ -0,0 +1,82 @@
+package dao.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Formato de los tokens de continuación de la paginación por clave ({@link dao.Page}).
+ * <p>
+ * Cada tipo de token se genera e interpreta en un único lugar, para que los DAO no puedan
+ * divergir en su formato ni en su validación.
+ * </p>
+ */
+final class TokenContinuacion {
+
+    /** Separador de los campos del token de la búsqueda por nombre (no puede aparecer en un nombre). */
+    private static final char SEPARADOR = '\0';
+
+    private TokenContinuacion() {
+    }
+
+    /**
+     * Genera el token de la paginación por ID.
+     *
+     * @param ultimoId ID de la última fila entregada.
+     * @return El token.
+     */
+    static String porId(long ultimoId) {
+        return String.valueOf(ultimoId);
+    }
+
+    /**
+     * Interpreta el token de la paginación por ID.
+     *
+     * @param token Token recibido (null o vacío para la primera página).
+     * @return El último ID entregado en la página anterior, o 0 para comenzar desde el principio.
+     * @throws IllegalArgumentException Si el token no es válido.
+     */
+    static long leerId(String token) {
+        if (token == null || token.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Token de continuación inválido: " + token);
+        }
+    }
+
+    /**
+     * Genera el token de la búsqueda por nombre a partir de la última fila entregada.
+     *
+     * @param apellido Apellido de la última fila.
+     * @param nombre   Nombre de la última fila.
+     * @param id       ID de la última fila.
+     * @return El token.
+     */
+    static String porNombre(String apellido, String nombre, long id) {
+        String valor = apellido + SEPARADOR + nombre + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Interpreta el token de la búsqueda por nombre.
+     *
+     * @param token Token generado por {@link #porNombre}.
+     * @return Apellido, nombre e ID de la última fila entregada.
+     * @throws IllegalArgumentException Si el token no es válido.
+     */
+    static String[] leerNombre(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split(String.valueOf(SEPARADOR), -1);
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("Token de continuación inválido: " + token);
+            }
+            Long.parseLong(partes[2]);
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token de continuación inválido: " + token);
+        }
+    }
+}
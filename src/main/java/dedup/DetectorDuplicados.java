@@ -0,0 +1,483 @@
+package dedup;
+
+import io.Csv;
+import model.Paciente;
+import service.PacienteService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detector de pacientes posiblemente duplicados (misma persona registrada con un DNI distinto
+ * o con el nombre mal escrito).
+ * <p>
+ * En lugar de comparar todos contra todos, cada paciente se asigna a dos <b>bloques</b>: el del
+ * código fonético de su apellido ({@link Similitud#codigoFonetico}) y el de su fecha de nacimiento.
+ * Solo se comparan pacientes de un mismo bloque. El proceso tiene tres etapas:
+ * <ol>
+ * <li><b>Particionado:</b> los pacientes se recorren una única vez con
+ * {@link PacienteService#streamWithoutHistory} y cada entrada (bloque, paciente) se escribe en uno de
+ * {@link Configuracion#particiones()} archivos temporales según el hash de su bloque. Todo bloque
+ * queda completo dentro de una partición.</li>
+ * <li><b>Comparación:</b> las particiones se cargan de a una; sus bloques se comparan en paralelo con
+ * fork/join. Los bloques de hasta {@link Configuracion#limiteExhaustivo()} pacientes se comparan par a
+ * par; los mayores se ordenan y se compara cada paciente con los {@link Configuracion#ventana()}
+ * siguientes (vecindario ordenado), para no volver a un costo cuadrático.</li>
+ * <li><b>Salida:</b> los pares con puntaje mayor o igual a {@link Configuracion#umbral()} se escriben
+ * en un CSV. Un par que aparece en ambos bloques se informa una sola vez.</li>
+ * </ol>
+ * La memoria utilizada depende del tamaño de la partición más grande y de la cantidad de pares
+ * encontrados, no del total de pacientes.
+ * </p>
+ */
+public class DetectorDuplicados {
+
+    private static final String[] COLUMNAS = {"id_a", "id_b", "puntaje", "dni_a", "dni_b", "paciente_a", "paciente_b"};
+
+    private static final double PESO_APELLIDO = 0.30;
+    private static final double PESO_NOMBRE = 0.25;
+    private static final double PESO_DNI = 0.30;
+    private static final double PESO_FECHA = 0.15;
+
+    /** Comparaciones a partir de las cuales una tarea de fork/join se divide en dos. */
+    private static final long COMPARACIONES_POR_TAREA = 20_000;
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private static final byte BLOQUE_APELLIDO = 0;
+    private static final byte BLOQUE_FECHA = 1;
+
+    /**
+     * Parámetros del proceso.
+     *
+     * @param particiones      Cantidad de archivos temporales en que se reparten los bloques.
+     * @param limiteExhaustivo Tamaño máximo de bloque que se compara par a par.
+     * @param ventana          Cantidad de vecinos con que se compara cada paciente en los bloques mayores.
+     * @param umbral           Puntaje mínimo (entre 0 y 1) para informar un par.
+     * @param paralelismo      Cantidad de hilos del pool de fork/join.
+     */
+    public record Configuracion(int particiones, int limiteExhaustivo, int ventana, double umbral, int paralelismo) {
+
+        public Configuracion {
+            if (particiones <= 0 || limiteExhaustivo <= 1 || ventana <= 0 || paralelismo <= 0) {
+                throw new IllegalArgumentException("Las particiones, el límite, la ventana y el paralelismo deben ser positivos.");
+            }
+            if (umbral < 0 || umbral > 1) {
+                throw new IllegalArgumentException("El umbral debe estar entre 0 y 1.");
+            }
+        }
+
+        /**
+         * @return La configuración por defecto: 64 particiones, bloques exhaustivos de hasta 2000
+         * pacientes, ventana de 50, umbral 0,85 y un hilo por procesador.
+         */
+        public static Configuracion porDefecto() {
+            return new Configuracion(64, 2000, 50, 0.85, Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Resumen de una ejecución.
+     *
+     * @param pacientes     Cantidad de pacientes analizados.
+     * @param comparaciones Cantidad de pares comparados.
+     * @param pares         Cantidad de pares candidatos informados.
+     * @param duracionNanos Tiempo total, en nanosegundos.
+     */
+    public record Resultado(long pacientes, long comparaciones, long pares, long duracionNanos) {
+    }
+
+    /**
+     * Datos de un paciente necesarios para compararlo, ya normalizados.
+     */
+    private record Registro(long id, String dni, String apellido, String nombre, LocalDate fecha,
+                            String apellidoNormalizado, String nombreNormalizado, String codigo) {
+
+        static Registro de(long id, String dni, String apellido, String nombre, LocalDate fecha) {
+            return new Registro(id, dni, apellido, nombre, fecha,
+                    Similitud.normalizar(apellido), Similitud.normalizar(nombre), Similitud.codigoFonetico(apellido));
+        }
+
+        String nombreCompleto() {
+            return apellido + ", " + nombre;
+        }
+    }
+
+    /**
+     * Un bloque a comparar. En los bloques exhaustivos el alcance es el tamaño del bloque;
+     * en los demás, la ventana del vecindario ordenado.
+     */
+    private record Bloque(List<Registro> miembros, byte tipo, int alcance) {
+    }
+
+    /** IDs de un par ya informado. */
+    private record ClavePar(long idA, long idB) {
+    }
+
+    private final PacienteService pacienteService;
+    private final Configuracion config;
+
+    /**
+     * Crea un detector.
+     *
+     * @param pacienteService Servicio utilizado para recorrer los pacientes.
+     * @param config          Parámetros del proceso.
+     */
+    public DetectorDuplicados(PacienteService pacienteService, Configuracion config) {
+        this.pacienteService = pacienteService;
+        this.config = config;
+    }
+
+    /**
+     * Ejecuta la detección y escribe los pares candidatos en un CSV (lo sobrescribe si existe).
+     *
+     * @param destino Ruta del archivo de salida.
+     * @return El resumen de la ejecución.
+     * @throws IOException  Si falla la escritura de los archivos temporales o de la salida.
+     * @throws SQLException Si falla la lectura de los pacientes.
+     */
+    public Resultado detectar(Path destino) throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        Path directorio = Files.createTempDirectory("vitalis-dedup");
+        try {
+            Map<String, Integer> tamaniosApellido = new HashMap<>();
+            long pacientes = particionar(directorio, tamaniosApellido);
+
+            LongAdder comparaciones = new LongAdder();
+            Set<ClavePar> informados = new HashSet<>();
+            long pares = 0;
+            ForkJoinPool pool = new ForkJoinPool(config.paralelismo());
+            try (Writer w = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+                w.write(Csv.linea(COLUMNAS));
+                w.write('\n');
+                for (int i = 0; i < config.particiones(); i++) {
+                    List<Bloque> bloques = cargarBloques(archivo(directorio, i));
+                    List<ParCandidato> encontrados = pool.invoke(
+                            new TareaParticion(bloques, tamaniosApellido, comparaciones));
+                    encontrados.sort(Comparator.comparingDouble(ParCandidato::puntaje).reversed());
+                    for (ParCandidato par : encontrados) {
+                        // Un mismo par puede salir del bloque de apellido y del de fecha.
+                        if (informados.add(new ClavePar(par.idA(), par.idB()))) {
+                            escribir(w, par);
+                            pares++;
+                        }
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+            return new Resultado(pacientes, comparaciones.sum(), pares, System.nanoTime() - inicio);
+        } finally {
+            borrar(directorio);
+        }
+    }
+
+    /**
+     * Recorre los pacientes y escribe cada entrada (bloque, paciente) en el archivo de su partición.
+     * Además cuenta el tamaño de cada bloque de apellido.
+     *
+     * @return La cantidad de pacientes leídos.
+     */
+    private long particionar(Path directorio, Map<String, Integer> tamaniosApellido) throws IOException, SQLException {
+        int n = config.particiones();
+        int bufferPorArchivo = Math.max(4096, TAMANIO_BUFFER * 16 / n);
+        DataOutputStream[] salidas = new DataOutputStream[n];
+        long[] pacientes = {0};
+        try {
+            for (int i = 0; i < n; i++) {
+                salidas[i] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(archivo(directorio, i)), bufferPorArchivo));
+            }
+            pacienteService.streamWithoutHistory(p -> {
+                try {
+                    String codigo = Similitud.codigoFonetico(p.getApellido());
+                    tamaniosApellido.merge(codigo, 1, Integer::sum);
+                    escribirEntrada(salidas[particion(codigo.hashCode())], BLOQUE_APELLIDO, p);
+                    if (p.getFechaNacimiento() != null) {
+                        escribirEntrada(salidas[particion(p.getFechaNacimiento().hashCode())], BLOQUE_FECHA, p);
+                    }
+                    pacientes[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            cerrar(salidas);
+        }
+        return pacientes[0];
+    }
+
+    private int particion(int hash) {
+        return Math.floorMod(hash, config.particiones());
+    }
+
+    private static void escribirEntrada(DataOutputStream out, byte tipo, Paciente p) throws IOException {
+        out.writeByte(tipo);
+        out.writeLong(p.getId());
+        out.writeUTF(p.getDni() != null ? p.getDni() : "");
+        out.writeUTF(p.getApellido() != null ? p.getApellido() : "");
+        out.writeUTF(p.getNombre() != null ? p.getNombre() : "");
+        out.writeLong(p.getFechaNacimiento() != null ? p.getFechaNacimiento().toEpochDay() : Long.MIN_VALUE);
+    }
+
+    /**
+     * Lee una partición y agrupa sus entradas en bloques. Los bloques de un solo paciente se descartan
+     * y los que superan el límite se ordenan para el vecindario ordenado.
+     */
+    private List<Bloque> cargarBloques(Path archivo) throws IOException {
+        Map<String, List<Registro>> porApellido = new HashMap<>();
+        Map<LocalDate, List<Registro>> porFecha = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo), TAMANIO_BUFFER))) {
+            while (true) {
+                byte tipo;
+                try {
+                    tipo = in.readByte();
+                } catch (EOFException fin) {
+                    break;
+                }
+                long id = in.readLong();
+                String dni = in.readUTF();
+                String apellido = in.readUTF();
+                String nombre = in.readUTF();
+                long dia = in.readLong();
+                Registro r = Registro.de(id, dni, apellido, nombre, dia == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dia));
+                if (tipo == BLOQUE_APELLIDO) {
+                    porApellido.computeIfAbsent(r.codigo(), k -> new ArrayList<>()).add(r);
+                } else {
+                    porFecha.computeIfAbsent(r.fecha(), k -> new ArrayList<>()).add(r);
+                }
+            }
+        }
+
+        List<Bloque> bloques = new ArrayList<>();
+        for (List<Registro> miembros : porApellido.values()) {
+            agregarBloque(bloques, miembros, BLOQUE_APELLIDO,
+                    Comparator.comparing(Registro::nombreNormalizado).thenComparing(Registro::dni));
+        }
+        for (List<Registro> miembros : porFecha.values()) {
+            agregarBloque(bloques, miembros, BLOQUE_FECHA,
+                    Comparator.comparing(Registro::apellidoNormalizado).thenComparing(Registro::nombreNormalizado));
+        }
+        return bloques;
+    }
+
+    private void agregarBloque(List<Bloque> bloques, List<Registro> miembros, byte tipo, Comparator<Registro> orden) {
+        if (miembros.size() < 2) {
+            return;
+        }
+        if (miembros.size() <= config.limiteExhaustivo()) {
+            bloques.add(new Bloque(miembros, tipo, miembros.size()));
+        } else {
+            miembros.sort(orden);
+            bloques.add(new Bloque(miembros, tipo, config.ventana()));
+        }
+    }
+
+    /**
+     * Compara todos los bloques de una partición, cada uno en su propia tarea.
+     */
+    private final class TareaParticion extends RecursiveTask<List<ParCandidato>> {
+
+        private final List<Bloque> bloques;
+        private final Map<String, Integer> tamaniosApellido;
+        private final LongAdder comparaciones;
+
+        TareaParticion(List<Bloque> bloques, Map<String, Integer> tamaniosApellido, LongAdder comparaciones) {
+            this.bloques = bloques;
+            this.tamaniosApellido = tamaniosApellido;
+            this.comparaciones = comparaciones;
+        }
+
+        @Override
+        protected List<ParCandidato> compute() {
+            List<TareaBloque> tareas = new ArrayList<>(bloques.size());
+            for (Bloque b : bloques) {
+                tareas.add(new TareaBloque(b, 0, b.miembros().size(), tamaniosApellido, comparaciones));
+            }
+            ForkJoinTask.invokeAll(tareas);
+            List<ParCandidato> pares = new ArrayList<>();
+            for (TareaBloque t : tareas) {
+                pares.addAll(t.join());
+            }
+            return pares;
+        }
+    }
+
+    /**
+     * Compara los miembros {@code [desde, hasta)} de un bloque con los siguientes dentro de su alcance.
+     * Si la cantidad de comparaciones es grande, divide el rango en dos subtareas.
+     */
+    private final class TareaBloque extends RecursiveTask<List<ParCandidato>> {
+
+        private final Bloque bloque;
+        private final int desde;
+        private final int hasta;
+        private final Map<String, Integer> tamaniosApellido;
+        private final LongAdder comparaciones;
+
+        TareaBloque(Bloque bloque, int desde, int hasta, Map<String, Integer> tamaniosApellido, LongAdder comparaciones) {
+            this.bloque = bloque;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tamaniosApellido = tamaniosApellido;
+            this.comparaciones = comparaciones;
+        }
+
+        @Override
+        protected List<ParCandidato> compute() {
+            if (hasta - desde > 1 && (long) (hasta - desde) * bloque.alcance() > COMPARACIONES_POR_TAREA) {
+                int medio = (desde + hasta) >>> 1;
+                TareaBloque izquierda = new TareaBloque(bloque, desde, medio, tamaniosApellido, comparaciones);
+                izquierda.fork();
+                List<ParCandidato> pares = new TareaBloque(bloque, medio, hasta, tamaniosApellido, comparaciones).compute();
+                pares.addAll(izquierda.join());
+                return pares;
+            }
+
+            List<Registro> miembros = bloque.miembros();
+            List<ParCandidato> pares = new ArrayList<>();
+            long hechas = 0;
+            for (int i = desde; i < hasta; i++) {
+                Registro a = miembros.get(i);
+                int limite = Math.min(miembros.size(), i + 1 + bloque.alcance());
+                for (int j = i + 1; j < limite; j++) {
+                    Registro b = miembros.get(j);
+                    if (yaComparado(a, b)) {
+                        continue;
+                    }
+                    hechas++;
+                    ParCandidato par = comparar(a, b);
+                    if (par != null) {
+                        pares.add(par);
+                    }
+                }
+            }
+            comparaciones.add(hechas);
+            return pares;
+        }
+
+        /**
+         * En un bloque de fecha, los pacientes con el mismo código fonético ya se compararon par a par
+         * en su bloque de apellido si este no superaba el límite.
+         */
+        private boolean yaComparado(Registro a, Registro b) {
+            return bloque.tipo() == BLOQUE_FECHA
+                    && a.codigo().equals(b.codigo())
+                    && tamaniosApellido.getOrDefault(a.codigo(), 0) <= config.limiteExhaustivo();
+        }
+    }
+
+    /**
+     * Calcula el puntaje de un par. Primero evalúa DNI y fecha; si ni con apellido y nombre idénticos
+     * se alcanzaría el umbral, descarta el par sin calcular Jaro-Winkler.
+     *
+     * @return El par candidato, o null si no alcanza el umbral.
+     */
+    private ParCandidato comparar(Registro a, Registro b) {
+        double parcial = PESO_DNI * Similitud.similitudDni(a.dni(), b.dni()) + PESO_FECHA * similitudFecha(a.fecha(), b.fecha());
+        if (parcial + PESO_APELLIDO + PESO_NOMBRE < config.umbral()) {
+            return null;
+        }
+        double puntaje = parcial
+                + PESO_APELLIDO * Similitud.jaroWinkler(a.apellidoNormalizado(), b.apellidoNormalizado())
+                + PESO_NOMBRE * Similitud.jaroWinkler(a.nombreNormalizado(), b.nombreNormalizado());
+        if (puntaje < config.umbral()) {
+            return null;
+        }
+        Registro menor = a.id() < b.id() ? a : b;
+        Registro mayor = menor == a ? b : a;
+        return new ParCandidato(menor.id(), mayor.id(), puntaje,
+                menor.dni(), mayor.dni(), menor.nombreCompleto(), mayor.nombreCompleto());
+    }
+
+    /**
+     * 1 si las fechas coinciden; 0,5 si falta alguna, si solo difiere el día, el mes o el año,
+     * o si día y mes están invertidos; 0 en otro caso.
+     */
+    private static double similitudFecha(LocalDate a, LocalDate b) {
+        if (a == null || b == null) {
+            return 0.5;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        int iguales = (a.getYear() == b.getYear() ? 1 : 0)
+                + (a.getMonthValue() == b.getMonthValue() ? 1 : 0)
+                + (a.getDayOfMonth() == b.getDayOfMonth() ? 1 : 0);
+        boolean invertidos = a.getYear() == b.getYear()
+                && a.getMonthValue() == b.getDayOfMonth() && a.getDayOfMonth() == b.getMonthValue();
+        return iguales == 2 || invertidos ? 0.5 : 0;
+    }
+
+    private static void escribir(Writer w, ParCandidato par) throws IOException {
+        w.write(Csv.linea(
+                String.valueOf(par.idA()),
+                String.valueOf(par.idB()),
+                String.format(Locale.ROOT, "%.3f", par.puntaje()),
+                par.dniA(),
+                par.dniB(),
+                par.nombreA(),
+                par.nombreB()
+        ));
+        w.write('\n');
+    }
+
+    private static Path archivo(Path directorio, int particion) {
+        return directorio.resolve("particion-" + particion + ".bin");
+    }
+
+    private static void cerrar(DataOutputStream[] salidas) throws IOException {
+        IOException error = null;
+        for (DataOutputStream out : salidas) {
+            if (out == null) {
+                continue;
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (var archivos = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) archivos::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+        Files.deleteIfExists(directorio);
+    }
+}
@@ -0,0 +1,16 @@
+package dedup;
+
+/**
+ * Par de pacientes que podrían ser la misma persona, con su puntaje de similitud.
+ *
+ * @param idA       ID del primer paciente (el menor de los dos).
+ * @param idB       ID del segundo paciente.
+ * @param puntaje   Similitud ponderada, entre 0 y 1.
+ * @param dniA      DNI del primer paciente.
+ * @param dniB      DNI del segundo paciente.
+ * @param nombreA   Apellido y nombre del primer paciente.
+ * @param nombreB   Apellido y nombre del segundo paciente.
+ */
+public record ParCandidato(long idA, long idB, double puntaje,
+                           String dniA, String dniB, String nombreA, String nombreB) {
+}
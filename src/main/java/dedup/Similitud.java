@@ -0,0 +1,201 @@
+package dedup;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Funciones de normalización y similitud usadas por el {@link DetectorDuplicados}.
+ * <p>
+ * Todas las funciones son puras y sin estado, por lo que pueden usarse desde varios hilos.
+ * </p>
+ */
+public final class Similitud {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    /** Longitud máxima del código fonético. */
+    private static final int LONGITUD_CODIGO = 6;
+
+    private Similitud() {
+    }
+
+    /**
+     * Normaliza un nombre para compararlo: quita acentos, pasa a mayúsculas y conserva solo
+     * letras y espacios simples (la Ñ se conserva).
+     *
+     * @param texto Texto original (puede ser null).
+     * @return El texto normalizado, o una cadena vacía si era null.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String mayus = texto.toUpperCase().replace('Ñ', '\u0001');
+        String sinAcentos = DIACRITICOS.matcher(Normalizer.normalize(mayus, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder sb = new StringBuilder(sinAcentos.length());
+        boolean espacio = false;
+        for (int i = 0; i < sinAcentos.length(); i++) {
+            char c = sinAcentos.charAt(i);
+            if (c == '\u0001') {
+                c = 'Ñ';
+            }
+            if ((c >= 'A' && c <= 'Z') || c == 'Ñ') {
+                if (espacio && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                espacio = false;
+            } else {
+                espacio = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Calcula un código fonético para apellidos en castellano, de modo que variantes de escritura
+     * con igual pronunciación (Gonzalez/Gonsales, Vazquez/Basques, Yañez/Llanes) compartan código.
+     * <p>
+     * Sobre el texto normalizado: B/V, C(E,I)/S/Z, C/K/Q, G(E,I)/J, LL/Y y Ñ/N se unifican, la H
+     * se ignora, se eliminan las vocales salvo la inicial y se colapsan los sonidos repetidos.
+     * El resultado se trunca a {@value #LONGITUD_CODIGO} caracteres.
+     * </p>
+     *
+     * @param apellido Apellido original o normalizado.
+     * @return El código fonético (vacío si el apellido no tiene letras).
+     */
+    public static String codigoFonetico(String apellido) {
+        String s = normalizar(apellido).replace(" ", "");
+        StringBuilder sb = new StringBuilder(LONGITUD_CODIGO);
+        char anterior = 0;
+        for (int i = 0; i < s.length() && sb.length() < LONGITUD_CODIGO; i++) {
+            char c = s.charAt(i);
+            char siguiente = i + 1 < s.length() ? s.charAt(i + 1) : 0;
+            char codigo;
+            switch (c) {
+                case 'A', 'E', 'I', 'O', 'U' -> codigo = sb.isEmpty() ? 'A' : 0;
+                case 'H' -> codigo = 0;
+                case 'B', 'V', 'W' -> codigo = 'B';
+                case 'C' -> codigo = siguiente == 'E' || siguiente == 'I' ? 'S' : 'K';
+                case 'S', 'Z', 'X' -> codigo = 'S';
+                case 'K', 'Q' -> codigo = 'K';
+                case 'G' -> codigo = siguiente == 'E' || siguiente == 'I' ? 'J' : 'G';
+                case 'J' -> codigo = 'J';
+                case 'Y' -> codigo = 'Y';
+                case 'L' -> {
+                    codigo = siguiente == 'L' ? 'Y' : 'L';
+                    if (siguiente == 'L') {
+                        i++;
+                    }
+                }
+                case 'Ñ' -> codigo = 'N';
+                default -> codigo = c;
+            }
+            if (codigo == 0) {
+                anterior = 0;
+                continue;
+            }
+            if (codigo != anterior) {
+                sb.append(codigo);
+            }
+            anterior = codigo;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Similitud de Jaro-Winkler entre dos textos (1 = iguales, 0 = sin caracteres en común).
+     *
+     * @param a Primer texto (normalizado).
+     * @param b Segundo texto (normalizado).
+     * @return Un valor entre 0 y 1.
+     */
+    public static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return a.isEmpty() ? 0 : 1;
+        }
+        int la = a.length();
+        int lb = b.length();
+        if (la == 0 || lb == 0) {
+            return 0;
+        }
+        int rango = Math.max(0, Math.max(la, lb) / 2 - 1);
+        boolean[] usadosA = new boolean[la];
+        boolean[] usadosB = new boolean[lb];
+        int coincidencias = 0;
+        for (int i = 0; i < la; i++) {
+            int desde = Math.max(0, i - rango);
+            int hasta = Math.min(lb - 1, i + rango);
+            for (int j = desde; j <= hasta; j++) {
+                if (!usadosB[j] && a.charAt(i) == b.charAt(j)) {
+                    usadosA[i] = true;
+                    usadosB[j] = true;
+                    coincidencias++;
+                    break;
+                }
+            }
+        }
+        if (coincidencias == 0) {
+            return 0;
+        }
+        int transposiciones = 0;
+        for (int i = 0, j = 0; i < la; i++) {
+            if (!usadosA[i]) {
+                continue;
+            }
+            while (!usadosB[j]) {
+                j++;
+            }
+            if (a.charAt(i) != b.charAt(j)) {
+                transposiciones++;
+            }
+            j++;
+        }
+        double m = coincidencias;
+        double jaro = (m / la + m / lb + (m - transposiciones / 2.0) / m) / 3;
+
+        int prefijo = 0;
+        while (prefijo < 4 && prefijo < la && prefijo < lb && a.charAt(prefijo) == b.charAt(prefijo)) {
+            prefijo++;
+        }
+        return jaro + prefijo * 0.1 * (1 - jaro);
+    }
+
+    /**
+     * Similitud entre dos DNI basada en la distancia de edición con transposiciones (un dígito
+     * cambiado, agregado, omitido o dos dígitos contiguos invertidos cuentan como un error).
+     *
+     * @param a Primer DNI.
+     * @param b Segundo DNI.
+     * @return {@code 1 - distancia / longitud máxima}, entre 0 y 1.
+     */
+    public static double similitudDni(String a, String b) {
+        if (a == null || b == null || a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int la = a.length();
+        int lb = b.length();
+        int[] dosAtras = new int[lb + 1];
+        int[] anterior = new int[lb + 1];
+        int[] actual = new int[lb + 1];
+        for (int j = 0; j <= lb; j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= la; i++) {
+            actual[0] = i;
+            for (int j = 1; j <= lb; j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(anterior[j] + 1, actual[j - 1] + 1), anterior[j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, dosAtras[j - 2] + 1);
+                }
+                actual[j] = d;
+            }
+            int[] t = dosAtras;
+            dosAtras = anterior;
+            anterior = actual;
+            actual = t;
+        }
+        return 1 - (double) anterior[lb] / Math.max(la, lb);
+    }
+}
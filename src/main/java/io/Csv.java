@@ -0,0 +1,122 @@
+package io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilidades mínimas para leer y escribir archivos CSV (RFC 4180).
+ * <p>
+ * Soporta campos entre comillas dobles, comillas escapadas ({@code ""}) y saltos de línea
+ * dentro de un campo entrecomillado. Se lee un registro por vez, por lo que el consumo de
+ * memoria depende del tamaño del registro y no del archivo.
+ * </p>
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Lee el siguiente registro del archivo.
+     * Si un campo entrecomillado contiene saltos de línea, se siguen leyendo líneas hasta cerrarlo.
+     *
+     * @param in Lector posicionado al inicio de un registro.
+     * @return Los campos del registro, o null si se llegó al final del archivo.
+     * @throws IOException Si ocurre un error de lectura o el archivo termina dentro de un campo entrecomillado.
+     */
+    public static String[] leerRegistro(BufferedReader in) throws IOException {
+        String linea = in.readLine();
+        if (linea == null) {
+            return null;
+        }
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        int i = 0;
+
+        while (true) {
+            if (i == linea.length()) {
+                if (!entreComillas) {
+                    break;
+                }
+                // El campo entrecomillado continúa en la línea siguiente
+                linea = in.readLine();
+                if (linea == null) {
+                    throw new IOException("Fin de archivo inesperado dentro de un campo entre comillas.");
+                }
+                actual.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = linea.charAt(i++);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i < linea.length() && linea.charAt(i) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+
+        campos.add(actual.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Escapa un valor para escribirlo como campo CSV.
+     * Los valores con comas, comillas o saltos de línea se encierran entre comillas dobles.
+     *
+     * @param valor El valor a escapar (null se escribe como campo vacío).
+     * @return El valor listo para escribir.
+     */
+    public static String escapar(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                requiereComillas = true;
+                break;
+            }
+        }
+        if (!requiereComillas) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Arma una línea CSV (sin el salto de línea final) a partir de sus campos.
+     *
+     * @param campos Los valores de la línea.
+     * @return La línea con los campos escapados y separados por coma.
+     */
+    public static String linea(String... campos) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(escapar(campos[i]));
+        }
+        return sb.toString();
+    }
+}
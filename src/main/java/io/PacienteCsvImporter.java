@@ -0,0 +1,431 @@
+package io;
+
+import model.HistoriaClinica;
+import model.Paciente;
+import service.PacienteService;
+import service.validation.ReglasValidacion;
+import service.validation.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importador masivo de pacientes (con su historia clínica) desde archivos CSV.
+ * <p>
+ * El archivo se procesa en streaming mediante un pipeline de tres etapas conectadas por colas acotadas:
+ * <ol>
+ * <li><b>Lectura:</b> un hilo parsea los registros del CSV.</li>
+ * <li><b>Validación:</b> otro hilo arma los objetos y aplica las mismas reglas que los servicios.</li>
+ * <li><b>Escritura:</b> el hilo llamador agrupa los registros válidos en lotes y los persiste con
+ * {@link PacienteService#createAll}.</li>
+ * </ol>
+ * Como las colas tienen capacidad fija, el consumo de memoria no depende del tamaño del archivo.
+ * </p>
+ * <p>
+ * Los registros rechazados se escriben en {@code <archivo>.rechazos.csv} junto con el motivo.
+ * Tras cada lote confirmado se guarda un punto de control en {@code <archivo>.checkpoint}; si la
+ * importación se interrumpe, al volver a ejecutarla se retoma desde el último lote confirmado.
+ * Solo se rechazan los registros que el servicio rechaza por sí mismos (validación o DNI duplicado):
+ * una falla de la base de datos detiene la importación sin avanzar el punto de control sobre ellos.
+ * </p>
+ * <p>
+ * El archivo debe tener una fila de encabezado. Columnas obligatorias: {@code dni, nombre, apellido,
+ * nro_historia}. Opcionales: {@code fecha_nacimiento, grupo_sanguineo, antecedentes, medicacion_actual,
+ * observaciones, fecha_apertura} (las fechas en formato YYYY-MM-DD).
+ * </p>
+ */
+public class PacienteCsvImporter {
+
+    private static final int TAMANIO_LOTE = 1000;
+    private static final int CAPACIDAD_COLA = 4 * TAMANIO_LOTE;
+    private static final String[] COLUMNAS_OBLIGATORIAS = {"dni", "nombre", "apellido", "nro_historia"};
+
+    /** Marca de fin de flujo que recorre el pipeline. */
+    private static final Fila FIN = new Fila(-1, null);
+
+    /**
+     * Resumen de una importación.
+     *
+     * @param importados Registros persistidos en esta ejecución.
+     * @param rechazados Registros enviados al archivo de rechazos en esta ejecución.
+     * @param omitidos   Registros salteados por estar antes del punto de control.
+     */
+    public record Resultado(long importados, long rechazados, long omitidos) {
+    }
+
+    /**
+     * Registro del CSV en tránsito por el pipeline.
+     */
+    private static final class Fila {
+        private final long numero;
+        private final String[] campos;
+        private Paciente paciente;
+        private String error;
+
+        private Fila(long numero, String[] campos) {
+            this.numero = numero;
+            this.campos = campos;
+        }
+    }
+
+    private final PacienteService pacienteService;
+
+    /**
+     * Constructor que inyecta el servicio utilizado para validar y persistir.
+     * Sus reglas de alta incluyen las de la historia clínica inicial.
+     *
+     * @param pacienteService Servicio de pacientes.
+     */
+    public PacienteCsvImporter(PacienteService pacienteService) {
+        this.pacienteService = pacienteService;
+    }
+
+    /**
+     * Importa el archivo indicado, retomando desde el punto de control si existe uno.
+     * Al finalizar correctamente, el punto de control se elimina.
+     *
+     * @param archivo Ruta del CSV a importar.
+     * @return El resumen de la importación.
+     * @throws IOException Si ocurre un error de lectura/escritura de archivos o el encabezado es inválido.
+     * @throws SQLException Si se pierde la conexión con la base de datos.
+     * @throws RuntimeException Si falla una escritura por otro motivo que el registro (por ejemplo, la
+     *                          transacción); el punto de control queda en el último registro confirmado.
+     */
+    public Resultado importar(Path archivo) throws IOException, SQLException {
+        Path rutaRechazos = archivo.resolveSibling(archivo.getFileName() + ".rechazos.csv");
+        Path rutaCheckpoint = archivo.resolveSibling(archivo.getFileName() + ".checkpoint");
+        long checkpoint = leerCheckpoint(rutaCheckpoint);
+
+        try (BufferedReader in = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String[] encabezado = Csv.leerRegistro(in);
+            if (encabezado == null) {
+                throw new IOException("El archivo está vacío: " + archivo);
+            }
+            Map<String, Integer> columnas = indexarColumnas(encabezado);
+
+            try (BufferedWriter rechazos = abrirRechazos(rutaRechazos, checkpoint > 0, encabezado)) {
+                BlockingQueue<Fila> leidas = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+                BlockingQueue<Fila> validadas = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+                ExecutorService hilos = Executors.newFixedThreadPool(2, Thread.ofPlatform().name("importador-csv-", 1).factory());
+
+                try {
+                    Future<Long> lector = hilos.submit(() -> leer(in, checkpoint, leidas));
+                    Future<?> validador = hilos.submit(() -> validar(columnas, leidas, validadas));
+
+                    long[] totales = escribir(validadas, rechazos, rutaCheckpoint);
+
+                    long omitidos = lector.get();
+                    validador.get();
+                    Files.deleteIfExists(rutaCheckpoint);
+                    return new Resultado(totales[0], totales[1], omitidos);
+
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("La importación fue interrumpida.", e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException io) {
+                        throw io;
+                    }
+                    throw new RuntimeException("Error en la importación: " + e.getCause().getMessage(), e.getCause());
+                } finally {
+                    hilos.shutdownNow();
+                }
+            }
+        }
+    }
+
+    /**
+     * Etapa de lectura: parsea los registros y los encola, salteando los ya importados.
+     *
+     * @return La cantidad de registros omitidos por el punto de control.
+     */
+    private long leer(BufferedReader in, long checkpoint, BlockingQueue<Fila> salida) throws IOException, InterruptedException {
+        long numero = 0;
+        long omitidos = 0;
+        boolean interrumpido = false;
+        try {
+            String[] campos;
+            while ((campos = Csv.leerRegistro(in)) != null) {
+                if (campos.length == 1 && campos[0].isBlank()) {
+                    continue;
+                }
+                numero++;
+                if (numero <= checkpoint) {
+                    omitidos++;
+                    continue;
+                }
+                salida.put(new Fila(numero, campos));
+            }
+        } catch (InterruptedException e) {
+            interrumpido = true;
+            throw e;
+        } finally {
+            // Interrumpido = el consumidor abandonó el pipeline: la cola puede estar llena y nadie la vacía
+            if (!interrumpido) {
+                salida.put(FIN);
+            }
+        }
+        return omitidos;
+    }
+
+    /**
+     * Etapa de validación: convierte cada registro en un Paciente y aplica las reglas de alta del servicio.
+     * Los registros inválidos siguen por el pipeline con todos sus motivos de rechazo (errores de formato
+     * y reglas incumplidas), sin acceder a la base de datos.
+     */
+    private Void validar(Map<String, Integer> columnas, BlockingQueue<Fila> entrada, BlockingQueue<Fila> salida) throws InterruptedException {
+        boolean interrumpido = false;
+        try {
+            Fila fila;
+            while ((fila = entrada.take()) != FIN) {
+                List<String> violaciones = new ArrayList<>(2);
+                Paciente p = convertir(fila.campos, columnas, violaciones);
+                try {
+                    pacienteService.validar(p);
+                } catch (ValidationException e) {
+                    violaciones.addAll(e.getViolaciones());
+                } catch (RuntimeException e) {
+                    violaciones.add(e.getMessage());
+                }
+                if (violaciones.isEmpty()) {
+                    fila.paciente = p;
+                } else {
+                    fila.error = String.join("; ", violaciones);
+                }
+                salida.put(fila);
+            }
+        } catch (InterruptedException e) {
+            interrumpido = true;
+            throw e;
+        } finally {
+            if (!interrumpido) {
+                salida.put(FIN);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Etapa de escritura: persiste los registros válidos por lotes y registra los rechazos.
+     * <p>
+     * La ventana se confirma cada {@value #TAMANIO_LOTE} registros leídos (válidos o no), de modo que
+     * una secuencia larga de registros inválidos no la hace crecer sin límite.
+     * </p>
+     *
+     * @return Un arreglo con {importados, rechazados}.
+     */
+    private long[] escribir(BlockingQueue<Fila> entrada, BufferedWriter rechazos, Path rutaCheckpoint)
+            throws InterruptedException, IOException, SQLException {
+        long[] totales = new long[2];
+        List<Fila> ventana = new ArrayList<>(TAMANIO_LOTE);
+
+        Fila fila;
+        while ((fila = entrada.take()) != FIN) {
+            ventana.add(fila);
+            if (ventana.size() == TAMANIO_LOTE) {
+                confirmarVentana(ventana, rechazos, rutaCheckpoint, totales);
+            }
+        }
+        if (!ventana.isEmpty()) {
+            confirmarVentana(ventana, rechazos, rutaCheckpoint, totales);
+        }
+        return totales;
+    }
+
+    /**
+     * Persiste los pacientes válidos de la ventana, escribe sus rechazos y avanza el punto de control.
+     * <p>
+     * Si el lote completo falla (por ejemplo, por un DNI duplicado), se reintenta registro por registro
+     * para aislar los que provocan el error, que pasan al archivo de rechazos. Solo se rechazan los
+     * registros que el servicio rechaza con {@link IllegalArgumentException} (validación o DNI duplicado);
+     * ante cualquier otra falla se confirman los registros anteriores de la ventana y se propaga el error,
+     * de modo que al retomar se vuelve a intentar desde el registro que falló.
+     * </p>
+     */
+    private void confirmarVentana(List<Fila> ventana, BufferedWriter rechazos, Path rutaCheckpoint, long[] totales)
+            throws IOException, SQLException {
+        List<Paciente> lote = new ArrayList<>(ventana.size());
+        for (Fila f : ventana) {
+            if (f.paciente != null) {
+                lote.add(f.paciente);
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            try {
+                pacienteService.createAll(lote);
+                totales[0] += lote.size();
+            } catch (RuntimeException e) {
+                for (int i = 0; i < ventana.size(); i++) {
+                    Fila f = ventana.get(i);
+                    if (f.paciente == null) {
+                        continue;
+                    }
+                    try {
+                        pacienteService.create(f.paciente);
+                        totales[0]++;
+                    } catch (IllegalArgumentException ex) {
+                        f.error = ex.getMessage();
+                    } catch (RuntimeException ex) {
+                        if (i > 0) {
+                            confirmarFilas(ventana.subList(0, i), rechazos, rutaCheckpoint, totales);
+                        }
+                        throw ex;
+                    }
+                }
+            }
+        }
+
+        confirmarFilas(ventana, rechazos, rutaCheckpoint, totales);
+        ventana.clear();
+    }
+
+    /**
+     * Escribe los rechazos de las filas ya procesadas y avanza el punto de control hasta la última.
+     */
+    private static void confirmarFilas(List<Fila> filas, BufferedWriter rechazos, Path rutaCheckpoint, long[] totales)
+            throws IOException {
+        for (Fila f : filas) {
+            if (f.error != null) {
+                String[] linea = new String[f.campos.length + 2];
+                linea[0] = String.valueOf(f.numero);
+                linea[1] = f.error;
+                System.arraycopy(f.campos, 0, linea, 2, f.campos.length);
+                rechazos.write(Csv.linea(linea));
+                rechazos.newLine();
+                totales[1]++;
+            }
+        }
+        rechazos.flush();
+
+        escribirCheckpoint(rutaCheckpoint, filas.get(filas.size() - 1).numero);
+    }
+
+    /**
+     * Construye el Paciente y su Historia Clínica a partir de los campos del registro.
+     * Las fechas y el grupo sanguíneo que no se pueden interpretar quedan en null y se
+     * informan en {@code violaciones}.
+     */
+    private Paciente convertir(String[] campos, Map<String, Integer> columnas, List<String> violaciones) {
+        Paciente p = new Paciente();
+        p.setDni(campo(campos, columnas, "dni"));
+        p.setNombre(campo(campos, columnas, "nombre"));
+        p.setApellido(campo(campos, columnas, "apellido"));
+        String fechaNac = campo(campos, columnas, "fecha_nacimiento");
+        p.setFechaNacimiento(fecha(fechaNac, violaciones));
+
+        HistoriaClinica hc = new HistoriaClinica();
+        hc.setNroHistoria(campo(campos, columnas, "nro_historia"));
+        hc.setGrupoSanguineo(ReglasValidacion.grupoSanguineo(campo(campos, columnas, "grupo_sanguineo"), violaciones));
+        hc.setAntecedentes(campo(campos, columnas, "antecedentes"));
+        hc.setMedicacionActual(campo(campos, columnas, "medicacion_actual"));
+        hc.setObservaciones(campo(campos, columnas, "observaciones"));
+        String fechaApertura = campo(campos, columnas, "fecha_apertura");
+        hc.setFechaApertura(fechaApertura != null ? fecha(fechaApertura, violaciones) : LocalDate.now());
+
+        p.setHistoriaClinica(hc);
+        return p;
+    }
+
+    /**
+     * Interpreta una fecha YYYY-MM-DD, o devuelve null (registrando el error) si es inválida.
+     */
+    private static LocalDate fecha(String texto, List<String> violaciones) {
+        if (texto == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            violaciones.add("Fecha inválida: " + texto);
+            return null;
+        }
+    }
+
+    /**
+     * Obtiene el valor de una columna del registro, o null si la columna no existe o está vacía.
+     */
+    private static String campo(String[] campos, Map<String, Integer> columnas, String nombre) {
+        Integer i = columnas.get(nombre);
+        if (i == null || i >= campos.length) {
+            return null;
+        }
+        String valor = campos[i].trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    /**
+     * Asocia cada nombre de columna del encabezado con su posición y verifica las obligatorias.
+     */
+    private static Map<String, Integer> indexarColumnas(String[] encabezado) throws IOException {
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < encabezado.length; i++) {
+            columnas.put(encabezado[i].trim().toLowerCase(), i);
+        }
+        for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+            if (!columnas.containsKey(obligatoria)) {
+                throw new IOException("Falta la columna obligatoria '" + obligatoria + "' en el encabezado.");
+            }
+        }
+        return columnas;
+    }
+
+    /**
+     * Abre el archivo de rechazos. Al retomar una importación se agrega al final del existente.
+     */
+    private static BufferedWriter abrirRechazos(Path ruta, boolean retomar, String[] encabezado) throws IOException {
+        if (retomar && Files.exists(ruta)) {
+            return Files.newBufferedWriter(ruta, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+        BufferedWriter out = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8);
+        String[] linea = new String[encabezado.length + 2];
+        linea[0] = "registro";
+        linea[1] = "motivo";
+        System.arraycopy(encabezado, 0, linea, 2, encabezado.length);
+        out.write(Csv.linea(linea));
+        out.newLine();
+        return out;
+    }
+
+    /**
+     * Lee el número del último registro confirmado, o 0 si no hay punto de control.
+     */
+    private static long leerCheckpoint(Path ruta) throws IOException {
+        if (!Files.exists(ruta)) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(Files.readString(ruta).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Punto de control corrupto: " + ruta, e);
+        }
+    }
+
+    /**
+     * Guarda el punto de control de forma atómica (archivo temporal + renombrado).
+     */
+    private static void escribirCheckpoint(Path ruta, long numero) throws IOException {
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        Files.writeString(temporal, String.valueOf(numero));
+        Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
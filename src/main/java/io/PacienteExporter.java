@@ -0,0 +1,221 @@
+package io;
+
+import model.HistoriaClinica;
+import model.Paciente;
+import service.PacienteService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportador de pacientes (con su historia clínica) a CSV o JSON Lines.
+ * <p>
+ * Las filas se leen con {@link PacienteService#streamAll} y se escriben directamente en un
+ * {@link FileChannel} a través de un buffer, sin acumular la lista de pacientes en memoria.
+ * Opcionalmente la salida se comprime con GZIP.
+ * </p>
+ */
+public class PacienteExporter {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private static final String[] COLUMNAS = {
+            "id", "dni", "nombre", "apellido", "fecha_nacimiento",
+            "hc_id", "nro_historia", "grupo_sanguineo", "antecedentes",
+            "medicacion_actual", "observaciones", "fecha_apertura"
+    };
+
+    /**
+     * Formatos de salida soportados.
+     */
+    public enum Formato {
+        CSV, JSONL
+    }
+
+    /**
+     * Resumen de una exportación.
+     *
+     * @param filas          Cantidad de pacientes exportados.
+     * @param duracionNanos  Tiempo total de la exportación, en nanosegundos.
+     */
+    public record Resultado(long filas, long duracionNanos) {
+
+        /**
+         * Calcula el rendimiento de la exportación.
+         *
+         * @return Filas exportadas por segundo.
+         */
+        public double filasPorSegundo() {
+            return duracionNanos == 0 ? 0 : filas * 1_000_000_000.0 / duracionNanos;
+        }
+    }
+
+    private final PacienteService pacienteService;
+
+    /**
+     * Constructor que inyecta el servicio de pacientes.
+     *
+     * @param pacienteService Servicio utilizado para recorrer los pacientes.
+     */
+    public PacienteExporter(PacienteService pacienteService) {
+        this.pacienteService = pacienteService;
+    }
+
+    /**
+     * Exporta todos los pacientes activos al archivo indicado (lo sobrescribe si existe).
+     *
+     * @param destino   Ruta del archivo de salida.
+     * @param formato   Formato de salida.
+     * @param comprimir true para comprimir la salida con GZIP.
+     * @return El resumen de la exportación.
+     * @throws IOException Si ocurre un error de escritura.
+     * @throws SQLException Si ocurre un error de base de datos.
+     */
+    public Resultado exportar(Path destino, Formato formato, boolean comprimir) throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        long[] filas = {0};
+
+        try (Writer w = abrir(destino, comprimir)) {
+            if (formato == Formato.CSV) {
+                w.write(Csv.linea(COLUMNAS));
+                w.write('\n');
+            }
+
+            pacienteService.streamAll(p -> {
+                try {
+                    if (formato == Formato.CSV) {
+                        escribirCsv(w, p);
+                    } else {
+                        escribirJson(w, p);
+                    }
+                    filas[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return new Resultado(filas[0], System.nanoTime() - inicio);
+    }
+
+    /**
+     * Abre el archivo de destino como un {@link FileChannel} envuelto en un escritor con buffer
+     * (y compresión GZIP si se solicita).
+     */
+    private static Writer abrir(Path destino, boolean comprimir) throws IOException {
+        FileChannel canal = FileChannel.open(destino,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            OutputStream out = Channels.newOutputStream(canal);
+            if (comprimir) {
+                out = new GZIPOutputStream(out, TAMANIO_BUFFER);
+            }
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Escribe un paciente como una línea CSV.
+     */
+    private static void escribirCsv(Writer w, Paciente p) throws IOException {
+        HistoriaClinica h = p.getHistoriaClinica();
+        w.write(Csv.linea(
+                String.valueOf(p.getId()),
+                p.getDni(),
+                p.getNombre(),
+                p.getApellido(),
+                fecha(p.getFechaNacimiento()),
+                h != null ? String.valueOf(h.getId()) : null,
+                h != null ? h.getNroHistoria() : null,
+                h != null && h.getGrupoSanguineo() != null ? h.getGrupoSanguineo().db() : null,
+                h != null ? h.getAntecedentes() : null,
+                h != null ? h.getMedicacionActual() : null,
+                h != null ? h.getObservaciones() : null,
+                h != null ? fecha(h.getFechaApertura()) : null
+        ));
+        w.write('\n');
+    }
+
+    /**
+     * Escribe un paciente como un objeto JSON en una sola línea.
+     * La historia clínica se anida bajo la clave {@code historiaClinica} (null si no tiene).
+     */
+    private static void escribirJson(Writer w, Paciente p) throws IOException {
+        w.write("{\"id\":");
+        w.write(String.valueOf(p.getId()));
+        campoJson(w, "dni", p.getDni());
+        campoJson(w, "nombre", p.getNombre());
+        campoJson(w, "apellido", p.getApellido());
+        campoJson(w, "fechaNacimiento", fecha(p.getFechaNacimiento()));
+        w.write(",\"historiaClinica\":");
+
+        HistoriaClinica h = p.getHistoriaClinica();
+        if (h == null) {
+            w.write("null");
+        } else {
+            w.write("{\"id\":");
+            w.write(String.valueOf(h.getId()));
+            campoJson(w, "nroHistoria", h.getNroHistoria());
+            campoJson(w, "grupoSanguineo", h.getGrupoSanguineo() != null ? h.getGrupoSanguineo().db() : null);
+            campoJson(w, "antecedentes", h.getAntecedentes());
+            campoJson(w, "medicacionActual", h.getMedicacionActual());
+            campoJson(w, "observaciones", h.getObservaciones());
+            campoJson(w, "fechaApertura", fecha(h.getFechaApertura()));
+            w.write('}');
+        }
+        w.write("}\n");
+    }
+
+    /**
+     * Escribe {@code ,"clave":valor} con el valor escapado como string JSON (o null).
+     */
+    private static void campoJson(Writer w, String clave, String valor) throws IOException {
+        w.write(",\"");
+        w.write(clave);
+        w.write("\":");
+        if (valor == null) {
+            w.write("null");
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> w.write("\\\"");
+                case '\\' -> w.write("\\\\");
+                case '\n' -> w.write("\\n");
+                case '\r' -> w.write("\\r");
+                case '\t' -> w.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        w.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        w.write(c);
+                    }
+                }
+            }
+        }
+        w.write('"');
+    }
+
+    private static String fecha(LocalDate f) {
+        return f != null ? f.toString() : null;
+    }
+}
@@ -1,5 +1,7 @@
 package main;
 
+import maintenance.ArchivadorEliminados;
+import metrics.Metricas;
 import service.HistoriaClinicaService;
 import service.PacienteService;
 import service.impl.HistoriaClinicaServiceImpl;
@@ -22,26 +24,54 @@ import java.util.Scanner;
 public class AppMenu {
     private Scanner scanner;
     private MenuHandler menuHandler;
+    // Archivado periódico: se crea recién después de la primera opción atendida (ver programarArchivador)
+    private ArchivadorEliminados archivador;
+    private boolean archivadorEvaluado;
 
     /**
      * Inicializa la aplicación configurando las dependencias necesarias.
      * <p>
-     * Crea las instancias de los servicios ({@link PacienteServiceImpl}, {@link HistoriaClinicaServiceImpl})
-     * y configura el {@link MenuHandler} con un {@link Scanner} para la entrada de datos.
+     * Crea las instancias de los servicios ({@link PacienteServiceImpl}, {@link HistoriaClinicaServiceImpl}),
+     * instrumentadas con {@link Metricas}, y configura el {@link MenuHandler} con un {@link Scanner}
+     * para la entrada de datos. No accede a la base de datos: el {@link ArchivadorEliminados} periódico
+     * se programa más tarde (ver {@link #start()}).
      * </p>
      */
     public AppMenu() {
         this.scanner = new Scanner(System.in);
-        PacienteService pService = new PacienteServiceImpl();
-        HistoriaClinicaService hService = new HistoriaClinicaServiceImpl();
+        PacienteService pService = Metricas.instrumentar(PacienteService.class, new PacienteServiceImpl());
+        HistoriaClinicaService hService = Metricas.instrumentar(HistoriaClinicaService.class, new HistoriaClinicaServiceImpl());
         this.menuHandler = new MenuHandler(scanner, pService, hService);
     }
 
+    /**
+     * Programa el {@link ArchivadorEliminados} en segundo plano si {@code archivo.intervalo_min} es
+     * mayor que cero. Leer esa propiedad inicializa {@link config.DatabaseConnection}, por lo que se
+     * hace una sola vez, después de la primera opción atendida, y no al crear el menú. Si la
+     * configuración no puede leerse se informa y el menú sigue funcionando sin archivado periódico.
+     */
+    private void programarArchivador() {
+        if (archivadorEvaluado) {
+            return;
+        }
+        archivadorEvaluado = true;
+        try {
+            ArchivadorEliminados.Configuracion config = ArchivadorEliminados.Configuracion.desdePropiedades();
+            if (!config.intervalo().isZero()) {
+                archivador = new ArchivadorEliminados(config);
+                archivador.iniciar();
+            }
+        } catch (RuntimeException e) {
+            MenuDisplay.printError("No se pudo programar el archivado de bajas: " + e.getMessage());
+        }
+    }
+
     /**
      * Inicia la ejecución del menú interactivo.
      * <p>
      * Mantiene la aplicación en ejecución dentro de un bucle {@code while} hasta que el usuario
-     * decide salir (Opción 0).
+     * decide salir (Opción 0). Tras la primera opción atendida programa el archivado periódico de
+     * bajas, si está configurado, y lo detiene al salir.
      * </p>
      * <p>
      * Incluye manejo de excepciones para:
@@ -80,6 +110,24 @@ public class AppMenu {
                     case 7:
                         menuHandler.deletePatient();
                         break;
+                    case 8:
+                        menuHandler.importPatients();
+                        break;
+                    case 9:
+                        menuHandler.exportPatients();
+                        break;
+                    case 10:
+                        menuHandler.showMetrics();
+                        break;
+                    case 11:
+                        menuHandler.searchPatientsByName();
+                        break;
+                    case 12:
+                        menuHandler.detectDuplicates();
+                        break;
+                    case 13:
+                        menuHandler.archiveDeleted();
+                        break;
                     case 0:
                         System.out.println("Saliendo...");
                         running = false;
@@ -87,12 +135,18 @@ public class AppMenu {
                     default:
                         System.out.println("⚠ Opción inválida, intente de nuevo.");
                 }
+                if (running) {
+                    programarArchivador();
+                }
             } catch (NumberFormatException e) {
                 MenuDisplay.printError("Debe ingresar un número válido.");
             } catch (Exception e) {
                 MenuDisplay.printError("Error inesperado: " + e.getMessage());
             }
         }
+        if (archivador != null) {
+            archivador.detener();
+        }
         scanner.close();
     }
 }
\ No newline at end of file
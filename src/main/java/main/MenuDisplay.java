@@ -25,6 +25,12 @@ public class MenuDisplay {
         System.out.println("║ 5. Actualizar Historia Clínica de un Paciente      ║");
         System.out.println("║ 6. Listar todas las Historias Clínicas             ║");
         System.out.println("║ 7. Eliminar Paciente (Baja Lógica)                 ║");
+        System.out.println("║ 8. Importar Pacientes desde CSV                    ║");
+        System.out.println("║ 9. Exportar Pacientes (CSV / JSON Lines)           ║");
+        System.out.println("║ 10. Ver Métricas de Rendimiento                    ║");
+        System.out.println("║ 11. Buscar Pacientes por Apellido y Nombre         ║");
+        System.out.println("║ 12. Detectar Pacientes Duplicados                  ║");
+        System.out.println("║ 13. Archivar Bajas Antiguas                        ║");
         System.out.println("╠════════════════════════════════════════════════════╣");
         System.out.println("║ 0. Salir                                           ║");
         System.out.println("╚════════════════════════════════════════════════════╝");
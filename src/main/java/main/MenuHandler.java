@@ -1,14 +1,27 @@
 package main;
 
+import dao.ConflictoVersionException;
+import dao.Page;
+import dedup.DetectorDuplicados;
+import io.PacienteCsvImporter;
+import io.PacienteExporter;
+import maintenance.ArchivadorEliminados;
+import metrics.Metricas;
 import model.HistoriaClinica;
 import model.Paciente;
 import service.HistoriaClinicaService;
 import service.PacienteService;
+import service.cache.PacienteCache;
 import model.HistoriaClinica.GrupoSanguineo;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 
@@ -21,6 +34,8 @@ import java.util.Scanner;
  * </p>
  */
 public class MenuHandler {
+    private static final int TAMANIO_PAGINA = 20;
+
     private Scanner scanner;
     private PacienteService pacienteService;
     private HistoriaClinicaService hcService;
@@ -94,26 +109,77 @@ public class MenuHandler {
      * Muestra un listado tabular de todos los pacientes registrados.
      * <p>
      * Imprime ID, DNI, Nombre, Apellido, Nro de Historia y Grupo Sanguíneo.
-     * Si no hay pacientes, muestra un mensaje de advertencia.
+     * Los pacientes se muestran de a páginas de {@value #TAMANIO_PAGINA} filas; al final de cada
+     * página se pregunta al usuario si desea continuar. Si no hay pacientes, muestra un mensaje de advertencia.
      * </p>
      */
     public void listPatients(){
         try {
-            List<Paciente> pacientes = pacienteService.getAll();
-            if (pacientes.isEmpty()) {
-                System.out.println("⚠ No hay pacientes registrados.");
+            mostrarPaginas("LISTADO DE PACIENTES", "⚠ No hay pacientes registrados.",
+                    token -> pacienteService.getSummaryPage(token, TAMANIO_PAGINA));
+        } catch (Exception e) {
+            System.err.println("Error al listar pacientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Busca pacientes por el comienzo del apellido y, opcionalmente, del nombre.
+     * <p>
+     * La búsqueda no distingue mayúsculas ni acentos. Los resultados se muestran ordenados por
+     * apellido y nombre, con el mismo formato y paginación que {@link #listPatients()}.
+     * </p>
+     */
+    public void searchPatientsByName() {
+        try {
+            String apellido = readInput("Apellido (comienzo): ");
+            if (apellido.isEmpty()) {
+                System.out.println("⚠ Debe ingresar al menos una letra del apellido.");
                 return;
             }
+            String nombre = readInput("Nombre (comienzo, ENTER para omitir): ");
+
+            mostrarPaginas("RESULTADOS DE LA BÚSQUEDA", "⚠ No se encontraron pacientes.",
+                    token -> pacienteService.searchByName(apellido, nombre, token, TAMANIO_PAGINA));
+        } catch (Exception e) {
+            MenuDisplay.printError("Error al buscar pacientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene una página de pacientes a partir del token de continuación (null para la primera).
+     */
+    @FunctionalInterface
+    private interface ConsultaPaginada {
+        Page<Paciente> pagina(String token) throws SQLException;
+    }
+
+    /**
+     * Imprime en forma tabular ID, DNI, Nombre, Apellido, Nro de Historia y Grupo Sanguíneo de los
+     * pacientes, de a páginas de {@value #TAMANIO_PAGINA} filas. Al final de cada página pregunta al
+     * usuario si desea continuar.
+     *
+     * @param titulo   Título del listado.
+     * @param sinDatos Mensaje a mostrar si la primera página está vacía.
+     * @param consulta Obtiene cada página.
+     * @throws SQLException Si falla alguna consulta.
+     */
+    private void mostrarPaginas(String titulo, String sinDatos, ConsultaPaginada consulta) throws SQLException {
+        Page<Paciente> pagina = consulta.pagina(null);
+        if (pagina.getItems().isEmpty()) {
+            System.out.println(sinDatos);
+            return;
+        }
 
-            String format = "| %-4s | %-10s | %-15s | %-15s | %-12s | %-5s |%n";
-            String line   = "+------+------------+-----------------+-----------------+--------------+-------+";
+        String format = "| %-4s | %-10s | %-15s | %-15s | %-12s | %-5s |%n";
+        String line   = "+------+------------+-----------------+-----------------+--------------+-------+";
 
-            System.out.println("\n=== LISTADO DE PACIENTES ===");
-            System.out.println(line);
-            System.out.printf(format, "ID", "DNI", "NOMBRE", "APELLIDO", "NRO HC", "GRUPO");
-            System.out.println(line);
+        System.out.println("\n=== " + titulo + " ===");
+        System.out.println(line);
+        System.out.printf(format, "ID", "DNI", "NOMBRE", "APELLIDO", "NRO HC", "GRUPO");
+        System.out.println(line);
 
-            for (Paciente p : pacientes){
+        while (true) {
+            for (Paciente p : pagina.getItems()){
                 String nroHc = (p.getHistoriaClinica() != null ? p.getHistoriaClinica().getNroHistoria() : "S/D");
                 String grupo = (p.getHistoriaClinica() != null && p.getHistoriaClinica().getGrupoSanguineo() != null
                         ? p.getHistoriaClinica().getGrupoSanguineo().db() : "-");
@@ -128,8 +194,14 @@ public class MenuHandler {
                 );
             }
 
-        } catch (Exception e) {
-            System.err.println("Error al listar pacientes: " + e.getMessage());
+            if (!pagina.hasNext()) {
+                break;
+            }
+            String seguir = readInput("-- ENTER para ver más, 'q' para volver al menú: ");
+            if (seguir.equalsIgnoreCase("q")) {
+                break;
+            }
+            pagina = consulta.pagina(pagina.getNextToken());
         }
     }
 
@@ -201,6 +273,9 @@ public class MenuHandler {
 
         } catch (NumberFormatException e) {
             MenuDisplay.printError("El ID debe ser un número válido.");
+        } catch (ConflictoVersionException e) {
+            MenuDisplay.printError("Otro usuario modificó o eliminó al paciente mientras se editaba. "
+                    + "No se guardaron los cambios: vuelva a abrirlo para ver los datos vigentes.");
         } catch (Exception e) {
             MenuDisplay.printError("Error al actualizar paciente: " + e.getMessage());
         }
@@ -211,7 +286,9 @@ public class MenuHandler {
      * <p>
      * Muestra los valores permitidos para el Grupo Sanguíneo antes de solicitar la entrada.
      * Permite edición parcial (dejando campos vacíos).
-     * Actualiza la persistencia a través de {@link HistoriaClinicaService}.
+     * Los cambios se aplican sobre la historia mostrada y se guardan con
+     * {@link HistoriaClinicaService#update}, que exige la versión que vio el usuario: si otra edición
+     * se confirmó mientras se completaban los datos, se informa el conflicto en lugar de pisarla.
      * </p>
      */
     public void updateClinicalHistory(){
@@ -230,45 +307,47 @@ public class MenuHandler {
                 return;
             }
 
-            Paciente p = opt.get();
+            HistoriaClinica actual = opt.get().getHistoriaClinica();
             System.out.println("\n════════ EDITANDO HISTORIA CLÍNICA ════════\n");
             System.out.println("(Deje vacío y presione ENTER para mantener el valor actual)\n");
 
-            String nroHistoria = readInput("Nuevo número de historia [" + p.getHistoriaClinica().getNroHistoria() + "]: ");
-            if (!nroHistoria.isBlank()) p.getHistoriaClinica().setNroHistoria(nroHistoria);
+            String nroHistoria = readInput("Nuevo número de historia [" + actual.getNroHistoria() + "]: ");
 
             System.out.print("Valores permitidos: ");
             for (GrupoSanguineo g : GrupoSanguineo.values()) {
                 System.out.print(g.db() + " ");
             }
             System.out.println();
-            GrupoSanguineo currentGrupo = p.getHistoriaClinica().getGrupoSanguineo();
+            GrupoSanguineo currentGrupo = actual.getGrupoSanguineo();
             String displayGrupo = (currentGrupo != null) ? currentGrupo.db() : "Sin Asignar";
             String grupoTexto = readInput("Nuevo grupo sanguíneo [" + displayGrupo + "]: ");
+            GrupoSanguineo grupo = null;
             if (!grupoTexto.isBlank()) {
                 try {
-                    GrupoSanguineo gs = GrupoSanguineo.fromDb(grupoTexto);
-                    p.getHistoriaClinica().setGrupoSanguineo(gs);
+                    grupo = GrupoSanguineo.fromDb(grupoTexto);
                 } catch (IllegalArgumentException e){
                     System.out.println("❌ Grupo no válido. Se conserva el valor anterior.");
                 }
             }
 
             String ant = readInput("Nuevos antecedentes (opcional): ");
-            if (!ant.isBlank()) p.getHistoriaClinica().setAntecedentes(ant);
-
             String med = readInput("Nueva medicación actual (opcional): ");
-            if (!med.isBlank()) p.getHistoriaClinica().setMedicacionActual(med);
-
             String obs = readInput("Nuevas observaciones (opcional): ");
-            if (!obs.isBlank()) p.getHistoriaClinica().setObservaciones(obs);
 
-            if (p.getHistoriaClinica() != null) {
-                hcService.update(p.getHistoriaClinica());
-            }
+            if (!nroHistoria.isBlank()) actual.setNroHistoria(nroHistoria);
+            if (grupo != null) actual.setGrupoSanguineo(grupo);
+            if (!ant.isBlank()) actual.setAntecedentes(ant);
+            if (!med.isBlank()) actual.setMedicacionActual(med);
+            if (!obs.isBlank()) actual.setObservaciones(obs);
+
+            // Se guarda con la versión leída antes de pedir los datos, no con la vigente al terminar
+            hcService.update(actual);
             System.out.println("\n✅ ¡Historia clinica actualizada con éxito!");
         } catch (NumberFormatException e) {
             MenuDisplay.printError("El ID debe ser un número válido.");
+        } catch (ConflictoVersionException e) {
+            MenuDisplay.printError("Otro usuario modificó o eliminó la Historia Clínica mientras se editaba. "
+                    + "No se guardaron los cambios: vuelva a abrirla para ver los datos vigentes.");
         } catch (Exception e) {
             MenuDisplay.printError("Error al actualizar la historia clínica: " + e.getMessage());
         }
@@ -293,17 +372,21 @@ public class MenuHandler {
                 return;
             }
 
+            // Los pacientes se buscan todos juntos (consultas por bloques) en lugar de uno por historia
+            List<Long> pacienteIds = new ArrayList<>(historias.size());
+            for (HistoriaClinica hc : historias) {
+                pacienteIds.add(hc.getPacienteId());
+            }
+            Map<Long, Paciente> pacientes = pacienteService.findByIds(pacienteIds);
+
             for (HistoriaClinica hc : historias) {
                 String nombrePaciente = "Desconocido";
                 String dniPaciente = "S/D";
 
-                if (hc.getPacienteId() != null) {
-                    Optional<Paciente> optP = pacienteService.findById(hc.getPacienteId());
-                    if (optP.isPresent()) {
-                        Paciente p = optP.get();
-                        nombrePaciente = p.getApellido().toUpperCase() + ", " + p.getNombre();
-                        dniPaciente = p.getDni();
-                    }
+                Paciente p = pacientes.get(hc.getPacienteId());
+                if (p != null) {
+                    nombrePaciente = p.getApellido().toUpperCase() + ", " + p.getNombre();
+                    dniPaciente = p.getDni();
                 }
 
                 String grupo = (hc.getGrupoSanguineo() != null) ? hc.getGrupoSanguineo().db() : "S/D";
@@ -370,6 +453,128 @@ public class MenuHandler {
         }
     }
 
+    /**
+     * Importa pacientes masivamente desde un archivo CSV.
+     * <p>
+     * Los registros inválidos se informan en un archivo de rechazos junto al CSV. Si una
+     * importación anterior del mismo archivo quedó incompleta, se retoma desde su punto de control.
+     * </p>
+     */
+    public void importPatients() {
+        try {
+            System.out.println("\n=== IMPORTAR PACIENTES DESDE CSV ===");
+            Path archivo = Path.of(readInput("Ruta del archivo CSV: "));
+            if (!Files.isRegularFile(archivo)) {
+                MenuDisplay.printError("No se encontró el archivo: " + archivo);
+                return;
+            }
+
+            PacienteCsvImporter importer = new PacienteCsvImporter(pacienteService);
+            PacienteCsvImporter.Resultado r = importer.importar(archivo);
+
+            if (r.omitidos() > 0) {
+                System.out.println("↻ Registros omitidos (ya importados previamente): " + r.omitidos());
+            }
+            if (r.rechazados() > 0) {
+                System.out.println("⚠ Registros rechazados: " + r.rechazados() + " (ver " + archivo.getFileName() + ".rechazos.csv)");
+            }
+            MenuDisplay.printSuccess("Importación finalizada. Pacientes importados: " + r.importados());
+
+        } catch (Exception e) {
+            MenuDisplay.printError("Error al importar pacientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta todos los pacientes activos con su historia clínica a un archivo.
+     * <p>
+     * Permite elegir entre CSV y JSON Lines, y comprimir la salida con GZIP.
+     * Al finalizar informa la cantidad de filas y el rendimiento (filas/seg).
+     * </p>
+     */
+    public void exportPatients() {
+        try {
+            System.out.println("\n=== EXPORTAR PACIENTES ===");
+            String formatoTexto = readInput("Formato (csv/jsonl) [csv]: ");
+            PacienteExporter.Formato formato = formatoTexto.equalsIgnoreCase("jsonl")
+                    ? PacienteExporter.Formato.JSONL : PacienteExporter.Formato.CSV;
+            boolean comprimir = readInput("¿Comprimir con GZIP? (s/n) [n]: ").equalsIgnoreCase("s");
+            Path destino = Path.of(readInput("Ruta del archivo de salida: "));
+
+            PacienteExporter.Resultado r = new PacienteExporter(pacienteService).exportar(destino, formato, comprimir);
+
+            MenuDisplay.printSuccess(String.format("Exportados %d pacientes en %.2f s (%.0f filas/seg)",
+                    r.filas(), r.duracionNanos() / 1_000_000_000.0, r.filasPorSegundo()));
+
+        } catch (Exception e) {
+            MenuDisplay.printError("Error al exportar pacientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta el detector de pacientes duplicados y guarda los pares candidatos en un CSV.
+     * <p>
+     * Solicita la ruta de salida y el puntaje mínimo; el resto de los parámetros usa los valores
+     * de {@link DetectorDuplicados.Configuracion#porDefecto()}.
+     * </p>
+     */
+    public void detectDuplicates() {
+        try {
+            System.out.println("\n=== DETECTAR PACIENTES DUPLICADOS ===");
+            Path destino = Path.of(readInput("Ruta del archivo de salida (CSV): "));
+            String umbralTexto = readInput("Puntaje mínimo entre 0 y 1 [0.85]: ");
+
+            DetectorDuplicados.Configuracion base = DetectorDuplicados.Configuracion.porDefecto();
+            DetectorDuplicados.Configuracion config = umbralTexto.isEmpty() ? base
+                    : new DetectorDuplicados.Configuracion(base.particiones(), base.limiteExhaustivo(), base.ventana(),
+                            Double.parseDouble(umbralTexto.replace(',', '.')), base.paralelismo());
+
+            DetectorDuplicados.Resultado r = new DetectorDuplicados(pacienteService, config).detectar(destino);
+
+            MenuDisplay.printSuccess(String.format("Analizados %d pacientes (%d comparaciones) en %.2f s: %d pares candidatos",
+                    r.pacientes(), r.comparaciones(), r.duracionNanos() / 1_000_000_000.0, r.pares()));
+
+        } catch (NumberFormatException e) {
+            MenuDisplay.printError("El puntaje mínimo debe ser un número.");
+        } catch (Exception e) {
+            MenuDisplay.printError("Error al detectar duplicados: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mueve a las tablas de archivo los pacientes e historias clínicas dados de baja hace más que
+     * el período de retención indicado (por defecto, {@code archivo.retencion_dias}).
+     */
+    public void archiveDeleted() {
+        try {
+            System.out.println("\n=== ARCHIVAR BAJAS ANTIGUAS ===");
+            ArchivadorEliminados.Configuracion base = ArchivadorEliminados.Configuracion.desdePropiedades();
+            String diasTexto = readInput("Archivar bajas de hace más de cuántos días [" + base.retencion().toDays() + "]: ");
+            ArchivadorEliminados.Configuracion config = diasTexto.isEmpty() ? base
+                    : base.conRetencion(Long.parseLong(diasTexto));
+
+            ArchivadorEliminados.Resultado r = new ArchivadorEliminados(config).archivar();
+
+            MenuDisplay.printSuccess(String.format("Archivados %d pacientes y %d historias clínicas en %d lotes (%.2f s)",
+                    r.pacientes(), r.historias(), r.lotes(), r.duracionNanos() / 1_000_000_000.0));
+
+        } catch (NumberFormatException e) {
+            MenuDisplay.printError("La cantidad de días debe ser un número entero.");
+        } catch (Exception e) {
+            MenuDisplay.printError("Error al archivar las bajas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Muestra las métricas de rendimiento acumuladas desde el inicio de la aplicación:
+     * llamadas, errores y latencias por operación, estado del pool y de la caché de pacientes.
+     */
+    public void showMetrics() {
+        System.out.println("\n=== MÉTRICAS DE RENDIMIENTO ===");
+        System.out.print(Metricas.volcado());
+        System.out.println(PacienteCache.compartida().resumen());
+    }
+
     /**
      * Método auxiliar para leer una línea de texto desde la consola.
      *
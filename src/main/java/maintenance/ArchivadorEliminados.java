@@ -0,0 +1,242 @@
+package maintenance;
+
+import config.DatabaseConnection;
+import config.TransactionManager;
+import dao.ArchivoDao;
+import dao.impl.DaoFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archivador de bajas lógicas: mueve a {@code paciente_archivo} e {@code historia_clinica_archivo}
+ * los pacientes e historias clínicas dados de baja hace más que el período de retención y los borra
+ * de las tablas de trabajo, para que estas y sus índices no crezcan indefinidamente.
+ * <p>
+ * El trabajo se hace en lotes pequeños ({@link Configuracion#tamanioLote()}), cada uno en su propia
+ * transacción corta: se bloquean los IDs del lote, se copian sus filas y se borran. Los lotes se
+ * recorren por clave (el siguiente comienza después del último ID procesado), sin {@code OFFSET}
+ * ni rangos grandes, de modo que ningún bloqueo dura más que un lote.
+ * </p>
+ * <p>
+ * Entre lote y lote se hace una pausa de al menos {@link Configuracion#pausa()} y nunca menor que
+ * lo que tardó el lote: si la base está cargada y los lotes se vuelven lentos, el archivador cede
+ * más tiempo, y el volumen que llega a la réplica se reparte en lugar de concentrarse.
+ * </p>
+ * <p>
+ * Primero se archivan los pacientes (con sus historias, que también deben estar dadas de baja) y luego
+ * las historias dadas de baja por separado, cuyo paciente sigue activo. Un paciente dado de baja que
+ * conserva una historia activa no se archiva: ambos quedan en las tablas de trabajo. Puede ejecutarse a demanda ({@link #archivar()}) o
+ * periódicamente en segundo plano ({@link #iniciar()}); nunca corren dos ejecuciones a la vez.
+ * </p>
+ */
+public class ArchivadorEliminados {
+
+    /**
+     * Parámetros del proceso.
+     *
+     * @param retencion   Tiempo que una baja permanece en las tablas de trabajo antes de archivarse.
+     * @param tamanioLote Cantidad máxima de filas por lote (entre 1 y 1000).
+     * @param pausa       Pausa mínima entre lotes.
+     * @param intervalo   Tiempo entre ejecuciones periódicas ({@link Duration#ZERO} para no programarlas).
+     */
+    public record Configuracion(Duration retencion, int tamanioLote, Duration pausa, Duration intervalo) {
+
+        public Configuracion {
+            if (retencion.isNegative() || pausa.isNegative() || intervalo.isNegative()) {
+                throw new IllegalArgumentException("La retención, la pausa y el intervalo no pueden ser negativos.");
+            }
+            if (tamanioLote < 1 || tamanioLote > 1000) {
+                throw new IllegalArgumentException("El tamaño de lote debe estar entre 1 y 1000.");
+            }
+        }
+
+        /**
+         * Lee la configuración de {@code db.properties}: {@code archivo.retencion_dias} (365),
+         * {@code archivo.tamanio_lote} (500), {@code archivo.pausa_ms} (200) y
+         * {@code archivo.intervalo_min} (0, sin ejecución periódica).
+         *
+         * @return La configuración, con los valores por defecto para las propiedades ausentes.
+         */
+        public static Configuracion desdePropiedades() {
+            return new Configuracion(
+                    Duration.ofDays(Long.parseLong(DatabaseConnection.getPropiedad("archivo.retencion_dias", "365"))),
+                    Integer.parseInt(DatabaseConnection.getPropiedad("archivo.tamanio_lote", "500")),
+                    Duration.ofMillis(Long.parseLong(DatabaseConnection.getPropiedad("archivo.pausa_ms", "200"))),
+                    Duration.ofMinutes(Long.parseLong(DatabaseConnection.getPropiedad("archivo.intervalo_min", "0"))));
+        }
+
+        /**
+         * Copia la configuración con otro período de retención.
+         *
+         * @param dias Días de retención.
+         * @return La nueva configuración.
+         */
+        public Configuracion conRetencion(long dias) {
+            return new Configuracion(Duration.ofDays(dias), tamanioLote, pausa, intervalo);
+        }
+    }
+
+    /**
+     * Resumen de una ejecución.
+     *
+     * @param pacientes     Cantidad de pacientes archivados.
+     * @param historias     Cantidad de historias clínicas archivadas.
+     * @param lotes         Cantidad de transacciones ejecutadas.
+     * @param interrumpido  true si se detuvo antes de terminar (ver {@link #detener()}).
+     * @param duracionNanos Tiempo total, incluidas las pausas, en nanosegundos.
+     */
+    public record Resultado(long pacientes, long historias, int lotes, boolean interrumpido, long duracionNanos) {
+    }
+
+    /**
+     * Resultado de un lote.
+     *
+     * @param ultimoId  ID desde el que continúa el siguiente lote.
+     * @param leidos    Cantidad de IDs seleccionados.
+     * @param pacientes Pacientes archivados.
+     * @param historias Historias archivadas.
+     */
+    private record Lote(long ultimoId, int leidos, int pacientes, int historias) {
+    }
+
+    /**
+     * Selecciona y archiva un lote a partir del último ID procesado.
+     */
+    @FunctionalInterface
+    private interface Etapa {
+        Lote procesar(ArchivoDao dao, LocalDateTime limite, long desdeId, int tamanio) throws SQLException;
+    }
+
+    private static final Etapa PACIENTES = (dao, limite, desdeId, tamanio) -> {
+        List<Long> ids = dao.lockDeletedPatients(limite, desdeId, tamanio);
+        ArchivoDao.Archivados a = dao.archivePatients(ids);
+        return new Lote(ids.isEmpty() ? desdeId : ids.getLast(), ids.size(), a.pacientes(), a.historias());
+    };
+
+    private static final Etapa HISTORIAS = (dao, limite, desdeId, tamanio) -> {
+        List<Long> ids = dao.lockDeletedHistories(limite, desdeId, tamanio);
+        int historias = dao.archiveHistories(ids);
+        return new Lote(ids.isEmpty() ? desdeId : ids.getLast(), ids.size(), 0, historias);
+    };
+
+    /** Evita ejecuciones simultáneas, incluso entre instancias (manual y periódica). */
+    private static final AtomicBoolean EN_CURSO = new AtomicBoolean();
+
+    private final Configuracion config;
+    private ScheduledExecutorService programador;
+
+    /**
+     * Crea un archivador.
+     *
+     * @param config Parámetros del proceso.
+     */
+    public ArchivadorEliminados(Configuracion config) {
+        this.config = config;
+    }
+
+    /**
+     * Archiva todas las bajas vencidas.
+     * <p>
+     * El límite se calcula una vez, con el reloj de la base de datos (el mismo que registra
+     * {@code eliminado_en}). Si el hilo se interrumpe, termina después del lote en curso y devuelve
+     * lo archivado hasta ese momento. Un error deja confirmados los lotes anteriores.
+     * </p>
+     *
+     * @return El resumen de la ejecución.
+     * @throws SQLException Si no se pudo obtener una conexión.
+     * @throws IllegalStateException Si ya hay una ejecución en curso.
+     * @throws RuntimeException Si falla un lote (tras su rollback).
+     */
+    public Resultado archivar() throws SQLException {
+        if (!EN_CURSO.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay un archivado en curso.");
+        }
+        try {
+            long inicio = System.nanoTime();
+            LocalDateTime limite = TransactionManager.inReadOnly(conn -> DaoFactory.archivo(conn).currentTimestamp())
+                    .minus(config.retencion());
+
+            long[] totales = new long[3];
+            boolean completo = recorrer(PACIENTES, limite, totales) && recorrer(HISTORIAS, limite, totales);
+            return new Resultado(totales[0], totales[1], (int) totales[2], !completo, System.nanoTime() - inicio);
+        } finally {
+            EN_CURSO.set(false);
+        }
+    }
+
+    /**
+     * Ejecuta una etapa lote por lote hasta que un lote venga incompleto.
+     *
+     * @param totales Acumuladores de pacientes, historias y lotes.
+     * @return false si se interrumpió antes de terminar.
+     */
+    private boolean recorrer(Etapa etapa, LocalDateTime limite, long[] totales) throws SQLException {
+        long desdeId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long inicioLote = System.nanoTime();
+            long desde = desdeId;
+            Lote lote = TransactionManager.inTransaction(conn ->
+                    etapa.procesar(DaoFactory.archivo(conn), limite, desde, config.tamanioLote()));
+            totales[0] += lote.pacientes();
+            totales[1] += lote.historias();
+            totales[2]++;
+            if (lote.leidos() < config.tamanioLote()) {
+                return true;
+            }
+            desdeId = lote.ultimoId();
+
+            long pausa = Math.max(config.pausa().toNanos(), System.nanoTime() - inicioLote);
+            try {
+                TimeUnit.NANOSECONDS.sleep(pausa);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Programa ejecuciones periódicas en un hilo de fondo, cada {@link Configuracion#intervalo()}
+     * a partir del fin de la anterior. Los errores se informan por la salida de error y no
+     * cancelan las ejecuciones siguientes.
+     *
+     * @return false si el intervalo es cero (no se programa nada).
+     */
+    public synchronized boolean iniciar() {
+        if (config.intervalo().isZero() || programador != null) {
+            return programador != null;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(
+                r -> Thread.ofPlatform().name("archivador-eliminados").daemon().unstarted(r));
+        long intervalo = config.intervalo().toMillis();
+        programador.scheduleWithFixedDelay(this::ejecutarProgramado, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Cancela las ejecuciones periódicas. Una ejecución en curso se detiene al terminar su lote actual.
+     */
+    public synchronized void detener() {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+    }
+
+    private void ejecutarProgramado() {
+        try {
+            archivar();
+        } catch (IllegalStateException e) {
+            // Hay una ejecución manual en curso: esta vuelta se omite
+        } catch (Exception e) {
+            System.err.println("Error en el archivado de bajas: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas log-lineales (al estilo HdrHistogram).
+ * <p>
+ * Cada potencia de dos se divide en {@value #SUB_CUBETAS} sub-cubetas, lo que da un error relativo
+ * máximo de ~3% en cualquier rango (de nanosegundos a horas) con un arreglo fijo de contadores.
+ * Registrar un valor es un cálculo de índice más un incremento atómico: no asigna memoria ni toma locks,
+ * por lo que puede usarse en el camino crítico desde múltiples hilos.
+ * </p>
+ */
+public final class HistogramaLatencia {
+
+    private static final int BITS_SUB = 5;
+    private static final int SUB_CUBETAS = 1 << BITS_SUB;
+    private static final int CUBETAS = (64 - BITS_SUB) * SUB_CUBETAS;
+
+    private final AtomicLongArray conteos = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra una medición.
+     *
+     * @param nanos Duración en nanosegundos (los valores negativos se registran como 0).
+     */
+    public void registrar(long nanos) {
+        long v = Math.max(0, nanos);
+        conteos.incrementAndGet(indice(v));
+        suma.add(v);
+        long actual;
+        while (v > (actual = maximo.get()) && !maximo.compareAndSet(actual, v)) {
+            // reintenta hasta publicar el nuevo máximo
+        }
+    }
+
+    /**
+     * Obtiene la cantidad total de mediciones registradas.
+     *
+     * @return El total de mediciones.
+     */
+    public long cantidad() {
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            total += conteos.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Calcula el valor por debajo del cual se encuentra el porcentaje indicado de las mediciones.
+     *
+     * @param percentil Percentil entre 0 y 100 (ej: 99.9).
+     * @return El valor en nanosegundos (límite superior de la cubeta), o 0 si no hay mediciones.
+     */
+    public long percentil(double percentil) {
+        long total = cantidad();
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += conteos.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Obtiene el valor promedio registrado.
+     *
+     * @return El promedio en nanosegundos, o 0 si no hay mediciones.
+     */
+    public double media() {
+        long total = cantidad();
+        return total == 0 ? 0 : (double) suma.sum() / total;
+    }
+
+    /**
+     * Obtiene el mayor valor registrado.
+     *
+     * @return El máximo en nanosegundos.
+     */
+    public long maximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Calcula la cubeta de un valor: los valores menores a 64 tienen cubeta propia; el resto se ubica
+     * por su potencia de dos (exponente) y los 5 bits siguientes al bit más significativo.
+     */
+    static int indice(long v) {
+        if (v < 2 * SUB_CUBETAS) {
+            return (int) v;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(v) - BITS_SUB;
+        return (desplazamiento << BITS_SUB) + (int) (v >>> desplazamiento);
+    }
+
+    /**
+     * Obtiene el mayor valor que corresponde a la cubeta indicada.
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUB_CUBETAS) {
+            return indice;
+        }
+        int desplazamiento = (indice >> BITS_SUB) - 1;
+        long base = indice - ((long) desplazamiento << BITS_SUB);
+        return ((base + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,211 @@
+package metrics;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import config.DatabaseConnection;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro central de métricas de la aplicación.
+ * <p>
+ * Registra, por cada método de servicio y de DAO, la cantidad de llamadas, la cantidad de errores
+ * y un {@link HistogramaLatencia} (p50/p99/p99.9). Además informa el estado del pool de conexiones
+ * (activas, inactivas, en espera) y el tiempo de obtención de una conexión.
+ * </p>
+ * <p>
+ * Las métricas se publican en JMX bajo el dominio {@code vitalis} y pueden obtenerse como texto
+ * plano con {@link #volcado()}.
+ * </p>
+ */
+public final class Metricas implements MetricasMBean {
+
+    private static final String DOMINIO_JMX = "vitalis";
+
+    private static final Map<String, Operacion> OPERACIONES = new ConcurrentHashMap<>();
+
+    /** Análisis de cada interfaz instrumentada, por clase de implementación. */
+    private static final Map<Class<?>, Map<Class<?>, Instrumentacion>> INSTRUMENTACIONES = new ConcurrentHashMap<>();
+
+    /**
+     * Resultado de analizar una interfaz para una clase de implementación.
+     *
+     * @param prefijo     Prefijo de los nombres de las operaciones ({@code <nombreSimpleInterfaz>.}).
+     * @param heredados   Métodos {@code default} que la implementación no sobrescribe.
+     * @param operaciones Métrica de cada método medido, creada en su primera llamada.
+     */
+    private record Instrumentacion(String prefijo, Set<Method> heredados, Map<Method, Operacion> operaciones) {
+    }
+
+    static {
+        registrarJmx(DOMINIO_JMX + ":type=Metricas", new Metricas());
+    }
+
+    private Metricas() {
+    }
+
+    /**
+     * Obtiene (o crea y registra en JMX) las métricas de una operación.
+     * Se recomienda guardar la instancia en una constante para no buscarla en cada llamada.
+     *
+     * @param nombre Nombre de la operación (ej: {@code pool.getConnection}).
+     * @return Las métricas de la operación.
+     */
+    public static Operacion operacion(String nombre) {
+        return OPERACIONES.computeIfAbsent(nombre, n -> {
+            Operacion op = new Operacion(n);
+            registrarJmx(DOMINIO_JMX + ":type=Operacion,name=" + n, op);
+            return op;
+        });
+    }
+
+    /**
+     * Envuelve una implementación en un proxy que mide cada método de la interfaz.
+     * <p>
+     * Cada método se registra como {@code <nombreSimpleInterfaz>.<método>}. Las excepciones lanzadas
+     * por la implementación se propagan sin modificar y se cuentan como errores.
+     * Los métodos {@code default} de la interfaz que la implementación no sobrescribe (ej: las variantes
+     * asíncronas) no se miden: se ejecutan sobre el proxy, de modo que se mide el método al que delegan.
+     * </p>
+     * <p>
+     * El análisis de la interfaz (métodos {@code default} heredados y métricas de cada método) se hace
+     * una sola vez por par interfaz/implementación, por lo que envolver un DAO nuevo por cada conexión
+     * solo crea el proxy y su manejador. Registrar la métrica no asigna memoria, pero la llamada a través
+     * del proxy sí: el arreglo de argumentos, el boxing de primitivos y la invocación reflexiva.
+     * </p>
+     *
+     * @param interfaz       La interfaz a exponer (ej: {@code PacienteService.class}).
+     * @param implementacion La implementación real.
+     * @param <T>            El tipo de la interfaz.
+     * @return Un proxy que implementa la interfaz y delega en la implementación.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T instrumentar(Class<T> interfaz, T implementacion) {
+        Instrumentacion inst = INSTRUMENTACIONES
+                .computeIfAbsent(interfaz, i -> new ConcurrentHashMap<>())
+                .computeIfAbsent(implementacion.getClass(), c -> analizar(interfaz, c));
+
+        InvocationHandler handler = (proxy, metodo, args) -> {
+            if (metodo.getDeclaringClass() == Object.class) {
+                return metodo.invoke(implementacion, args);
+            }
+            if (inst.heredados().contains(metodo)) {
+                return InvocationHandler.invokeDefault(proxy, metodo, args);
+            }
+            Operacion op = inst.operaciones().get(metodo);
+            if (op == null) {
+                op = inst.operaciones().computeIfAbsent(metodo, m -> operacion(inst.prefijo() + m.getName()));
+            }
+            long inicio = System.nanoTime();
+            boolean exitosa = false;
+            try {
+                Object resultado = metodo.invoke(implementacion, args);
+                exitosa = true;
+                return resultado;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                op.registrar(inicio, exitosa);
+            }
+        };
+        return (T) Proxy.newProxyInstance(interfaz.getClassLoader(), new Class<?>[]{interfaz}, handler);
+    }
+
+    /**
+     * Calcula, para una interfaz y una clase que la implementa, los métodos {@code default} heredados.
+     * Las métricas de cada método se crean en su primera llamada.
+     */
+    private static Instrumentacion analizar(Class<?> interfaz, Class<?> clase) {
+        return new Instrumentacion(interfaz.getSimpleName() + ".", Set.copyOf(defaultsNoSobrescritos(interfaz, clase)),
+                new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Genera un volcado en texto plano de todas las operaciones y del pool de conexiones.
+     *
+     * @return Tabla con llamadas, errores y latencias (en microsegundos) por operación.
+     */
+    public static String volcado() {
+        StringBuilder sb = new StringBuilder();
+        String formato = "%-42s %9s %7s %10s %10s %10s %10s %10s%n";
+        sb.append(String.format(formato, "OPERACIÓN", "LLAMADAS", "ERRORES", "MEDIA(µs)", "P50(µs)", "P99(µs)", "P99.9(µs)", "MAX(µs)"));
+
+        for (Operacion op : new TreeMap<>(OPERACIONES).values()) {
+            sb.append(String.format(formato,
+                    op.getNombre(),
+                    op.getLlamadas(),
+                    op.getErrores(),
+                    String.format("%.1f", op.getMediaMicros()),
+                    String.format("%.1f", op.getP50Micros()),
+                    String.format("%.1f", op.getP99Micros()),
+                    String.format("%.1f", op.getP999Micros()),
+                    String.format("%.1f", op.getMaxMicros())));
+        }
+
+        HikariPoolMXBean pool = DatabaseConnection.getPoolMXBean();
+        if (pool != null) {
+            sb.append(String.format("%nPool de conexiones: activas=%d, inactivas=%d, total=%d, en espera=%d%n",
+                    pool.getActiveConnections(),
+                    pool.getIdleConnections(),
+                    pool.getTotalConnections(),
+                    pool.getThreadsAwaitingConnection()));
+        }
+        HikariPoolMXBean replica = DatabaseConnection.getReplicaPoolMXBean();
+        if (replica != null) {
+            sb.append(String.format("Pool de la réplica: activas=%d, inactivas=%d, total=%d, en espera=%d%n",
+                    replica.getActiveConnections(),
+                    replica.getIdleConnections(),
+                    replica.getTotalConnections(),
+                    replica.getThreadsAwaitingConnection()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getVolcado() {
+        return volcado();
+    }
+
+    /**
+     * Obtiene los métodos {@code default} de la interfaz que la clase hereda sin sobrescribir.
+     */
+    private static Set<Method> defaultsNoSobrescritos(Class<?> interfaz, Class<?> clase) {
+        Set<Method> heredados = new HashSet<>();
+        for (Method m : interfaz.getMethods()) {
+            if (!m.isDefault()) {
+                continue;
+            }
+            try {
+                if (clase.getMethod(m.getName(), m.getParameterTypes()).isDefault()) {
+                    heredados.add(m);
+                }
+            } catch (NoSuchMethodException e) {
+                heredados.add(m);
+            }
+        }
+        return heredados;
+    }
+
+    private static void registrarJmx(String nombre, Object mbean) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(nombre);
+            if (!servidor.isRegistered(objectName)) {
+                servidor.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("No se pudo registrar la métrica en JMX (" + nombre + "): " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package metrics;
+
+/**
+ * Interfaz JMX del registro de métricas de la aplicación.
+ */
+public interface MetricasMBean {
+
+    /**
+     * Obtiene el volcado en texto plano de todas las métricas.
+     *
+     * @return El mismo texto que {@link Metricas#volcado()}.
+     */
+    String getVolcado();
+}
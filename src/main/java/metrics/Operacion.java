@@ -0,0 +1,79 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de una operación concreta (ej: {@code PacienteService.findByDni}):
+ * cantidad de llamadas, cantidad de errores e histograma de latencias.
+ * <p>
+ * Se obtienen mediante {@link Metricas#operacion(String)}, que las registra en JMX.
+ * </p>
+ */
+public final class Operacion implements OperacionMBean {
+
+    private final String nombre;
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final HistogramaLatencia latencias = new HistogramaLatencia();
+
+    Operacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Registra una ejecución de la operación. No asigna memoria.
+     *
+     * @param inicioNanos Valor de {@link System#nanoTime()} al comenzar la operación.
+     * @param exitosa     false si la operación terminó con una excepción.
+     */
+    public void registrar(long inicioNanos, boolean exitosa) {
+        latencias.registrar(System.nanoTime() - inicioNanos);
+        llamadas.increment();
+        if (!exitosa) {
+            errores.increment();
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public HistogramaLatencia getLatencias() {
+        return latencias;
+    }
+
+    @Override
+    public long getLlamadas() {
+        return llamadas.sum();
+    }
+
+    @Override
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    @Override
+    public double getMediaMicros() {
+        return latencias.media() / 1_000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencias.percentil(50) / 1_000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencias.percentil(99) / 1_000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencias.percentil(99.9) / 1_000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latencias.maximo() / 1_000.0;
+    }
+}
@@ -0,0 +1,22 @@
+package metrics;
+
+/**
+ * Interfaz JMX de una {@link Operacion} medida.
+ * Las latencias se expresan en microsegundos.
+ */
+public interface OperacionMBean {
+
+    long getLlamadas();
+
+    long getErrores();
+
+    double getMediaMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * Carga bajo demanda las columnas pesadas de una entidad obtenida con una proyección resumida.
+ * <p>
+ * La asigna la capa de Servicio, que es la que sabe cómo obtener una conexión; la entidad
+ * la invoca la primera vez que se accede a alguno de los campos no cargados.
+ * </p>
+ *
+ * @param <T> El tipo de la entidad.
+ */
+@FunctionalInterface
+public interface CargadorDetalle<T extends EntidadBase> {
+
+    /**
+     * Completa los campos pesados de la entidad.
+     *
+     * @param entidad La entidad a completar.
+     * @throws RuntimeException Si no se pudo leer el detalle.
+     */
+    void cargar(T entidad);
+}
@@ -1,13 +1,25 @@
 package model;
 
+import mapping.Columna;
+import mapping.Id;
+import mapping.Version;
+
 /**
  * Clase EntidadBase abstracta que define los atributos comunes para todas las entidades del dominio.
- * Proporciona la gestión del identificador único (ID) y el estado de eliminación lógica (Soft Delete).
+ * Proporciona la gestión del identificador único (ID), el estado de eliminación lógica (Soft Delete),
+ * la versión para el bloqueo optimista y el seguimiento de cambios de las columnas.
  */
 public abstract class EntidadBase {
 
+    @Id
     private Long id;
+    @Columna
     private boolean eliminado;
+    @Version
+    private long version;
+
+    // Seguimiento de cambios: valores de las columnas actualizables según la última lectura de la base
+    private Object[] valoresPersistidos;
 
     /**
      * Constructor completo utilizado para reconstruir objetos desde la base de datos.
@@ -20,6 +32,19 @@ public abstract class EntidadBase {
         this.eliminado = eliminado;
     }
 
+    /**
+     * Constructor de copia: copia el ID, el estado de eliminación y los valores persistidos,
+     * de modo que la copia conserva el seguimiento de cambios del original.
+     *
+     * @param otra La entidad a copiar.
+     */
+    protected EntidadBase(EntidadBase otra) {
+        this.id = otra.id;
+        this.eliminado = otra.eliminado;
+        this.version = otra.version;
+        this.valoresPersistidos = otra.valoresPersistidos != null ? otra.valoresPersistidos.clone() : null;
+    }
+
     /**
      * Constructor por defecto para la creación de nuevas instancias.
      * Inicializa el estado de 'eliminado' en false.
@@ -64,4 +89,46 @@ public abstract class EntidadBase {
     public void setEliminado(boolean eliminado) {
         this.eliminado = eliminado;
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene la versión de la fila leída (bloqueo optimista).
+     * Cada actualización la incrementa en la base; una actualización basada en una versión anterior
+     * a la actual no modifica la fila y el DAO lanza {@link dao.ConflictoVersionException}.
+     *
+     * @return La versión leída, o 0 si la entidad aún no se persistió.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión de la entidad. Invocado por la capa de persistencia.
+     *
+     * @param version La versión leída o la nueva tras una actualización.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Obtiene los valores de las columnas actualizables tal como se leyeron de la base.
+     * Lo utilizan los mappers generados ({@code marcarSinCambios} y {@code cambios}) para que el
+     * {@code UPDATE} incluya solo las columnas modificadas.
+     *
+     * @return Los valores en el orden del mapper, o null si la entidad no se leyó de la base
+     * (en ese caso se actualizan todas las columnas).
+     */
+    public Object[] getValoresPersistidos() {
+        return valoresPersistidos;
+    }
+
+    /**
+     * Reemplaza los valores persistidos. Con null se descarta el seguimiento de cambios y la
+     * próxima actualización escribe todas las columnas.
+     *
+     * @param valoresPersistidos Los valores en el orden del mapper, o null.
+     */
+    public void setValoresPersistidos(Object[] valoresPersistidos) {
+        this.valoresPersistidos = valoresPersistidos;
+    }
+}
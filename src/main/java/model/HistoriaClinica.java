@@ -1,5 +1,8 @@
 package model;
 
+import mapping.Columna;
+import mapping.Entidad;
+
 import java.time.LocalDate;
 
 /**
@@ -9,7 +12,23 @@ import java.time.LocalDate;
  * medicación actual y observaciones. Esta clase es la parte dependiente (Lado B)
  * de la relación uno a uno con {@link Paciente}.
  * </p>
+ * <p>
+ * El mapeo JDBC ({@link HistoriaClinicaMapper}) se genera en tiempo de compilación a partir de las anotaciones.
+ * </p>
+ * <p>
+ * Los campos de texto extensos (antecedentes, medicación actual y observaciones) pueden quedar sin cargar
+ * cuando la historia proviene de una proyección resumida (ver {@link #marcarResumen}). En ese caso se leen
+ * de la base con el {@link CargadorDetalle} la primera vez que se accede a alguno de ellos, ya sea para
+ * consultarlo o para modificarlo: así un setter siempre se compara contra el valor persistido y el cambio
+ * llega al {@code UPDATE}. Sin cargador, el acceso lanza {@link IllegalStateException} en lugar de devolver
+ * null o perder la modificación.
+ * </p>
+ * <p>
+ * El estado de la carga y los campos perezosos se protegen con el monitor de la instancia, de modo que
+ * una historia compartida entre hilos se carga una sola vez y nunca se observa a medio completar.
+ * </p>
  */
+@Entidad(tabla = "historia_clinica", alias = "hc")
 public class HistoriaClinica extends EntidadBase {
 
     /**
@@ -40,16 +59,27 @@ public class HistoriaClinica extends EntidadBase {
         }
     }
 
+    @Columna
     private String nroHistoria;
+    @Columna
     private GrupoSanguineo grupoSanguineo;
+    @Columna(perezosa = true)
     private String antecedentes;
+    @Columna(perezosa = true)
     private String medicacionActual;
+    @Columna(perezosa = true)
     private String observaciones;
+    @Columna
     private LocalDate fechaApertura;
 
-    // Clave foránea para vincular con el Paciente en la BD
+    // Clave foránea para vincular con el Paciente en la BD (no se modifica al actualizar la historia)
+    @Columna(actualizable = false)
     private Long pacienteId;
 
+    // Carga perezosa de las columnas TEXT (antecedentes, medicación y observaciones), protegida por this
+    private boolean detalleCargado = true;
+    private CargadorDetalle<HistoriaClinica> cargadorDetalle;
+
     /**
      * Constructor por defecto.
      * Necesario para frameworks y creación paso a paso.
@@ -104,6 +134,97 @@ public class HistoriaClinica extends EntidadBase {
         this.pacienteId = pacienteId;
     }
 
+    /**
+     * Constructor de copia. Crea una historia independiente con los mismos datos.
+     *
+     * @param otra La historia clínica a copiar.
+     */
+    public HistoriaClinica(HistoriaClinica otra) {
+        super(otra);
+        this.nroHistoria = otra.nroHistoria;
+        this.grupoSanguineo = otra.grupoSanguineo;
+        this.fechaApertura = otra.fechaApertura;
+        this.pacienteId = otra.pacienteId;
+        synchronized (otra) {
+            this.antecedentes = otra.antecedentes;
+            this.medicacionActual = otra.medicacionActual;
+            this.observaciones = otra.observaciones;
+            this.detalleCargado = otra.detalleCargado;
+            this.cargadorDetalle = otra.cargadorDetalle;
+        }
+    }
+
+    /**
+     * Marca la historia como leída con la proyección resumida: los campos de texto extensos
+     * se obtendrán con el cargador en el primer acceso.
+     *
+     * @param cargador Cargador del detalle, o null si lo asignará después el servicio
+     *                 ({@link #setCargadorDetalle}); mientras falte, acceder a esos campos lanza
+     *                 {@link IllegalStateException}.
+     */
+    public synchronized void marcarResumen(CargadorDetalle<HistoriaClinica> cargador) {
+        this.detalleCargado = false;
+        this.cargadorDetalle = cargador;
+    }
+
+    /**
+     * Marca el detalle como cargado y descarta el cargador. Debe invocarse antes de asignar
+     * los campos de texto extenso leídos de la base, para que los setters no disparen otra carga,
+     * y sosteniendo el monitor de la historia hasta terminar de asignarlos, para que otro hilo no
+     * los lea a medio completar.
+     */
+    public synchronized void marcarDetalleCargado() {
+        this.detalleCargado = true;
+        this.cargadorDetalle = null;
+    }
+
+    /**
+     * Asigna el cargador del detalle a una historia marcada como resumen.
+     * No tiene efecto si el detalle ya está cargado.
+     *
+     * @param cargador El cargador del detalle.
+     */
+    public synchronized void setCargadorDetalle(CargadorDetalle<HistoriaClinica> cargador) {
+        if (!detalleCargado) {
+            this.cargadorDetalle = cargador;
+        }
+    }
+
+    /**
+     * Indica si los campos de texto extensos ya están disponibles.
+     *
+     * @return true si la historia se leyó completa o el detalle ya se cargó.
+     */
+    public synchronized boolean isDetalleCargado() {
+        return detalleCargado;
+    }
+
+    /**
+     * Carga el detalle si aún no se cargó. Se invoca con el monitor tomado. Se marca como cargado
+     * antes de invocar al cargador, ya que este completa los campos mediante los setters.
+     *
+     * @throws IllegalStateException Si el detalle no está cargado y no hay cargador asignado.
+     */
+    private void asegurarDetalle() {
+        if (detalleCargado) {
+            return;
+        }
+        if (cargadorDetalle == null) {
+            throw new IllegalStateException("La historia clínica " + getId()
+                    + " se leyó como resumen y no tiene cargador del detalle.");
+        }
+        CargadorDetalle<HistoriaClinica> cargador = cargadorDetalle;
+        detalleCargado = true;
+        cargadorDetalle = null;
+        try {
+            cargador.cargar(this);
+        } catch (RuntimeException e) {
+            detalleCargado = false;
+            cargadorDetalle = cargador;
+            throw e;
+        }
+    }
+
     public String getNroHistoria() {
         return nroHistoria;
     }
@@ -120,27 +241,33 @@ public class HistoriaClinica extends EntidadBase {
         this.grupoSanguineo = grupoSanguineo;
     }
 
-    public String getAntecedentes() {
+    public synchronized String getAntecedentes() {
+        asegurarDetalle();
         return antecedentes;
     }
 
-    public void setAntecedentes(String antecedentes) {
+    public synchronized void setAntecedentes(String antecedentes) {
+        asegurarDetalle();
         this.antecedentes = antecedentes;
     }
 
-    public String getMedicacionActual() {
+    public synchronized String getMedicacionActual() {
+        asegurarDetalle();
         return medicacionActual;
     }
 
-    public void setMedicacionActual(String medicacionActual) {
+    public synchronized void setMedicacionActual(String medicacionActual) {
+        asegurarDetalle();
         this.medicacionActual = medicacionActual;
     }
 
-    public String getObservaciones() {
+    public synchronized String getObservaciones() {
+        asegurarDetalle();
         return observaciones;
     }
 
-    public void setObservaciones(String observaciones) {
+    public synchronized void setObservaciones(String observaciones) {
+        asegurarDetalle();
         this.observaciones = observaciones;
     }
 
@@ -1,5 +1,8 @@
 package model;
 
+import mapping.Columna;
+import mapping.Entidad;
+
 import java.time.LocalDate;
 
 /**
@@ -9,12 +12,20 @@ import java.time.LocalDate;
  * con la clase {@link HistoriaClinica}. Extiende de {@link EntidadBase} para heredar
  * el identificador y el comportamiento de eliminación lógica.
  * </p>
+ * <p>
+ * El mapeo JDBC ({@link PacienteMapper}) se genera en tiempo de compilación a partir de las anotaciones.
+ * </p>
  */
+@Entidad(tabla = "paciente", alias = "p")
 public class Paciente extends EntidadBase {
 
+    @Columna
     private String nombre;
+    @Columna
     private String apellido;
+    @Columna
     private String dni;
+    @Columna
     private LocalDate fechaNacimiento;
     private HistoriaClinica historiaClinica;
 
@@ -73,6 +84,25 @@ public class Paciente extends EntidadBase {
         this.historiaClinica = historiaClinica;
     }
 
+    /**
+     * Constructor de copia.
+     * <p>
+     * Crea una copia independiente del paciente, incluyendo una copia de su Historia Clínica.
+     * Se utiliza para entregar instancias que el llamador puede modificar sin afectar
+     * al original (por ejemplo, las almacenadas en caché).
+     * </p>
+     *
+     * @param otro El paciente a copiar.
+     */
+    public Paciente(Paciente otro) {
+        super(otro);
+        this.nombre = otro.nombre;
+        this.apellido = otro.apellido;
+        this.dni = otro.dni;
+        this.fechaNacimiento = otro.fechaNacimiento;
+        this.historiaClinica = otro.historiaClinica != null ? new HistoriaClinica(otro.historiaClinica) : null;
+    }
+
     /**
      * Obtiene el nombre de pila del paciente.
      *
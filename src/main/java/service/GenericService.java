@@ -1,13 +1,53 @@
 package service;
 
+import config.AsyncExecutor;
+import dao.Page;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface GenericService<T> {
     T create(T t) throws SQLException;
     Optional<T> findById(Long id) throws SQLException;
     List<T> getAll() throws SQLException;
+    void streamAll(Consumer<? super T> consumidor) throws SQLException;
+    Page<T> getPage(String token, int tamanio) throws SQLException;
     void update(T t) throws SQLException;
+    Optional<T> modify(Long id, Consumer<? super T> cambios) throws SQLException;
     void delete(Long id) throws SQLException;
+
+    // Variantes asíncronas: se ejecutan en un hilo virtual mediante AsyncExecutor,
+    // con la concurrencia hacia la base de datos limitada al tamaño del pool.
+
+    default CompletableFuture<T> createAsync(T t) {
+        return AsyncExecutor.submit(() -> create(t));
+    }
+
+    default CompletableFuture<Optional<T>> findByIdAsync(Long id) {
+        return AsyncExecutor.submit(() -> findById(id));
+    }
+
+    default CompletableFuture<List<T>> getAllAsync() {
+        return AsyncExecutor.submit(this::getAll);
+    }
+
+    default CompletableFuture<Page<T>> getPageAsync(String token, int tamanio) {
+        return AsyncExecutor.submit(() -> getPage(token, tamanio));
+    }
+
+    default CompletableFuture<Void> updateAsync(T t) {
+        return AsyncExecutor.submit(() -> {
+            update(t);
+            return null;
+        });
+    }
+
+    default CompletableFuture<Void> deleteAsync(Long id) {
+        return AsyncExecutor.submit(() -> {
+            delete(id);
+            return null;
+        });
+    }
 }
@@ -1,10 +1,21 @@
 package service;
 
+import config.AsyncExecutor;
 import model.HistoriaClinica;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface HistoriaClinicaService extends GenericService<HistoriaClinica> {
     Optional<HistoriaClinica> findByPacienteId(Long pacienteId) throws SQLException;
+    Map<Long, HistoriaClinica> findByPacienteIds(Collection<Long> pacienteIds) throws SQLException;
     void deleteByPacienteId(Long pacienteId) throws SQLException;
+    void loadDetails(HistoriaClinica hc) throws SQLException;
+    void validar(HistoriaClinica h);
+
+    default CompletableFuture<Optional<HistoriaClinica>> findByPacienteIdAsync(Long pacienteId) {
+        return AsyncExecutor.submit(() -> findByPacienteId(pacienteId));
+    }
 }
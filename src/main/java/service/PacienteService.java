@@ -1,9 +1,28 @@
 package service;
 
+import config.AsyncExecutor;
+import dao.Page;
 import model.Paciente;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface PacienteService extends GenericService<Paciente> {
     Optional<Paciente> findByDni(String dni) throws SQLException;
+    Map<Long, Paciente> findByIds(Collection<Long> ids) throws SQLException;
+    Map<String, Paciente> findByDnis(Collection<String> dnis) throws SQLException;
+    List<Paciente> createAll(List<Paciente> pacientes) throws SQLException;
+    void streamWithoutHistory(Consumer<? super Paciente> consumidor) throws SQLException;
+    Page<Paciente> getSummaryPage(String token, int tamanio) throws SQLException;
+    Page<Paciente> searchByName(String apellido, String nombre, String token, int tamanio) throws SQLException;
+    void deleteAll(Collection<Long> ids) throws SQLException;
+    void validar(Paciente p);
+
+    default CompletableFuture<Optional<Paciente>> findByDniAsync(String dni) {
+        return AsyncExecutor.submit(() -> findByDni(dni));
+    }
 }
@@ -0,0 +1,193 @@
+package service.cache;
+
+import config.AsyncExecutor;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Agrupa búsquedas individuales concurrentes en consultas por lote (al estilo DataLoader).
+ * <p>
+ * Funcionamiento:
+ * <ul>
+ * <li><b>Ventana:</b> la primera clave de un lote abre una ventana corta; las claves pedidas durante
+ * esa ventana (por cualquier hilo) se resuelven juntas con una única llamada a la función de lote.</li>
+ * <li><b>Tamaño máximo:</b> si el lote alcanza el máximo antes de cerrarse la ventana, se despacha de inmediato.</li>
+ * <li><b>Deduplicación:</b> mientras una clave está pendiente o en curso, los nuevos pedidos de la misma clave
+ * reciben el mismo resultado sin volver a consultarla.</li>
+ * <li><b>Copias:</b> cada solicitante recibe su propia copia del valor, ya que el modelo es mutable.</li>
+ * </ul>
+ * Los lotes se ejecutan mediante {@link AsyncExecutor}. Todos los métodos son thread-safe.
+ * </p>
+ *
+ * @param <K> El tipo de la clave.
+ * @param <V> El tipo del valor.
+ */
+public class CargadorPorLotes<K, V> {
+
+    /**
+     * Resuelve un conjunto de claves en una única operación.
+     *
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     */
+    @FunctionalInterface
+    public interface FuncionLote<K, V> {
+        /**
+         * @param claves Las claves a resolver (sin repetidas).
+         * @return Mapa clave → valor; las claves sin valor no deben figurar.
+         * @throws SQLException Si falla la consulta.
+         */
+        Map<K, V> cargar(Set<K> claves) throws SQLException;
+    }
+
+    private static final ScheduledExecutorService TEMPORIZADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cargador-por-lotes");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final FuncionLote<K, V> funcion;
+    private final UnaryOperator<V> copiar;
+    private final long ventanaNanos;
+    private final int maxLote;
+
+    /** Pedidos pendientes o en curso, para deduplicar claves idénticas. */
+    private final Map<K, CompletableFuture<Optional<V>>> enCurso = new ConcurrentHashMap<>();
+
+    private Map<K, CompletableFuture<Optional<V>>> lote = new LinkedHashMap<>();
+    private long numeroLote;
+    private long lotes;
+    private long claves;
+    private long deduplicadas;
+
+    /**
+     * Crea un cargador.
+     *
+     * @param funcion Resuelve un lote de claves (ej: una consulta {@code WHERE ... IN (...)}).
+     * @param copiar  Genera la copia entregada a cada solicitante.
+     * @param ventana Tiempo máximo que una clave espera a que se completen otras en su lote.
+     * @param maxLote Cantidad de claves a partir de la cual el lote se despacha sin esperar.
+     * @throws IllegalArgumentException Si la ventana es negativa o el tamaño no es positivo.
+     */
+    public CargadorPorLotes(FuncionLote<K, V> funcion, UnaryOperator<V> copiar, Duration ventana, int maxLote) {
+        if (ventana.isNegative() || maxLote <= 0) {
+            throw new IllegalArgumentException("La ventana no puede ser negativa y el tamaño de lote debe ser positivo.");
+        }
+        this.funcion = funcion;
+        this.copiar = copiar;
+        this.ventanaNanos = ventana.toNanos();
+        this.maxLote = maxLote;
+    }
+
+    /**
+     * Solicita el valor de una clave. La consulta se realiza junto con las demás claves del lote actual.
+     *
+     * @param clave La clave a resolver.
+     * @return Un futuro con el valor (vacío si no existe). Si falla el lote, se completa con su excepción.
+     */
+    public CompletableFuture<Optional<V>> cargar(K clave) {
+        CompletableFuture<Optional<V>> futuro;
+        Map<K, CompletableFuture<Optional<V>>> despachar = null;
+        synchronized (this) {
+            futuro = enCurso.get(clave);
+            if (futuro != null) {
+                deduplicadas++;
+                return futuro.thenApply(this::copia);
+            }
+            futuro = new CompletableFuture<>();
+            enCurso.put(clave, futuro);
+            lote.put(clave, futuro);
+            claves++;
+            if (lote.size() >= maxLote) {
+                despachar = cerrarLote();
+            } else if (lote.size() == 1) {
+                long numero = numeroLote;
+                TEMPORIZADOR.schedule(() -> vencer(numero), ventanaNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (despachar != null) {
+            ejecutar(despachar);
+        }
+        return futuro.thenApply(this::copia);
+    }
+
+    /**
+     * Descarta la deduplicación de una clave: el próximo pedido volverá a consultarla.
+     * Debe invocarse tras modificar el dato, para no entregar el resultado de una consulta iniciada antes.
+     * Si la clave todavía espera en el lote abierto se conserva: su consulta aún no comenzó y verá la
+     * modificación, y un nuevo pedido debe sumarse a ese mismo futuro en lugar de reemplazarlo.
+     *
+     * @param clave La clave modificada.
+     */
+    public synchronized void olvidar(K clave) {
+        if (!lote.containsKey(clave)) {
+            enCurso.remove(clave);
+        }
+    }
+
+    /**
+     * Descarta la deduplicación de todas las claves cuya consulta ya comenzó (ver {@link #olvidar}).
+     */
+    public synchronized void olvidarTodo() {
+        enCurso.keySet().removeIf(clave -> !lote.containsKey(clave));
+    }
+
+    /**
+     * Devuelve un resumen con las estadísticas de uso.
+     *
+     * @return Texto con lotes ejecutados, claves pedidas, claves deduplicadas y tamaño promedio de lote.
+     */
+    public synchronized String resumen() {
+        double promedio = lotes == 0 ? 0 : (double) (claves - lote.size()) / lotes;
+        return String.format("CargadorPorLotes{lotes=%d, claves=%d, deduplicadas=%d, promedio=%.1f}",
+                lotes, claves, deduplicadas, promedio);
+    }
+
+    private void vencer(long numero) {
+        Map<K, CompletableFuture<Optional<V>>> despachar;
+        synchronized (this) {
+            if (numero != numeroLote || lote.isEmpty()) {
+                return; // el lote ya se despachó por tamaño
+            }
+            despachar = cerrarLote();
+        }
+        ejecutar(despachar);
+    }
+
+    private Map<K, CompletableFuture<Optional<V>>> cerrarLote() {
+        Map<K, CompletableFuture<Optional<V>>> cerrado = lote;
+        lote = new LinkedHashMap<>();
+        numeroLote++;
+        lotes++;
+        return cerrado;
+    }
+
+    private void ejecutar(Map<K, CompletableFuture<Optional<V>>> pedidos) {
+        AsyncExecutor.submit(() -> funcion.cargar(pedidos.keySet())).whenComplete((valores, error) -> {
+            Map<K, V> resultado = valores != null ? valores : Map.of();
+            pedidos.forEach((clave, futuro) -> {
+                enCurso.remove(clave, futuro);
+                if (error != null) {
+                    futuro.completeExceptionally(error);
+                } else {
+                    futuro.complete(Optional.ofNullable(resultado.get(clave)));
+                }
+            });
+        });
+    }
+
+    private Optional<V> copia(Optional<V> valor) {
+        return valor.map(copiar);
+    }
+}
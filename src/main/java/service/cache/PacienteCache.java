@@ -0,0 +1,187 @@
+package service.cache;
+
+import model.Paciente;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché en memoria de pacientes, indexada por ID y por DNI.
+ * <p>
+ * Características principales:
+ * <ul>
+ * <li><b>Acotada por tamaño:</b> política LRU; al superar la capacidad se descarta el paciente usado hace más tiempo.</li>
+ * <li><b>Acotada por tiempo:</b> cada entrada expira pasado el TTL configurado.</li>
+ * <li><b>Copias defensivas:</b> se almacenan y se entregan copias, de modo que modificar un paciente
+ * obtenido de la caché no altera la entrada almacenada.</li>
+ * <li><b>Invalidación segura:</b> cada invalidación incrementa una marca; una lectura que consultó la base
+ * antes de una invalidación no puede volver a cargar en la caché un dato ya obsoleto.</li>
+ * </ul>
+ * Todos los métodos son thread-safe.
+ * </p>
+ */
+public class PacienteCache {
+
+    private static final int CAPACIDAD_POR_DEFECTO = 10_000;
+    private static final Duration TTL_POR_DEFECTO = Duration.ofMinutes(5);
+
+    private static final PacienteCache COMPARTIDA = new PacienteCache(CAPACIDAD_POR_DEFECTO, TTL_POR_DEFECTO);
+
+    /**
+     * Entrada almacenada: la copia del paciente y su instante de expiración.
+     */
+    private record Entrada(Paciente paciente, long expiraNanos) {
+    }
+
+    private final int capacidad;
+    private final long ttlNanos;
+    private final Map<Long, Entrada> porId;
+    private final Map<String, Long> idPorDni = new HashMap<>();
+
+    private long marca;
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long expiraciones;
+
+    /**
+     * Crea una caché con la capacidad y el tiempo de vida indicados.
+     *
+     * @param capacidad Cantidad máxima de pacientes almacenados.
+     * @param ttl       Tiempo de vida de cada entrada.
+     * @throws IllegalArgumentException Si la capacidad o el TTL no son positivos.
+     */
+    public PacienteCache(int capacidad, Duration ttl) {
+        if (capacidad <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("La capacidad y el TTL de la caché deben ser positivos.");
+        }
+        this.capacidad = capacidad;
+        this.ttlNanos = ttl.toNanos();
+        this.porId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+                if (size() > PacienteCache.this.capacidad) {
+                    idPorDni.remove(eldest.getValue().paciente().getDni(), eldest.getKey());
+                    desalojos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene la instancia compartida por los servicios de la aplicación.
+     *
+     * @return La caché compartida.
+     */
+    public static PacienteCache compartida() {
+        return COMPARTIDA;
+    }
+
+    /**
+     * Busca un paciente por ID.
+     *
+     * @param id El ID del paciente.
+     * @return Una copia del paciente, o null si no está en caché o expiró.
+     */
+    public synchronized Paciente getById(Long id) {
+        Entrada e = porId.get(id);
+        if (e == null) {
+            fallos++;
+            return null;
+        }
+        if (System.nanoTime() - e.expiraNanos() > 0) {
+            quitar(id);
+            expiraciones++;
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        return new Paciente(e.paciente());
+    }
+
+    /**
+     * Busca un paciente por DNI.
+     *
+     * @param dni El DNI del paciente.
+     * @return Una copia del paciente, o null si no está en caché o expiró.
+     */
+    public synchronized Paciente getByDni(String dni) {
+        Long id = idPorDni.get(dni);
+        if (id == null) {
+            fallos++;
+            return null;
+        }
+        return getById(id);
+    }
+
+    /**
+     * Obtiene la marca de invalidación actual.
+     * Debe leerse <b>antes</b> de consultar la base de datos y pasarse luego a {@link #put}.
+     *
+     * @return La marca actual.
+     */
+    public synchronized long marca() {
+        return marca;
+    }
+
+    /**
+     * Almacena una copia del paciente, salvo que haya ocurrido alguna invalidación
+     * desde que se obtuvo la marca (en ese caso el dato leído podría estar obsoleto).
+     *
+     * @param p     El paciente leído de la base de datos.
+     * @param marca La marca obtenida antes de la lectura.
+     */
+    public synchronized void put(Paciente p, long marca) {
+        if (marca != this.marca || p.getId() == null) {
+            return;
+        }
+        quitar(p.getId());
+        porId.put(p.getId(), new Entrada(new Paciente(p), System.nanoTime() + ttlNanos));
+        idPorDni.put(p.getDni(), p.getId());
+    }
+
+    /**
+     * Descarta el paciente indicado (por ID y por DNI).
+     * Debe invocarse tras cualquier escritura que afecte al paciente o a su historia clínica.
+     *
+     * @param pacienteId El ID del paciente modificado.
+     */
+    public synchronized void invalidar(Long pacienteId) {
+        marca++;
+        if (pacienteId != null) {
+            quitar(pacienteId);
+        }
+    }
+
+    /**
+     * Descarta todas las entradas de la caché.
+     */
+    public synchronized void invalidarTodo() {
+        marca++;
+        porId.clear();
+        idPorDni.clear();
+    }
+
+    /**
+     * Devuelve un resumen con el tamaño actual y las estadísticas de uso.
+     *
+     * @return Texto con tamaño, aciertos, fallos, tasa de aciertos, desalojos y expiraciones.
+     */
+    public synchronized String resumen() {
+        long total = aciertos + fallos;
+        double tasa = total == 0 ? 0 : aciertos * 100.0 / total;
+        return String.format("PacienteCache{tamaño=%d/%d, aciertos=%d, fallos=%d, tasa=%.1f%%, desalojos=%d, expiraciones=%d}",
+                porId.size(), capacidad, aciertos, fallos, tasa, desalojos, expiraciones);
+    }
+
+    private void quitar(Long id) {
+        Entrada e = porId.remove(id);
+        if (e != null) {
+            idPorDni.remove(e.paciente().getDni(), id);
+        }
+    }
+}
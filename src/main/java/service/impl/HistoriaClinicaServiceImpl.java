@@ -1,41 +1,127 @@
 package service.impl;
 
 import config.DatabaseConnection;
-import dao.impl.HistoriaClinicaDaoImpl;
+import config.TransactionManager;
+import dao.ConflictoVersionException;
+import dao.HistoriaClinicaDao;
+import dao.Page;
+import dao.impl.DaoFactory;
+import model.CargadorDetalle;
 import model.HistoriaClinica;
 import service.HistoriaClinicaService;
-import java.sql.Connection;
+import service.PacienteService;
+import service.cache.CargadorPorLotes;
+import service.cache.PacienteCache;
+import service.validation.ReglasValidacion;
+import service.validation.ValidationException;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Implementación de la lógica de negocio para la entidad {@link HistoriaClinica}.
  * <p>
  * Gestiona las operaciones CRUD sobre las fichas médicas. Aunque muchas operaciones
- * son directas sobre una sola tabla, se mantiene el uso de transacciones (commit/rollback)
- * para garantizar la integridad y robustez ante fallos.
+ * son directas sobre una sola tabla, las escrituras se ejecutan con
+ * {@link TransactionManager#inTransaction} para garantizar la integridad ante fallos y poder
+ * componerse con otras operaciones dentro de una misma transacción.
  * </p>
  */
 public class HistoriaClinicaServiceImpl implements HistoriaClinicaService {
 
     /**
-     * Valida que la historia clínica tenga los datos mínimos necesarios.
+     * Tiempo que una búsqueda por paciente espera a que se sumen otras a su lote.
+     */
+    private static final Duration VENTANA_LOTE = Duration.ofMillis(2);
+
+    /**
+     * Cantidad de pacientes a partir de la cual el lote se consulta sin esperar la ventana.
+     */
+    private static final int MAX_LOTE = 1000;
+
+    /**
+     * Intentos de {@link #modify} ante un conflicto de versión antes de propagarlo.
+     */
+    private static final int MAX_INTENTOS = 3;
+
+    /**
+     * Cargador perezoso que se asigna a las historias resumidas: al acceder por primera vez a un
+     * campo de texto extenso, abre una conexión y lee el detalle de esa historia.
+     */
+    static final CargadorDetalle<HistoriaClinica> CARGADOR_DETALLE = hc -> {
+        try {
+            TransactionManager.inReadOnly(conn -> {
+                DaoFactory.historiaClinica(conn).loadDetails(hc);
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al cargar el detalle de la historia clínica: " + e.getMessage(), e);
+        }
+    };
+
+    private final PacienteCache pacienteCache;
+    private final CargadorPorLotes<Long, HistoriaClinica> cargador;
+
+    /**
+     * Constructor por defecto. Utiliza la caché de pacientes compartida.
+     */
+    public HistoriaClinicaServiceImpl() {
+        this(PacienteCache.compartida());
+    }
+
+    /**
+     * Constructor que inyecta la caché de pacientes.
+     * Las escrituras sobre historias clínicas invalidan al paciente dueño, ya que
+     * la caché almacena al paciente junto con su historia.
+     *
+     * @param pacienteCache La caché utilizada por {@link PacienteServiceImpl}.
+     */
+    public HistoriaClinicaServiceImpl(PacienteCache pacienteCache) {
+        this.pacienteCache = pacienteCache;
+        this.cargador = new CargadorPorLotes<>(this::findByPacienteIds, HistoriaClinica::new, VENTANA_LOTE, MAX_LOTE);
+    }
+
+    /**
+     * Valida que la historia clínica tenga los datos mínimos necesarios ({@link ReglasValidacion#HISTORIA}).
+     * No accede a la base de datos.
      *
      * @param h La historia clínica a validar.
-     * @throws IllegalArgumentException Si es nula o falta el número de historia.
+     * @throws ValidationException Si es nula, falta el número de historia o excede su longitud.
      */
-    private void validar(HistoriaClinica h) {
-        if (h == null) {
-            throw new IllegalArgumentException("La Historia Clínica no puede ser nula.");
-        }
-        if (h.getNroHistoria() == null || h.getNroHistoria().isBlank()) {
-            throw new IllegalArgumentException("El Nro. de Historia es obligatorio.");
+    @Override
+    public void validar(HistoriaClinica h) {
+        ReglasValidacion.HISTORIA.validar(h);
+    }
+
+    /**
+     * Invalida en la caché al paciente dueño de una historia.
+     * Si la historia no indica su paciente, se descarta toda la caché.
+     *
+     * @param pacienteId El ID del paciente, o null si se desconoce.
+     */
+    private void invalidarPaciente(Long pacienteId) {
+        if (pacienteId != null) {
+            pacienteCache.invalidar(pacienteId);
+            cargador.olvidar(pacienteId);
+        } else {
+            pacienteCache.invalidarTodo();
+            cargador.olvidarTodo();
         }
     }
 
     /**
      * Busca la Historia Clínica perteneciente a un paciente específico.
+     * <p>
+     * La consulta se hace directamente, sin esperar la ventana de agrupamiento: una búsqueda
+     * sincrónica aislada no paga esa demora ni bloquea un hilo (posiblemente del propio
+     * {@link config.AsyncExecutor}) esperando un lote. El agrupamiento se ofrece en
+     * {@link #findByPacienteIdAsync}.
+     * </p>
      *
      * @param pacienteId El ID del paciente dueño de la historia.
      * @return Un Optional con la historia si existe.
@@ -43,10 +129,62 @@ public class HistoriaClinicaServiceImpl implements HistoriaClinicaService {
      */
     @Override
     public Optional<HistoriaClinica> findByPacienteId(Long pacienteId) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()){
-            HistoriaClinicaDaoImpl hcDao = new HistoriaClinicaDaoImpl(conn);
-            return hcDao.findByPacienteId(pacienteId);
+        if (pacienteId == null) {
+            return Optional.empty();
+        }
+        return TransactionManager.inReadOnly(conn -> DaoFactory.historiaClinica(conn).findByPacienteId(pacienteId));
+    }
+
+    /**
+     * Variante asíncrona de {@link #findByPacienteId} que agrupa las búsquedas concurrentes.
+     * <p>
+     * Los pedidos que llegan dentro de la misma ventana (o hasta completar {@value #MAX_LOTE}
+     * pacientes) se resuelven con una única consulta {@link #findByPacienteIds}, y los pedidos
+     * repetidos de un mismo paciente comparten el resultado. El futuro se devuelve sin ocupar un hilo
+     * mientras se espera el lote.
+     * </p>
+     * <p>
+     * Dentro de una operación de {@link TransactionManager} la búsqueda se hace en el hilo llamador,
+     * con la conexión de la operación, para ver sus cambios aún no confirmados. Si el hilo está fijado
+     * a la base primaria por una escritura reciente, se busca directamente en otro hilo (el lote se lee
+     * de la réplica y podría no reflejar esa escritura).
+     * </p>
+     *
+     * @param pacienteId El ID del paciente dueño de la historia.
+     * @return Un futuro con la historia si existe.
+     */
+    @Override
+    public CompletableFuture<Optional<HistoriaClinica>> findByPacienteIdAsync(Long pacienteId) {
+        if (pacienteId == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        if (TransactionManager.isEnCurso()) {
+            try {
+                return CompletableFuture.completedFuture(findByPacienteId(pacienteId));
+            } catch (SQLException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (DatabaseConnection.isFijadoAPrimaria()) {
+            return HistoriaClinicaService.super.findByPacienteIdAsync(pacienteId);
+        }
+        return cargador.cargar(pacienteId);
+    }
+
+    /**
+     * Busca las Historias Clínicas de varios pacientes usando una única conexión
+     * y consultas por bloques.
+     *
+     * @param pacienteIds Los IDs de los pacientes.
+     * @return Mapa ID de paciente → historia, solo con los pacientes que tienen historia activa.
+     * @throws SQLException Si ocurre error de conexión.
+     */
+    @Override
+    public Map<Long, HistoriaClinica> findByPacienteIds(Collection<Long> pacienteIds) throws SQLException {
+        if (pacienteIds.isEmpty()) {
+            return Map.of();
         }
+        return TransactionManager.inReadOnly(conn -> DaoFactory.historiaClinica(conn).findByPacienteIds(pacienteIds));
     }
 
     /**
@@ -59,16 +197,13 @@ public class HistoriaClinicaServiceImpl implements HistoriaClinicaService {
      */
     @Override
     public void deleteByPacienteId(Long pacienteId) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()){
-            conn.setAutoCommit(false);
-            try {
-                HistoriaClinicaDaoImpl hcDao = new HistoriaClinicaDaoImpl(conn);
-                hcDao.deleteByPacienteId(pacienteId);
-                conn.commit();
-            } catch (Exception e){
-                conn.rollback();
-                throw new RuntimeException("Error en la transacción: " + e.getMessage(), e);
-            }
+        try {
+            TransactionManager.inTransaction(conn -> {
+                DaoFactory.historiaClinica(conn).deleteByPacienteId(pacienteId);
+                return null;
+            });
+        } finally {
+            TransactionManager.alFinalizar(() -> invalidarPaciente(pacienteId));
         }
     }
 
@@ -87,16 +222,13 @@ public class HistoriaClinicaServiceImpl implements HistoriaClinicaService {
     @Override
     public HistoriaClinica create(HistoriaClinica hc) throws SQLException {
         validar(hc);
-        try (Connection conn = DatabaseConnection.getConnection()){
-            conn.setAutoCommit(false);
-            try {
-                HistoriaClinicaDaoImpl hcDao = new HistoriaClinicaDaoImpl(conn);
-                hcDao.create(hc);
-                conn.commit();
-            } catch (Exception e){
-                conn.rollback();
-                throw new RuntimeException("Error en la transacción: " + e.getMessage(), e);
-            }
+        try {
+            TransactionManager.inTransaction(conn -> {
+                DaoFactory.historiaClinica(conn).create(hc);
+                return null;
+            });
+        } finally {
+            TransactionManager.alFinalizar(() -> invalidarPaciente(hc.getPacienteId()));
         }
         return hc;
     }
@@ -111,10 +243,7 @@ public class HistoriaClinicaServiceImpl implements HistoriaClinicaService {
      */
     @Override
     public Optional<HistoriaClinica> findById(Long id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()){
-            HistoriaClinicaDaoImpl hcDao = new HistoriaClinicaDaoImpl(conn);
-            return hcDao.findById(id);
-        }
+        return TransactionManager.inReadOnly(conn -> DaoFactory.historiaClinica(conn).findById(id));
     }
 
     /**
@@ -126,35 +255,124 @@ public class HistoriaClinicaServiceImpl implements HistoriaClinicaService {
      */
     @Override
     public List<HistoriaClinica> getAll() throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()){
-            HistoriaClinicaDaoImpl hcDao = new HistoriaClinicaDaoImpl(conn);
-            return hcDao.getAll();
+        return TransactionManager.inReadOnly(conn -> DaoFactory.historiaClinica(conn).getAll());
+    }
+
+    /**
+     * Recorre todos los registros activos sin cargarlos en memoria.
+     * La conexión permanece abierta solo mientras dura el recorrido.
+     * Operación de solo lectura.
+     *
+     * @param consumidor Acción a ejecutar por cada registro leído.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public void streamAll(Consumer<? super HistoriaClinica> consumidor) throws SQLException {
+        TransactionManager.inReadOnly(conn -> {
+            DaoFactory.historiaClinica(conn).streamAll(consumidor);
+            return null;
+        });
+    }
+
+    /**
+     * Recupera una página de registros activos usando paginación por clave.
+     * Operación de solo lectura.
+     *
+     * @param token   Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio Cantidad máxima de elementos por página.
+     * @return La página solicitada.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public Page<HistoriaClinica> getPage(String token, int tamanio) throws SQLException {
+        return TransactionManager.inReadOnly(conn -> DaoFactory.historiaClinica(conn).getPage(token, tamanio));
+    }
+
+    /**
+     * Completa las columnas de texto extenso de una historia obtenida como resumen
+     * (ver {@link PacienteService#getSummaryPage}). Si el detalle ya estaba cargado no consulta la base.
+     * Operación de solo lectura.
+     *
+     * @param hc La historia a completar.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public void loadDetails(HistoriaClinica hc) throws SQLException {
+        if (hc == null || hc.isDetalleCargado()) {
+            return;
         }
+        TransactionManager.inReadOnly(conn -> {
+            DaoFactory.historiaClinica(conn).loadDetails(hc);
+            return null;
+        });
     }
 
     /**
      * Actualiza los datos de una historia clínica (Observaciones, medicación, etc.).
-     * Operación transaccional.
+     * Operación transaccional. Invalida en la caché al paciente dueño de la historia.
      *
      * @param hc La historia con los datos nuevos.
      * @throws SQLException Error de BD.
+     * @throws ConflictoVersionException Si otra operación modificó la historia desde que se leyó.
      * @throws RuntimeException Si falla la transacción.
      */
     @Override
     public void update(HistoriaClinica hc) throws SQLException {
         validar(hc);
-        try (Connection conn = DatabaseConnection.getConnection()){
-            conn.setAutoCommit(false);
+        try {
+            TransactionManager.inTransaction(conn -> {
+                DaoFactory.historiaClinica(conn).update(hc);
+                return null;
+            });
+        } finally {
+            TransactionManager.alFinalizar(() -> invalidarPaciente(hc.getPacienteId()));
+        }
+    }
+
+    /**
+     * Lee la historia, le aplica los cambios y la actualiza en una misma transacción.
+     * <p>
+     * Si otra operación la modificó entre la lectura y la escritura ({@link ConflictoVersionException}),
+     * se vuelve a leer y se aplican los cambios sobre los datos nuevos, hasta {@value #MAX_INTENTOS}
+     * intentos. Dentro de una transacción en curso no se reintenta. {@code cambios} debe poder
+     * aplicarse más de una vez.
+     * </p>
+     * <p>
+     * Como la lectura ocurre aquí, no detecta cambios hechos desde que un usuario vio los datos: para
+     * guardar una edición hecha sobre datos mostrados debe usarse {@link #update} con la historia
+     * leída, que exige su versión.
+     * </p>
+     *
+     * @param id      El ID de la historia.
+     * @param cambios Modificaciones a aplicar sobre la historia leída.
+     * @return La historia actualizada, o vacío si no existe.
+     * @throws SQLException Error de BD.
+     * @throws ValidationException Si la historia modificada no supera la validación.
+     * @throws ConflictoVersionException Si el conflicto persiste tras todos los intentos.
+     */
+    @Override
+    public Optional<HistoriaClinica> modify(Long id, Consumer<? super HistoriaClinica> cambios) throws SQLException {
+        boolean reintentar = !TransactionManager.isEnCurso();
+        for (int intento = 1; ; intento++) {
             try {
-                HistoriaClinicaDaoImpl hcDao = new HistoriaClinicaDaoImpl(conn);
-                hcDao.update(hc);
-                conn.commit();
-            } catch (Exception e){
-                conn.rollback();
-                throw new RuntimeException("Error en la transacción: " + e.getMessage(), e);
+                return TransactionManager.inTransaction(conn -> {
+                    HistoriaClinicaDao dao = DaoFactory.historiaClinica(conn);
+                    Optional<HistoriaClinica> leida = dao.findById(id);
+                    if (leida.isPresent()) {
+                        HistoriaClinica hc = leida.get();
+                        TransactionManager.alFinalizar(() -> invalidarPaciente(hc.getPacienteId()));
+                        cambios.accept(hc);
+                        validar(hc);
+                        dao.update(hc);
+                    }
+                    return leida;
+                });
+            } catch (ConflictoVersionException e) {
+                if (!reintentar || intento == MAX_INTENTOS) {
+                    throw e;
+                }
             }
         }
-
     }
 
     /**
@@ -170,16 +388,14 @@ public class HistoriaClinicaServiceImpl implements HistoriaClinicaService {
      */
     @Override
     public void delete(Long id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()){
-            conn.setAutoCommit(false);
-            try {
-                HistoriaClinicaDaoImpl hcDao = new HistoriaClinicaDaoImpl(conn);
-                hcDao.delete(id);
-                conn.commit();
-            } catch (Exception e){
-                conn.rollback();
-                throw new RuntimeException("Error en la transacción: " + e.getMessage(), e);
-            }
+        try {
+            TransactionManager.inTransaction(conn -> {
+                DaoFactory.historiaClinica(conn).delete(id);
+                return null;
+            });
+        } finally {
+            // Solo se conoce el ID de la historia, no el del paciente: se descarta toda la caché
+            TransactionManager.alFinalizar(() -> invalidarPaciente(null));
         }
     }
 }
\ No newline at end of file
@@ -1,42 +1,91 @@
 package service.impl;
 
 import config.DatabaseConnection;
-import dao.impl.HistoriaClinicaDaoImpl;
-import dao.impl.PacienteDaoImpl;
+import config.TransactionManager;
+import dao.ConflictoVersionException;
+import dao.HistoriaClinicaDao;
+import dao.Page;
+import dao.PacienteDao;
+import dao.impl.DaoFactory;
 import model.HistoriaClinica;
 import model.Paciente;
 import service.PacienteService;
-import java.sql.Connection;
+import service.cache.PacienteCache;
+import service.validation.ReglasValidacion;
+import service.validation.ValidationException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementación de la lógica de negocio para la entidad {@link Paciente}.
  * <p>
- * Esta clase actúa como el <b>Gestor de Transacciones</b>. Es responsable de:
- * <ol>
- * <li>Abrir y cerrar la conexión a la base de datos (usando try-with-resources).</li>
- * <li>Controlar la atomicidad de las operaciones (commit/rollback).</li>
- * <li>Orquestar los DAOs necesarios para completar una operación de negocio.</li>
- * </ol>
+ * Orquesta los DAOs necesarios para completar cada operación de negocio. La obtención de la
+ * conexión y el control de la atomicidad (commit/rollback) se delegan en {@link TransactionManager}:
+ * las escrituras se ejecutan con {@link TransactionManager#inTransaction} y las lecturas con
+ * {@link TransactionManager#inReadOnly}, de modo que una llamada anidada reutiliza la conexión
+ * y la transacción de la operación que la contiene.
  * </p>
  */
 public class PacienteServiceImpl implements PacienteService {
 
     /**
-     * Valida las reglas de negocio para un Paciente antes de persistirlo.
-     * Checks: Nulidad, campos obligatorios y existencia de Historia Clínica inicial.
+     * Cantidad de pacientes insertados o dados de baja por transacción en las operaciones masivas.
+     */
+    private static final int TAMANIO_LOTE = 1000;
+
+    /** Código de error de MySQL para una clave única duplicada. */
+    private static final int ER_DUP_ENTRY = 1062;
+
+    /** Código de error equivalente de H2 (base de los benchmarks). */
+    private static final int H2_DUPLICATE_KEY = 23505;
+
+    /** Nombre de la restricción única del DNI en {@code sql/create_bd.sql}. */
+    private static final String RESTRICCION_DNI = "uk_paciente_dni";
+
+    /**
+     * Intentos de {@link #modify} ante un conflicto de versión antes de propagarlo.
+     */
+    private static final int MAX_INTENTOS = 3;
+
+    private final PacienteCache cache;
+
+    /**
+     * Constructor por defecto. Utiliza la caché de pacientes compartida.
+     */
+    public PacienteServiceImpl() {
+        this(PacienteCache.compartida());
+    }
+
+    /**
+     * Constructor que inyecta la caché de pacientes.
+     * Debe ser la misma instancia utilizada por {@link HistoriaClinicaServiceImpl},
+     * ya que los cambios en historias clínicas también la invalidan.
+     *
+     * @param cache Caché de lectura para búsquedas por ID y DNI.
+     */
+    public PacienteServiceImpl(PacienteCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Valida las reglas de alta de un Paciente antes de persistirlo ({@link ReglasValidacion#PACIENTE_ALTA}):
+     * campos obligatorios, formato del DNI, longitud de los nombres y la Historia Clínica inicial.
+     * No accede a la base de datos.
      *
      * @param p El paciente a validar.
-     * @throws IllegalArgumentException Si alguna regla de validación falla.
+     * @throws ValidationException Con todas las reglas incumplidas, si alguna falla.
      */
-    private void validar(Paciente p) {
-        if (p == null) throw new IllegalArgumentException("El paciente no puede ser nulo.");
-        if (p.getDni() == null || p.getDni().isBlank()) throw new IllegalArgumentException("El DNI es obligatorio.");
-        if (p.getNombre() == null || p.getNombre().isBlank()) throw new IllegalArgumentException("El Nombre es obligatorio.");
-        if (p.getApellido() == null || p.getApellido().isBlank()) throw new IllegalArgumentException("El Apellido es obligatorio.");
-        if (p.getHistoriaClinica() == null) throw new IllegalArgumentException("El paciente debe tener una Historia Clínica inicial.");
+    @Override
+    public void validar(Paciente p) {
+        ReglasValidacion.PACIENTE_ALTA.validar(p);
     }
 
     /**
@@ -44,13 +93,18 @@ public class PacienteServiceImpl implements PacienteService {
      * <p>
      * Flujo de la transacción:
      * <ol>
-     * <li>Verifica que no exista un paciente con el mismo DNI.</li>
-     * <li>Inserta el Paciente (y obtiene su ID autogenerado).</li>
+     * <li>Inserta el Paciente (y obtiene su ID autogenerado). Si el DNI ya existe, la restricción
+     * única {@code uk_paciente_dni} rechaza la inserción; cualquier otra violación de integridad se
+     * propaga sin convertirse en un error de DNI duplicado.</li>
      * <li>Asigna el ID del Paciente a la Historia Clínica.</li>
      * <li>Inserta la Historia Clínica.</li>
      * <li>Si todo es exitoso, realiza commit. Si falla, realiza rollback.</li>
      * </ol>
      * </p>
+     * <p>
+     * No se consulta el DNI antes de insertar: la unicidad la garantiza la base de datos, lo que ahorra
+     * una consulta por alta y es correcto aun con altas concurrentes del mismo DNI.
+     * </p>
      *
      * @param p El objeto Paciente (que contiene la Historia Clínica anidada).
      * @return El Paciente persistido con su ID actualizado.
@@ -62,41 +116,94 @@ public class PacienteServiceImpl implements PacienteService {
     public Paciente create(Paciente p) throws SQLException {
         validar(p);
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
+        return TransactionManager.inTransaction(conn -> {
+            PacienteDao pacienteDao = DaoFactory.paciente(conn);
 
+            // 1. Guardar Paciente (solo la violación del índice único del DNI se informa como duplicado)
             try {
-                PacienteDaoImpl pacienteDao = new PacienteDaoImpl(conn);
-
-                if (pacienteDao.findByDni(p.getDni()).isPresent()) {
-                    throw new IllegalArgumentException("Ya existe un paciente con el DNI: " + p.getDni());
+                pacienteDao.create(p);
+            } catch (SQLException e) {
+                if (esDniDuplicado(e)) {
+                    throw new IllegalArgumentException("Ya existe un paciente con el DNI: " + p.getDni(), e);
                 }
+                throw e;
+            }
 
-                // 1. Guardar Paciente
-                pacienteDao.create(p);
+            // 2. Vincular Historia con el nuevo ID del Paciente
+            HistoriaClinica historia = p.getHistoriaClinica();
+            historia.setPacienteId(p.getId());
 
-                // 2. Vincular Historia con el nuevo ID del Paciente
-                HistoriaClinica historia = p.getHistoriaClinica();
-                historia.setPacienteId(p.getId());
+            // 3. Guardar Historia Clínica
+            HistoriaClinicaDao historiaDao = DaoFactory.historiaClinica(conn);
+            historiaDao.create(historia);
 
-                // 3. Guardar Historia Clínica
-                HistoriaClinicaDaoImpl historiaDao = new HistoriaClinicaDaoImpl(conn);
-                historiaDao.create(historia);
+            return p;
+        });
+    }
 
-                conn.commit();
+    /**
+     * Indica si el error es una violación del índice único del DNI ({@code uk_paciente_dni}).
+     * Las demás violaciones de integridad (claves foráneas, {@code NOT NULL}, {@code CHECK}) no lo son.
+     *
+     * @param e El error de la inserción.
+     * @return true si se rechazó por un DNI ya existente.
+     */
+    private static boolean esDniDuplicado(SQLException e) {
+        boolean claveDuplicada = e.getErrorCode() == ER_DUP_ENTRY || e.getErrorCode() == H2_DUPLICATE_KEY;
+        return claveDuplicada && e.getMessage() != null
+                && e.getMessage().toLowerCase().contains(RESTRICCION_DNI);
+    }
+
+    /**
+     * Crea un conjunto de Pacientes con sus Historias Clínicas usando inserciones en batch.
+     * <p>
+     * Todos los pacientes se validan antes de abrir la conexión; si alguno es inválido no se inserta
+     * ninguno y la excepción informa las violaciones de todos. Luego se procesan en lotes de
+     * {@value #TAMANIO_LOTE}: cada lote inserta los pacientes con un único {@code executeBatch},
+     * vincula los IDs generados a sus historias, inserta las historias en batch y confirma.
+     * </p>
+     * <p>
+     * <b>Nota:</b> Cada lote es una transacción independiente. Si un lote falla, se revierte
+     * solo ese lote; los anteriores ya quedaron confirmados. Si se invoca dentro de otra transacción,
+     * los lotes se unen a ella y se confirman o revierten juntos. A diferencia de {@link #create},
+     * no se consulta previamente el DNI: los duplicados se detectan por el índice único.
+     * </p>
+     *
+     * @param pacientes Los pacientes a crear (cada uno con su Historia Clínica).
+     * @return La misma lista, con los IDs asignados.
+     * @throws SQLException Si ocurre un error de conexión.
+     * @throws RuntimeException Si falla alguno de los lotes (provoca rollback de ese lote).
+     * @throws ValidationException Si algún paciente no supera la validación.
+     */
+    @Override
+    public List<Paciente> createAll(List<Paciente> pacientes) throws SQLException {
+        ReglasValidacion.PACIENTE_ALTA.validarTodos(pacientes);
 
-                return p;
+        for (int desde = 0; desde < pacientes.size(); desde += TAMANIO_LOTE) {
+            List<Paciente> lote = pacientes.subList(desde, Math.min(desde + TAMANIO_LOTE, pacientes.size()));
+            try {
+                TransactionManager.inTransaction(conn -> {
+                    DaoFactory.paciente(conn).createAll(lote);
 
-            } catch (Exception e) {
-                conn.rollback();
-                throw new RuntimeException("Error en la transacción: " + e.getMessage(), e);
+                    List<HistoriaClinica> historias = new ArrayList<>(lote.size());
+                    for (Paciente p : lote) {
+                        HistoriaClinica historia = p.getHistoriaClinica();
+                        historia.setPacienteId(p.getId());
+                        historias.add(historia);
+                    }
+                    DaoFactory.historiaClinica(conn).createAll(historias);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Error en el lote que comienza en la posición " + desde + ": " + e.getMessage(), e);
             }
         }
+        return pacientes;
     }
 
     /**
      * Busca un paciente por su DNI.
-     * Operación de solo lectura.
+     * Operación de solo lectura. Consulta primero la caché y solo accede a la base si no encuentra el dato.
      *
      * @param dni El documento a buscar.
      * @return Un Optional con el paciente si existe.
@@ -104,15 +211,22 @@ public class PacienteServiceImpl implements PacienteService {
      */
     @Override
     public Optional<Paciente> findByDni(String dni) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PacienteDaoImpl dao = new PacienteDaoImpl(conn);
-            return dao.findByDni(dni);
+        Paciente cacheado = cache.getByDni(dni);
+        if (cacheado != null) {
+            return Optional.of(cacheado);
         }
+        long marca = cache.marca();
+        boolean cacheable = !DatabaseConnection.isReplicaPosiblementeAtrasada();
+        Optional<Paciente> encontrado = TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).findByDni(dni));
+        if (cacheable) {
+            encontrado.ifPresent(p -> cache.put(p, marca));
+        }
+        return encontrado;
     }
 
     /**
      * Busca un paciente por su ID.
-     * Operación de solo lectura.
+     * Operación de solo lectura. Consulta primero la caché y solo accede a la base si no encuentra el dato.
      *
      * @param id El identificador del paciente.
      * @return Un Optional con el paciente si existe.
@@ -120,10 +234,97 @@ public class PacienteServiceImpl implements PacienteService {
      */
     @Override
     public Optional<Paciente> findById(Long id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PacienteDaoImpl dao = new PacienteDaoImpl(conn);
-            return dao.findById(id);
+        Paciente cacheado = cache.getById(id);
+        if (cacheado != null) {
+            return Optional.of(cacheado);
+        }
+        long marca = cache.marca();
+        boolean cacheable = !DatabaseConnection.isReplicaPosiblementeAtrasada();
+        Optional<Paciente> encontrado = TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).findById(id));
+        if (cacheable) {
+            encontrado.ifPresent(p -> cache.put(p, marca));
+        }
+        return encontrado;
+    }
+
+    /**
+     * Busca varios pacientes por ID.
+     * Operación de solo lectura. Los pacientes presentes en la caché no se consultan; el resto
+     * se obtiene con una única conexión y consultas por bloques, y se almacena en la caché.
+     *
+     * @param ids Los IDs a buscar.
+     * @return Mapa ID → paciente, solo con los pacientes encontrados.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public Map<Long, Paciente> findByIds(Collection<Long> ids) throws SQLException {
+        Map<Long, Paciente> resultado = new HashMap<>(ids.size() * 2);
+        Set<Long> faltantes = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null || resultado.containsKey(id)) {
+                continue;
+            }
+            Paciente cacheado = cache.getById(id);
+            if (cacheado != null) {
+                resultado.put(id, cacheado);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return resultado;
         }
+
+        long marca = cache.marca();
+        boolean cacheable = !DatabaseConnection.isReplicaPosiblementeAtrasada();
+        Map<Long, Paciente> encontrados = TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).findByIds(faltantes));
+        if (cacheable) {
+            for (Paciente p : encontrados.values()) {
+                cache.put(p, marca);
+            }
+        }
+        resultado.putAll(encontrados);
+        return resultado;
+    }
+
+    /**
+     * Busca varios pacientes por DNI.
+     * Operación de solo lectura. Los pacientes presentes en la caché no se consultan; el resto
+     * se obtiene con una única conexión y consultas por bloques, y se almacena en la caché.
+     *
+     * @param dnis Los DNIs a buscar.
+     * @return Mapa DNI → paciente, solo con los pacientes encontrados.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public Map<String, Paciente> findByDnis(Collection<String> dnis) throws SQLException {
+        Map<String, Paciente> resultado = new HashMap<>(dnis.size() * 2);
+        Set<String> faltantes = new LinkedHashSet<>();
+        for (String dni : dnis) {
+            if (dni == null || resultado.containsKey(dni)) {
+                continue;
+            }
+            Paciente cacheado = cache.getByDni(dni);
+            if (cacheado != null) {
+                resultado.put(dni, cacheado);
+            } else {
+                faltantes.add(dni);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return resultado;
+        }
+
+        long marca = cache.marca();
+        boolean cacheable = !DatabaseConnection.isReplicaPosiblementeAtrasada();
+        Map<String, Paciente> encontrados = TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).findByDnis(faltantes));
+        if (cacheable) {
+            for (Paciente p : encontrados.values()) {
+                cache.put(p, marca);
+            }
+        }
+        resultado.putAll(encontrados);
+        return resultado;
     }
 
     /**
@@ -135,25 +336,205 @@ public class PacienteServiceImpl implements PacienteService {
      */
     @Override
     public List<Paciente> getAll() throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PacienteDaoImpl dao = new PacienteDaoImpl(conn);
-            return dao.getAll();
+        return TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).getAll());
+    }
+
+    /**
+     * Recorre todos los registros activos sin cargarlos en memoria.
+     * La conexión permanece abierta solo mientras dura el recorrido.
+     * Operación de solo lectura.
+     *
+     * @param consumidor Acción a ejecutar por cada registro leído.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public void streamAll(Consumer<? super Paciente> consumidor) throws SQLException {
+        TransactionManager.inReadOnly(conn -> {
+            DaoFactory.paciente(conn).streamAll(consumidor);
+            return null;
+        });
+    }
+
+    /**
+     * Recorre todos los pacientes activos sin su historia clínica, sin cargarlos en memoria.
+     * La conexión permanece abierta solo mientras dura el recorrido.
+     * Operación de solo lectura.
+     *
+     * @param consumidor Acción a ejecutar por cada paciente leído.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public void streamWithoutHistory(Consumer<? super Paciente> consumidor) throws SQLException {
+        TransactionManager.inReadOnly(conn -> {
+            DaoFactory.paciente(conn).streamWithoutHistory(consumidor);
+            return null;
+        });
+    }
+
+    /**
+     * Recupera una página de registros activos usando paginación por clave.
+     * Operación de solo lectura.
+     *
+     * @param token   Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio Cantidad máxima de elementos por página.
+     * @return La página solicitada.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public Page<Paciente> getPage(String token, int tamanio) throws SQLException {
+        return TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).getPage(token, tamanio));
+    }
+
+    /**
+     * Recupera una página de pacientes con la historia clínica resumida (sin antecedentes,
+     * medicación ni observaciones). Cada historia recibe un cargador perezoso que lee esos campos
+     * en una consulta aparte solo si se accede a ellos. Los resultados no se guardan en la caché,
+     * que solo almacena entidades completas.
+     * Operación de solo lectura.
+     *
+     * @param token   Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio Cantidad máxima de elementos por página.
+     * @return La página solicitada.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public Page<Paciente> getSummaryPage(String token, int tamanio) throws SQLException {
+        Page<Paciente> pagina = TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).getSummaryPage(token, tamanio));
+        return conCargadorDetalle(pagina);
+    }
+
+    /**
+     * Busca pacientes por prefijo de apellido y, opcionalmente, de nombre, sin distinguir mayúsculas
+     * ni acentos. Devuelve resúmenes paginados por clave, igual que {@link #getSummaryPage}.
+     * Operación de solo lectura.
+     *
+     * @param apellido Prefijo del apellido (obligatorio).
+     * @param nombre   Prefijo del nombre, o null para no filtrar por nombre.
+     * @param token    Token de continuación de la página anterior, o null para la primera.
+     * @param tamanio  Cantidad máxima de elementos por página.
+     * @return La página solicitada.
+     * @throws SQLException Si ocurre un error de conexión.
+     */
+    @Override
+    public Page<Paciente> searchByName(String apellido, String nombre, String token, int tamanio) throws SQLException {
+        Page<Paciente> pagina = TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).searchByName(apellido, nombre, token, tamanio));
+        return conCargadorDetalle(pagina);
+    }
+
+    /**
+     * Asigna el cargador perezoso del detalle a las historias resumidas de una página.
+     */
+    private static Page<Paciente> conCargadorDetalle(Page<Paciente> pagina) {
+        for (Paciente p : pagina.getItems()) {
+            HistoriaClinica hc = p.getHistoriaClinica();
+            if (hc != null) {
+                hc.setCargadorDetalle(HistoriaClinicaServiceImpl.CARGADOR_DETALLE);
+            }
         }
+        return pagina;
     }
 
     /**
      * Actualiza los datos personales de un paciente.
-     * No afecta a la Historia Clínica (se debe usar el servicio de Historia para eso).
+     * No afecta a la Historia Clínica (se debe usar el servicio de Historia para eso), por lo que
+     * solo se validan los datos personales ({@link ReglasValidacion#PACIENTE_MODIFICACION}).
+     * Se ejecuta en una transacción (o se une a la que esté en curso) e invalida la entrada
+     * del paciente en la caché cuando esta finaliza.
      *
      * @param p El paciente con datos modificados.
      * @throws SQLException Si ocurre un error de conexión.
+     * @throws ConflictoVersionException Si otra operación modificó al paciente desde que se leyó.
      */
     @Override
     public void update(Paciente p) throws SQLException {
-        validar(p);
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PacienteDaoImpl dao = new PacienteDaoImpl(conn);
-            dao.update(p);
+        ReglasValidacion.PACIENTE_MODIFICACION.validar(p);
+        try {
+            TransactionManager.inTransaction(conn -> {
+                DaoFactory.paciente(conn).update(p);
+                return null;
+            });
+        } finally {
+            TransactionManager.alFinalizar(() -> cache.invalidar(p.getId()));
+        }
+    }
+
+    /**
+     * Realiza la baja lógica de varios pacientes y de sus historias clínicas.
+     * <p>
+     * Los IDs se procesan en lotes de {@value #TAMANIO_LOTE}, cada uno en su propia transacción con
+     * una única sentencia multi-tabla, de modo que los bloqueos se liberan tras cada lote. Si un lote
+     * falla, los anteriores ya quedaron confirmados. Los pacientes de cada lote se invalidan en la
+     * caché al finalizar su transacción.
+     * </p>
+     *
+     * @param ids Los IDs de los pacientes a eliminar (se ignoran nulos y repetidos).
+     * @throws SQLException Si ocurre un error de conexión.
+     * @throws RuntimeException Si falla alguno de los lotes (provoca rollback de ese lote).
+     */
+    @Override
+    public void deleteAll(Collection<Long> ids) throws SQLException {
+        List<Long> claves = new ArrayList<>(new LinkedHashSet<>(ids));
+        claves.remove(null);
+
+        for (int desde = 0; desde < claves.size(); desde += TAMANIO_LOTE) {
+            List<Long> lote = claves.subList(desde, Math.min(desde + TAMANIO_LOTE, claves.size()));
+            try {
+                TransactionManager.inTransaction(conn -> {
+                    DaoFactory.paciente(conn).deleteAll(lote);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Error en el lote que comienza en la posición " + desde + ": " + e.getMessage(), e);
+            } finally {
+                TransactionManager.alFinalizar(() -> lote.forEach(cache::invalidar));
+            }
+        }
+    }
+
+    /**
+     * Lee el paciente, le aplica los cambios y lo actualiza en una misma transacción.
+     * <p>
+     * Si otra operación lo modificó entretanto ({@link ConflictoVersionException}), se vuelve a leer
+     * y se aplican los cambios sobre los datos nuevos, hasta {@value #MAX_INTENTOS} intentos. Dentro
+     * de una transacción en curso no se reintenta (volvería a leer la misma instantánea): el conflicto
+     * se propaga para que la operación externa decida. Por eso {@code cambios} debe poder aplicarse
+     * más de una vez.
+     * </p>
+     * <p>
+     * Como la lectura ocurre aquí, no detecta cambios hechos desde que un usuario vio los datos: para
+     * guardar una edición hecha sobre datos mostrados debe usarse {@link #update} con el paciente
+     * leído, que exige su versión.
+     * </p>
+     *
+     * @param id      El ID del paciente.
+     * @param cambios Modificaciones a aplicar sobre el paciente leído.
+     * @return El paciente actualizado, o vacío si no existe.
+     * @throws SQLException Si ocurre un error de conexión.
+     * @throws ValidationException Si el paciente modificado no supera la validación.
+     * @throws ConflictoVersionException Si el conflicto persiste tras todos los intentos.
+     */
+    @Override
+    public Optional<Paciente> modify(Long id, Consumer<? super Paciente> cambios) throws SQLException {
+        boolean reintentar = !TransactionManager.isEnCurso();
+        for (int intento = 1; ; intento++) {
+            try {
+                return TransactionManager.inTransaction(conn -> {
+                    TransactionManager.alFinalizar(() -> cache.invalidar(id));
+                    PacienteDao dao = DaoFactory.paciente(conn);
+                    Optional<Paciente> leido = dao.findById(id);
+                    if (leido.isPresent()) {
+                        Paciente p = leido.get();
+                        cambios.accept(p);
+                        ReglasValidacion.PACIENTE_MODIFICACION.validar(p);
+                        dao.update(p);
+                    }
+                    return leido;
+                });
+            } catch (ConflictoVersionException e) {
+                if (!reintentar || intento == MAX_INTENTOS) {
+                    throw e;
+                }
+            }
         }
     }
 
@@ -162,6 +543,7 @@ public class PacienteServiceImpl implements PacienteService {
      * <p>
      * Se ejecuta en una transacción para asegurar que no queden datos inconsistentes
      * (por ejemplo, un paciente borrado pero con historia activa).
+     * Invalida la entrada del paciente en la caché cuando la transacción finaliza.
      * </p>
      *
      * @param id El ID del paciente a eliminar.
@@ -170,20 +552,17 @@ public class PacienteServiceImpl implements PacienteService {
      */
     @Override
     public void delete(Long id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                HistoriaClinicaDaoImpl historiaDao = new HistoriaClinicaDaoImpl(conn);
+        try {
+            TransactionManager.inTransaction(conn -> {
+                HistoriaClinicaDao historiaDao = DaoFactory.historiaClinica(conn);
                 historiaDao.deleteByPacienteId(id);
 
-                PacienteDaoImpl pacienteDao = new PacienteDaoImpl(conn);
+                PacienteDao pacienteDao = DaoFactory.paciente(conn);
                 pacienteDao.delete(id);
-
-                conn.commit();
-            } catch (Exception e) {
-                conn.rollback();
-                throw new RuntimeException("Error al eliminar paciente: " + e.getMessage());
-            }
+                return null;
+            });
+        } finally {
+            TransactionManager.alFinalizar(() -> cache.invalidar(id));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package service.validation;
+
+import model.HistoriaClinica;
+import model.HistoriaClinica.GrupoSanguineo;
+import model.Paciente;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reglas de validación de las entidades, alineadas con las restricciones de {@code sql/create_bd.sql}.
+ * <p>
+ * Hay conjuntos distintos para alta y modificación: un paciente nuevo debe traer su historia clínica
+ * inicial, mientras que la modificación de sus datos personales no la necesita.
+ * </p>
+ */
+public final class ReglasValidacion {
+
+    /** Longitud de {@code paciente.nombre} y {@code paciente.apellido}. */
+    public static final int LONGITUD_NOMBRE = 80;
+
+    /** Longitud de {@code historia_clinica.nro_historia}. */
+    public static final int LONGITUD_NRO_HISTORIA = 20;
+
+    private static final Pattern DNI = Pattern.compile("\\d{7,8}");
+
+    /** Reglas de una historia clínica, tanto en alta como en modificación. */
+    public static final Validator<HistoriaClinica> HISTORIA = Validator.<HistoriaClinica>builder()
+            .siNulo("La Historia Clínica no puede ser nula.")
+            .obligatorio(HistoriaClinica::getNroHistoria, "Nro. de Historia")
+            .longitudMaxima(HistoriaClinica::getNroHistoria, "Nro. de Historia", LONGITUD_NRO_HISTORIA)
+            .build();
+
+    /** Reglas de los datos personales de un paciente, sin considerar su historia clínica. */
+    public static final Validator<Paciente> PACIENTE_MODIFICACION = Validator.<Paciente>builder()
+            .siNulo("El paciente no puede ser nulo.")
+            .obligatorio(Paciente::getDni, "DNI")
+            .formato(Paciente::getDni, "DNI", DNI, "tener 7 u 8 dígitos, sin puntos")
+            .obligatorio(Paciente::getNombre, "Nombre")
+            .longitudMaxima(Paciente::getNombre, "Nombre", LONGITUD_NOMBRE)
+            .obligatorio(Paciente::getApellido, "Apellido")
+            .longitudMaxima(Paciente::getApellido, "Apellido", LONGITUD_NOMBRE)
+            .build();
+
+    /** Reglas del alta de un paciente: sus datos personales y su historia clínica inicial. */
+    public static final Validator<Paciente> PACIENTE_ALTA = Validator.<Paciente>builder()
+            .siNulo("El paciente no puede ser nulo.")
+            .regla(PACIENTE_MODIFICACION::agregarA)
+            .requerido(Paciente::getHistoriaClinica, "El paciente debe tener una Historia Clínica inicial.")
+            .anidado(Paciente::getHistoriaClinica, HISTORIA)
+            .build();
+
+    private ReglasValidacion() {
+    }
+
+    /**
+     * Interpreta un grupo sanguíneo en texto (por ejemplo, de un CSV) registrando el error
+     * en lugar de lanzarlo, para informarlo junto con el resto de las violaciones.
+     *
+     * @param texto       El valor leído (null o vacío si no se indicó).
+     * @param violaciones Lista donde se agrega el error si el valor no es un grupo válido.
+     * @return El grupo, o null si no se indicó o es inválido.
+     */
+    public static GrupoSanguineo grupoSanguineo(String texto, List<String> violaciones) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        for (GrupoSanguineo g : GrupoSanguineo.values()) {
+            if (g.db().equalsIgnoreCase(texto)) {
+                return g;
+            }
+        }
+        violaciones.add("Grupo sanguíneo inválido: " + texto);
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package service.validation;
+
+import java.util.List;
+
+/**
+ * Error de validación de datos de entrada que reúne todas las reglas incumplidas,
+ * no solo la primera.
+ * <p>
+ * Extiende {@link IllegalArgumentException} para que el código que ya capturaba ese tipo
+ * (menú, importador) siga funcionando sin cambios. El mensaje es la lista de violaciones
+ * separadas por {@code "; "}.
+ * </p>
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private final List<String> violaciones;
+
+    /**
+     * @param violaciones Mensajes de las reglas incumplidas (al menos uno).
+     */
+    public ValidationException(List<String> violaciones) {
+        super(String.join("; ", violaciones));
+        this.violaciones = List.copyOf(violaciones);
+    }
+
+    /**
+     * @return Los mensajes de las reglas incumplidas, en el orden en que se evaluaron.
+     */
+    public List<String> getViolaciones() {
+        return violaciones;
+    }
+}
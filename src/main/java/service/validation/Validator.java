@@ -0,0 +1,215 @@
+package service.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Conjunto inmutable de reglas de validación sobre objetos de tipo {@code T}.
+ * <p>
+ * Las reglas se arman una sola vez con {@link #builder()} (los patrones quedan precompilados) y
+ * luego se evalúan sin acceder a la base de datos, por lo que los servicios validan la entrada
+ * antes de pedir una conexión al pool. Se evalúan todas las reglas y se informan todas las
+ * violaciones juntas mediante {@link ValidationException}.
+ * </p>
+ * <p>
+ * Las instancias no tienen estado mutable y pueden compartirse entre hilos.
+ * </p>
+ *
+ * @param <T> Tipo del objeto validado.
+ */
+public final class Validator<T> {
+
+    /**
+     * Regla individual: agrega a la lista los mensajes de lo que incumple el valor (nunca null).
+     *
+     * @param <T> Tipo del objeto validado.
+     */
+    @FunctionalInterface
+    public interface Regla<T> {
+        void verificar(T valor, List<String> violaciones);
+    }
+
+    private final String mensajeNulo;
+    private final List<Regla<? super T>> reglas;
+
+    private Validator(String mensajeNulo, List<Regla<? super T>> reglas) {
+        this.mensajeNulo = mensajeNulo;
+        this.reglas = List.copyOf(reglas);
+    }
+
+    /**
+     * @param <T> Tipo del objeto a validar.
+     * @return Un constructor de reglas vacío.
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Evalúa todas las reglas sobre el valor.
+     *
+     * @param valor El objeto a validar (puede ser null).
+     * @return Los mensajes de las reglas incumplidas; vacía si el valor es válido.
+     */
+    public List<String> violaciones(T valor) {
+        List<String> violaciones = new ArrayList<>(2);
+        agregarViolaciones(valor, violaciones);
+        return violaciones;
+    }
+
+    /**
+     * Evalúa las reglas sobre un valor no nulo, sin verificar la nulidad. Permite incluir
+     * todas las reglas de este validador dentro de otro mediante {@link Builder#regla}.
+     *
+     * @param valor       El objeto a validar (no null).
+     * @param violaciones Lista donde se agregan los mensajes de las reglas incumplidas.
+     */
+    public void agregarA(T valor, List<String> violaciones) {
+        for (Regla<? super T> regla : reglas) {
+            regla.verificar(valor, violaciones);
+        }
+    }
+
+    /**
+     * Valida el objeto y lanza una excepción con todas las violaciones encontradas.
+     *
+     * @param valor El objeto a validar.
+     * @throws ValidationException Si incumple al menos una regla.
+     */
+    public void validar(T valor) {
+        List<String> violaciones = violaciones(valor);
+        if (!violaciones.isEmpty()) {
+            throw new ValidationException(violaciones);
+        }
+    }
+
+    /**
+     * Valida todos los elementos de una lista y lanza una única excepción con las violaciones de
+     * todos ellos, indicando la posición (desde 0) de cada elemento inválido.
+     *
+     * @param valores Los objetos a validar.
+     * @throws ValidationException Si algún elemento incumple al menos una regla.
+     */
+    public void validarTodos(List<? extends T> valores) {
+        List<String> violaciones = new ArrayList<>();
+        List<String> delElemento = new ArrayList<>(2);
+        for (int i = 0; i < valores.size(); i++) {
+            agregarViolaciones(valores.get(i), delElemento);
+            for (String v : delElemento) {
+                violaciones.add("Posición " + i + ": " + v);
+            }
+            delElemento.clear();
+        }
+        if (!violaciones.isEmpty()) {
+            throw new ValidationException(violaciones);
+        }
+    }
+
+    private void agregarViolaciones(T valor, List<String> violaciones) {
+        if (valor == null) {
+            violaciones.add(mensajeNulo);
+            return;
+        }
+        agregarA(valor, violaciones);
+    }
+
+    /**
+     * Constructor de un {@link Validator}. Las reglas se evalúan en el orden en que se agregan.
+     *
+     * @param <T> Tipo del objeto validado.
+     */
+    public static final class Builder<T> {
+
+        private String mensajeNulo = "El valor no puede ser nulo.";
+        private final List<Regla<? super T>> reglas = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param mensaje Mensaje a informar cuando el objeto a validar es null.
+         */
+        public Builder<T> siNulo(String mensaje) {
+            this.mensajeNulo = mensaje;
+            return this;
+        }
+
+        /**
+         * Exige que el texto no sea null ni esté en blanco.
+         */
+        public Builder<T> obligatorio(Function<? super T, String> campo, String nombre) {
+            return regla((valor, violaciones) -> {
+                String texto = campo.apply(valor);
+                if (texto == null || texto.isBlank()) {
+                    violaciones.add("El " + nombre + " es obligatorio.");
+                }
+            });
+        }
+
+        /**
+         * Exige que el valor no sea null.
+         */
+        public Builder<T> requerido(Function<? super T, ?> campo, String mensaje) {
+            return regla((valor, violaciones) -> {
+                if (campo.apply(valor) == null) {
+                    violaciones.add(mensaje);
+                }
+            });
+        }
+
+        /**
+         * Limita la longitud del texto (si no es null) al tamaño de su columna.
+         */
+        public Builder<T> longitudMaxima(Function<? super T, String> campo, String nombre, int maximo) {
+            return regla((valor, violaciones) -> {
+                String texto = campo.apply(valor);
+                if (texto != null && texto.length() > maximo) {
+                    violaciones.add("El " + nombre + " no puede superar los " + maximo + " caracteres.");
+                }
+            });
+        }
+
+        /**
+         * Exige que el texto, si no está en blanco, coincida completo con el patrón.
+         * Un texto vacío se deja a cargo de {@link #obligatorio}.
+         */
+        public Builder<T> formato(Function<? super T, String> campo, String nombre, Pattern patron, String descripcion) {
+            return regla((valor, violaciones) -> {
+                String texto = campo.apply(valor);
+                if (texto != null && !texto.isBlank() && !patron.matcher(texto).matches()) {
+                    violaciones.add("El " + nombre + " debe " + descripcion + ".");
+                }
+            });
+        }
+
+        /**
+         * Aplica otro validador a un objeto asociado, si no es null. La obligatoriedad del
+         * objeto asociado se expresa por separado con {@link #requerido}.
+         */
+        public <V> Builder<T> anidado(Function<? super T, ? extends V> campo, Validator<? super V> validador) {
+            return regla((valor, violaciones) -> {
+                V asociado = campo.apply(valor);
+                if (asociado != null) {
+                    validador.agregarViolaciones(asociado, violaciones);
+                }
+            });
+        }
+
+        /**
+         * Agrega una regla arbitraria.
+         */
+        public Builder<T> regla(Regla<? super T> regla) {
+            reglas.add(regla);
+            return this;
+        }
+
+        /**
+         * @return El validador con las reglas agregadas hasta el momento.
+         */
+        public Validator<T> build() {
+            return new Validator<>(mensajeNulo, reglas);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dao.impl;
+
+import config.DatabaseConnection;
+import config.TransactionManager;
+import dao.ArchivoDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArchivoDaoImplTest {
+
+    private static final LocalDateTime LIMITE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @BeforeEach
+    void crearEsquema() throws SQLException, IOException {
+        BaseDatosPrueba.crearEsquema();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            // 1: paciente e historia de baja. 2: paciente de baja con su historia todavía activa.
+            // 3: paciente activo con su historia dada de baja recientemente (aún dentro de la retención).
+            st.executeUpdate("INSERT INTO paciente (id, eliminado, nombre, apellido, dni, eliminado_en) VALUES " +
+                    "(1, TRUE, 'Ana', 'Pérez', '40000001', '2000-01-01 00:00:00'), " +
+                    "(2, TRUE, 'Bruno', 'Gómez', '40000002', '2000-01-01 00:00:00'), " +
+                    "(3, FALSE, 'Carla', 'López', '40000003', NULL)");
+            st.executeUpdate("INSERT INTO historia_clinica (id, eliminado, nro_historia, paciente_id, eliminado_en) VALUES " +
+                    "(1, TRUE, 'HC-1', 1, '2000-01-01 00:00:00'), " +
+                    "(2, FALSE, 'HC-2', 2, NULL), " +
+                    "(3, TRUE, 'HC-3', 3, LOCALTIMESTAMP)");
+        }
+    }
+
+    @Test
+    void pacienteConHistoriaActivaNoSeSelecciona() throws SQLException {
+        List<Long> ids = TransactionManager.inTransaction(conn ->
+                DaoFactory.archivo(conn).lockDeletedPatients(LIMITE, 0, 10));
+
+        assertEquals(List.of(1L), ids);
+    }
+
+    @Test
+    void soloSeMuevenLasHistoriasDeLosPacientesArchivados() throws SQLException {
+        // Como si el paciente 3 se hubiera reactivado y la historia 2 también, después de bloquear el lote
+        ArchivoDao.Archivados a = TransactionManager.inTransaction(conn ->
+                DaoFactory.archivo(conn).archivePatients(List.of(1L, 2L, 3L)));
+
+        assertEquals(new ArchivoDao.Archivados(1, 1), a);
+        assertEquals(2, contar("paciente"));
+        assertEquals(1, contar("historia_clinica WHERE id = 2 AND eliminado = FALSE"));
+        // La baja reciente de la historia 3 sigue en la tabla de trabajo hasta cumplir su retención
+        assertEquals(1, contar("historia_clinica WHERE id = 3 AND eliminado = TRUE"));
+        assertEquals(1, contar("paciente_archivo"));
+        assertEquals(1, contar("historia_clinica_archivo"));
+    }
+
+    private static long contar(String desde) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + desde)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
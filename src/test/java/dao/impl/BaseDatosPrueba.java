@@ -0,0 +1,41 @@
+package dao.impl;
+
+import config.DatabaseConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base H2 en memoria de los tests de acceso a datos ({@code db-test.properties}), creada con el
+ * mismo script que la base real ({@code sql/create_bd.sql}).
+ */
+final class BaseDatosPrueba {
+
+    private BaseDatosPrueba() {
+    }
+
+    /**
+     * Borra todo el contenido de la base y vuelve a crear el esquema vacío.
+     */
+    static void crearEsquema() throws SQLException, IOException {
+        String script;
+        try (InputStream in = BaseDatosPrueba.class.getClassLoader().getResourceAsStream("create_bd.sql")) {
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            for (String sentencia : script.split(";")) {
+                String sql = sentencia.strip();
+                String mayus = sql.toUpperCase();
+                if (!sql.isEmpty() && !mayus.startsWith("CREATE DATABASE") && !mayus.startsWith("USE ")) {
+                    st.execute(sql);
+                }
+            }
+        }
+    }
+}
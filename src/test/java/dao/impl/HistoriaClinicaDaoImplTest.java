@@ -0,0 +1,79 @@
+package dao.impl;
+
+import config.DatabaseConnection;
+import config.TransactionManager;
+import model.HistoriaClinica;
+import model.Paciente;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HistoriaClinicaDaoImplTest {
+
+    @BeforeAll
+    static void crearEsquema() throws SQLException, IOException {
+        BaseDatosPrueba.crearEsquema();
+    }
+
+    @Test
+    void detalleDeUnaHistoriaInexistenteNoQuedaCargado() throws SQLException {
+        HistoriaClinica resumen = crearResumen("50000001", "HC-50000001");
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM historia_clinica WHERE id = " + resumen.getId());
+        }
+
+        assertThrows(SQLException.class, () -> cargarDetalle(resumen));
+        assertFalse(resumen.isDetalleCargado());
+    }
+
+    @Test
+    void cambioTrasCargarElDetalleSeEscribe() throws SQLException {
+        HistoriaClinica resumen = crearResumen("50000002", "HC-50000002");
+
+        cargarDetalle(resumen);
+        resumen.setAntecedentes("Asma");
+        TransactionManager.inTransaction(conn -> {
+            DaoFactory.historiaClinica(conn).update(resumen);
+            return null;
+        });
+
+        HistoriaClinica leida = TransactionManager.inReadOnly(conn ->
+                DaoFactory.historiaClinica(conn).findById(resumen.getId())).orElseThrow();
+        assertEquals("Asma", leida.getAntecedentes());
+    }
+
+    /**
+     * Crea un paciente con su historia y devuelve la historia leída con la proyección resumida.
+     */
+    private static HistoriaClinica crearResumen(String dni, String nroHistoria) throws SQLException {
+        Paciente p = new Paciente("Ana", "Pérez", dni, LocalDate.of(1980, 1, 1), null);
+        HistoriaClinica hc = new HistoriaClinica(nroHistoria, null, "Ninguno", null, null, LocalDate.now(), null);
+        TransactionManager.inTransaction(conn -> {
+            DaoFactory.paciente(conn).create(p);
+            hc.setPacienteId(p.getId());
+            return DaoFactory.historiaClinica(conn).create(hc);
+        });
+        return TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).searchByName("Pérez", null, null, 100))
+                .getItems().stream()
+                .filter(paciente -> paciente.getId().equals(p.getId()))
+                .findFirst().orElseThrow()
+                .getHistoriaClinica();
+    }
+
+    private static void cargarDetalle(HistoriaClinica hc) throws SQLException {
+        TransactionManager.inReadOnly(conn -> {
+            DaoFactory.historiaClinica(conn).loadDetails(hc);
+            return null;
+        });
+    }
+}
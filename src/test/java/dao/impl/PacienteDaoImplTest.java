@@ -0,0 +1,81 @@
+package dao.impl;
+
+import config.TransactionManager;
+import dao.ConflictoVersionException;
+import model.Paciente;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PacienteDaoImplTest {
+
+    @BeforeAll
+    static void crearEsquema() throws SQLException, IOException {
+        BaseDatosPrueba.crearEsquema();
+    }
+
+    @Test
+    void revertirUnCambioYaConfirmadoTambienSeEscribe() throws SQLException {
+        Paciente p = crear("30000001", "Ana");
+
+        p.setNombre("Beatriz");
+        actualizar(p);
+        p.setNombre("Ana");
+        actualizar(p);
+
+        assertEquals("Ana", leer(p.getId()).getNombre());
+    }
+
+    @Test
+    void unaActualizacionRevertidaNoSeDaPorEscrita() throws SQLException {
+        Paciente p = crear("30000002", "Carlos");
+
+        p.setNombre("Daniel");
+        assertThrows(IllegalStateException.class, () -> TransactionManager.inTransaction(conn -> {
+            DaoFactory.paciente(conn).update(p);
+            throw new IllegalStateException("Falla posterior al UPDATE");
+        }));
+        actualizar(p);
+
+        assertEquals("Daniel", leer(p.getId()).getNombre());
+    }
+
+    @Test
+    void unaEdicionSobreDatosDesactualizadosNoPisaLaAnterior() throws SQLException {
+        Paciente creado = crear("30000003", "Elena");
+        Paciente primero = leer(creado.getId());
+        Paciente segundo = leer(creado.getId());
+
+        primero.setNombre("Fabiana");
+        actualizar(primero);
+        segundo.setApellido("Gómez");
+
+        assertThrows(ConflictoVersionException.class, () -> actualizar(segundo));
+        assertEquals(segundo.getVersion() + 1, primero.getVersion());
+        Paciente guardado = leer(creado.getId());
+        assertEquals("Fabiana", guardado.getNombre());
+        assertEquals("Pérez", guardado.getApellido());
+    }
+
+    private static Paciente crear(String dni, String nombre) throws SQLException {
+        Paciente p = new Paciente(nombre, "Pérez", dni, LocalDate.of(1980, 1, 1), null);
+        return TransactionManager.inTransaction(conn -> DaoFactory.paciente(conn).create(p));
+    }
+
+    private static void actualizar(Paciente p) throws SQLException {
+        TransactionManager.inTransaction(conn -> {
+            DaoFactory.paciente(conn).update(p);
+            return null;
+        });
+    }
+
+    private static Paciente leer(Long id) throws SQLException {
+        return TransactionManager.inReadOnly(conn -> DaoFactory.paciente(conn).findById(id)).orElseThrow();
+    }
+}
@@ -0,0 +1,145 @@
+package io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.PacienteService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PacienteCsvImporterTest {
+
+    /** Más registros de los que caben en la ventana y en las dos colas del pipeline. */
+    private static final int REGISTROS = 20_000;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void fallaDelConsumidorNoDejaHilosBloqueados() throws Exception {
+        Path archivo = escribirCsv("pacientes.csv", 0, REGISTROS);
+        PacienteCsvImporter importador = new PacienteCsvImporter(servicio(0));
+
+        RuntimeException e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(RuntimeException.class, () -> importador.importar(archivo)));
+        assertInstanceOf(SQLException.class, e.getCause());
+
+        // El lector y el validador terminan aunque sus colas estén llenas
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (hilosVivos() && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        assertFalse(hilosVivos(), "Quedaron hilos del importador bloqueados");
+
+        // La falla de la base no se confunde con registros rechazados ni avanza el punto de control
+        assertEquals(0, rechazos(archivo).size());
+        assertNull(checkpoint(archivo));
+    }
+
+    @Test
+    void fallaDeLaBaseSeRetomaDesdeElUltimoLoteConfirmado() throws Exception {
+        Path archivo = escribirCsv("pacientes.csv", 0, 2_500);
+
+        assertThrows(RuntimeException.class, () -> new PacienteCsvImporter(servicio(1)).importar(archivo));
+        assertEquals("1000", checkpoint(archivo));
+        assertEquals(0, rechazos(archivo).size());
+
+        PacienteCsvImporter.Resultado r = new PacienteCsvImporter(servicio(Integer.MAX_VALUE)).importar(archivo);
+        assertEquals(1_000, r.omitidos());
+        assertEquals(1_500, r.importados());
+        assertEquals(0, r.rechazados());
+        assertNull(checkpoint(archivo));
+    }
+
+    @Test
+    void registrosInvalidosSeConfirmanSinAcumularse() throws Exception {
+        // Una ventana completa de registros inválidos y luego una de válidos, cuya alta falla
+        Path archivo = escribirCsv("invalidos.csv", 1_000, 1_000);
+
+        assertThrows(RuntimeException.class, () -> new PacienteCsvImporter(servicio(0)).importar(archivo));
+
+        // La primera ventana se confirmó sin ninguna alta: sus rechazos quedaron escritos y el punto de control avanzó
+        assertEquals(1_000, rechazos(archivo).size());
+        assertEquals("1000", checkpoint(archivo));
+    }
+
+    /**
+     * Escribe un CSV con {@code invalidos} registros de DNI no numérico seguidos de {@code validos} registros válidos.
+     */
+    private Path escribirCsv(String nombre, int invalidos, int validos) throws IOException {
+        Path archivo = directorio.resolve(nombre);
+        try (BufferedWriter w = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            w.write("dni,nombre,apellido,nro_historia\n");
+            for (int i = 0; i < invalidos + validos; i++) {
+                String dni = i < invalidos ? "x" + i : String.valueOf(10_000_000 + i);
+                w.write(dni + ",Ana,Pérez,HC-" + i + "\n");
+            }
+        }
+        return archivo;
+    }
+
+    /** Registros del archivo de rechazos, sin el encabezado. */
+    private static List<String> rechazos(Path archivo) throws IOException {
+        List<String> lineas = Files.readAllLines(archivo.resolveSibling(archivo.getFileName() + ".rechazos.csv"));
+        return lineas.subList(1, lineas.size());
+    }
+
+    /** Contenido del punto de control, o null si no existe. */
+    private static String checkpoint(Path archivo) throws IOException {
+        Path ruta = archivo.resolveSibling(archivo.getFileName() + ".checkpoint");
+        return Files.exists(ruta) ? Files.readString(ruta).trim() : null;
+    }
+
+    private static boolean hilosVivos() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(t -> t.isAlive() && t.getName().startsWith("importador-csv-"));
+    }
+
+    /**
+     * Servicio falso: {@code validar} rechaza los DNI no numéricos. Las primeras {@code altasExitosas}
+     * llamadas a {@code createAll} se aceptan; después, {@code createAll} y {@code create} fallan como
+     * el servicio real ante una conexión perdida: con una {@link RuntimeException} que envuelve la
+     * {@link SQLException}.
+     */
+    private static PacienteService servicio(int altasExitosas) {
+        AtomicInteger altas = new AtomicInteger();
+        return (PacienteService) Proxy.newProxyInstance(PacienteService.class.getClassLoader(),
+                new Class<?>[]{PacienteService.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "validar" -> {
+                        String dni = ((model.Paciente) args[0]).getDni();
+                        if (!dni.chars().allMatch(Character::isDigit)) {
+                            throw new IllegalArgumentException("DNI inválido: " + dni);
+                        }
+                        yield null;
+                    }
+                    case "createAll" -> {
+                        if (altas.getAndIncrement() < altasExitosas) {
+                            yield args[0];
+                        }
+                        throw conexionPerdida();
+                    }
+                    case "create" -> throw conexionPerdida();
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    private static RuntimeException conexionPerdida() {
+        SQLException causa = new SQLException("Conexión perdida");
+        return new RuntimeException("Error en la transacción: " + causa.getMessage(), causa);
+    }
+}
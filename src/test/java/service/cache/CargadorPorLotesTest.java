@@ -0,0 +1,71 @@
+package service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CargadorPorLotesTest {
+
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    /** Resuelve cada clave {@code k} como {@code "v" + k}. */
+    private final CargadorPorLotes.FuncionLote<Long, String> funcion = claves -> {
+        consultas.incrementAndGet();
+        Map<Long, String> valores = new HashMap<>();
+        claves.forEach(k -> valores.put(k, "v" + k));
+        return valores;
+    };
+
+    @Test
+    void olvidarUnaClavePendienteNoDejaEsperandoAlPrimerPedido() throws Exception {
+        CargadorPorLotes<Long, String> cargador = new CargadorPorLotes<>(funcion, v -> v, Duration.ofMillis(200), 100);
+
+        CompletableFuture<Optional<String>> primero = cargador.cargar(1L);
+        cargador.olvidar(1L);
+        CompletableFuture<Optional<String>> segundo = cargador.cargar(1L);
+        cargador.olvidarTodo();
+        CompletableFuture<Optional<String>> tercero = cargador.cargar(1L);
+
+        assertEquals(Optional.of("v1"), primero.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of("v1"), segundo.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of("v1"), tercero.get(5, TimeUnit.SECONDS));
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    void olvidarUnaClaveEnCursoVuelveAConsultarla() throws Exception {
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CargadorPorLotes<Long, String> cargador = new CargadorPorLotes<>(claves -> {
+            if (consultas.get() == 0) {
+                iniciada.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return funcion.cargar(claves);
+        }, v -> v, Duration.ZERO, 100);
+
+        CompletableFuture<Optional<String>> primero = cargador.cargar(1L);
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+        cargador.olvidar(1L);
+        CompletableFuture<Optional<String>> segundo = cargador.cargar(1L);
+        liberar.countDown();
+
+        assertEquals(Optional.of("v1"), primero.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of("v1"), segundo.get(5, TimeUnit.SECONDS));
+        assertEquals(2, consultas.get());
+    }
+}